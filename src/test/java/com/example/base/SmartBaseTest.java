@@ -3,22 +3,47 @@ package com.example.base;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
 import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.HasCdp;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.firefox.GeckoDriverService;
 import org.openqa.selenium.edge.EdgeDriver;
+import org.openqa.selenium.edge.EdgeDriverService;
 import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.Alert;
 import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.remote.service.DriverService;
+import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import io.github.bonigarcia.wdm.WebDriverManager;
+import com.example.utils.AuthStateCache;
+import com.example.utils.BrowserMetricsCollector;
+import com.example.utils.BrowserProcessSampler;
+import com.example.utils.CommandTracingListener;
+import com.example.utils.DomQuery;
+import com.example.utils.DomSnapshot;
+import com.example.utils.FormFill;
+import com.example.utils.PerformanceBudget;
+import com.example.utils.PerformanceBudgetExceededError;
+import com.example.utils.ResultCache;
 import com.example.utils.ScreenshotUtil;
 import com.example.utils.TestHelper;
 import com.example.utils.ExecutionIdManager;
+import com.example.utils.ExecutionJournal;
+import com.example.utils.FrameworkEvents;
+import com.example.utils.FrameworkLog;
 import com.example.utils.ReportGenerator;
+import com.example.utils.StepLatencyStats;
+import com.example.utils.AccountingWebDriverWait;
+import com.example.utils.WaitAccounting;
 
 import java.io.File;
 import java.time.Duration;
@@ -43,12 +68,40 @@ public class SmartBaseTest {
     private static final String ALL_STEPS_MODE = "all";
     private static final String DEFAULT_MODE = FAILURE_ONLY_MODE; // Default to failure-only mode
     
+    // How long a restored login state gets to show the logged-in page before the UI login runs instead
+    private static final Duration LOGIN_VALIDATION_TIMEOUT = Duration.ofSeconds(5);
+    
     // Screenshot mode for current test
     protected boolean useFailureOnlyScreenshots;
+    
+    // Browser metrics of the most recent navigation
+    protected BrowserMetricsCollector.BrowserMetrics lastBrowserMetrics;
+    
+    // Duration of the most recent step, checked against step duration budgets
+    private long lastStepDurationNanos;
+    
+    // Latest DOM snapshot of the driver, dropped by the next command that may change the page
+    private final DomSnapshot.Cache domSnapshots = new DomSnapshot.Cache();
+    
+    // CPU and memory sampling of the driver and browser processes of this test's session
+    private BrowserProcessSampler.Session processSession;
+    
+    // Storage of the page the session is on; pages without an origin (about:blank, data:) have none
+    private static final String CLEAR_STORAGE_SCRIPT = """
+        try {
+            window.localStorage.clear();
+            window.sessionStorage.clear();
+        } catch (e) {
+        }
+        """;
 
     protected WebDriver createDriver() {
         String browser = System.getProperty("browser", "chrome").toLowerCase();
         boolean headless = Boolean.parseBoolean(System.getProperty("headless", "false"));
+        FrameworkEvents.DriverEvent driverEvent = FrameworkEvents.beginDriver();
+        long driverStart = System.nanoTime();
+        // Started explicitly so its port identifies this session's process tree, see BrowserProcessSampler
+        DriverService driverService;
 
         switch (browser) {
             case "firefox":
@@ -69,7 +122,9 @@ public class SmartBaseTest {
                 firefoxOptions.addPreference("browser.safebrowsing.enabled", false);
                 firefoxOptions.addPreference("browser.safebrowsing.malware.enabled", false);
                 firefoxOptions.addPreference("browser.safebrowsing.phishing.enabled", false);
-                driver = new FirefoxDriver(firefoxOptions);
+                GeckoDriverService firefoxService = GeckoDriverService.createDefaultService();
+                driverService = firefoxService;
+                driver = new FirefoxDriver(firefoxService, firefoxOptions);
                 break;
             case "edge":
                 EdgeOptions edgeOptions = new EdgeOptions();
@@ -96,7 +151,9 @@ public class SmartBaseTest {
                     "profile.password_manager_enabled", false,
                     "profile.default_content_setting_values.notifications", 2
                 ));
-                driver = new EdgeDriver(edgeOptions);
+                EdgeDriverService edgeService = EdgeDriverService.createDefaultService();
+                driverService = edgeService;
+                driver = new EdgeDriver(edgeService, edgeOptions);
                 break;
             default:
                 // Initialize WebDriverManager for Chrome
@@ -133,12 +190,25 @@ public class SmartBaseTest {
                     "profile.password_manager_enabled", false,
                     "profile.default_content_setting_values.notifications", 2
                 ));
-                driver = new ChromeDriver(options);
+                ChromeDriverService chromeService = ChromeDriverService.createDefaultService();
+                driverService = chromeService;
+                driver = new ChromeDriver(chromeService, options);
         }
+        
+        processSession = BrowserProcessSampler.start(driverService.getUrl().getPort());
+        // Read from the undecorated driver, for the result cache keys of later tests and runs
+        ResultCache.recordBrowserVersion(browser, driver);
+        
+        // Optional per-command latency tracing, see -Dtrace.commands
+        driver = CommandTracingListener.decorateIfEnabled(driver);
+        // Outermost, so every command the test sends can invalidate the DOM snapshot, see -Ddom.snapshot.enabled
+        driver = domSnapshots.decorate(driver);
 
         driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(5));
         // Maximizar la ventana del navegador
         driver.manage().window().maximize();
+        FrameworkEvents.commitDriver(driverEvent, "create", browser);
+        ExecutionJournal.span("Driver startup (" + browser + ")", "driver", driverStart, 0);
         
         return driver;
     }
@@ -149,7 +219,7 @@ public class SmartBaseTest {
             createDriver();
         }
         // Initialize WebDriverWait with 10 seconds timeout
-        wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+        wait = new AccountingWebDriverWait(driver, Duration.ofSeconds(10));
         
         // Clean up old screenshots before starting new test execution
         cleanOldScreenshots();
@@ -163,8 +233,91 @@ public class SmartBaseTest {
 
     @AfterEach
     public void tearDown() {
+        // Final sample while the browser is still running
+        stopProcessSampling();
         if (driver != null) {
+            FrameworkEvents.DriverEvent driverEvent = FrameworkEvents.beginDriver();
+            long quitStart = System.nanoTime();
             driver.quit();
+            FrameworkEvents.commitDriver(driverEvent, "quit", System.getProperty("browser", "chrome").toLowerCase());
+            ExecutionJournal.span("Driver quit", "driver", quitStart, 0);
+        }
+    }
+    
+    /**
+     * Stop sampling the browser processes and attach their usage to the current test
+     */
+    private void stopProcessSampling() {
+        if (processSession == null) {
+            return;
+        }
+        BrowserProcessSampler.ProcessUsage usage = processSession.stop();
+        processSession = null;
+        BrowserProcessSampler.recordUsage(usage);
+        String testId = TestResultTracker.getCurrentTestId();
+        if (testId != null) {
+            TestResultTracker.recordProcessUsage(testId, usage);
+        }
+        FrameworkLog.debug(() -> "🖥️ Browser processes: " + usage);
+    }
+    
+    /**
+     * Get the browser ready for another attempt of the current test
+     * A responsive session is reset (alerts dismissed, extra windows closed, cookies and web storage cleared)
+     * and reused, a session that does not respond or cannot be cleared is quit and replaced.
+     * The retry invokes the test method again on the same instance, without the @BeforeEach and
+     * {@code @AfterEach} methods, so fields a test sets itself keep the values of the failed attempt.
+     * Tests that keep state in fields override this method to reset it and call super.
+     * @return whether the existing session was reused
+     */
+    protected boolean prepareRetry() {
+        long resetStart = System.nanoTime();
+        lastBrowserMetrics = null;
+        lastStepDurationNanos = 0;
+        if (driver != null && resetSession()) {
+            wait = new AccountingWebDriverWait(driver, Duration.ofSeconds(10));
+            ExecutionJournal.span("Driver reset for retry", "driver", resetStart, 0);
+            return true;
+        }
+        stopProcessSampling();
+        if (driver != null) {
+            try {
+                driver.quit();
+            } catch (WebDriverException e) {
+                FrameworkLog.debug(() -> "🧹 Quitting the broken session failed: " + e.getMessage());
+            }
+        }
+        createDriver();
+        wait = new AccountingWebDriverWait(driver, Duration.ofSeconds(10));
+        closePopups();
+        return false;
+    }
+    
+    /**
+     * Bring a session back to a single window with no cookies or web storage, false when it does not
+     * respond or its state cannot be fully cleared
+     */
+    private boolean resetSession() {
+        try {
+            closePopups();
+            List<String> handles = new ArrayList<>(driver.getWindowHandles());
+            for (int i = 1; i < handles.size(); i++) {
+                driver.switchTo().window(handles.get(i));
+                driver.close();
+            }
+            driver.switchTo().window(handles.get(0));
+            driver.switchTo().defaultContent();
+            // WebDriver only deletes the cookies of the current domain, CDP clears those of every origin
+            if (!(driver instanceof HasCdp)) {
+                FrameworkLog.debug("🧹 Browser cannot clear the cookies of every origin, starting a new session");
+                return false;
+            }
+            ((HasCdp) driver).executeCdpCommand("Network.clearBrowserCookies", new HashMap<>());
+            ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE_SCRIPT);
+            return true;
+        } catch (WebDriverException e) {
+            FrameworkLog.warn("⚠️ Warning: Browser session is not healthy, starting a new one: " + e.getMessage());
+            return false;
         }
     }
 
@@ -202,7 +355,7 @@ public class SmartBaseTest {
         // Apply the configuration
         TestHelper.setupScreenshotMode(useFailureOnlyScreenshots);
         
-        System.out.println("📸 Screenshot mode: " + (useFailureOnlyScreenshots ? "FAILURE-ONLY" : "ALL-STEPS"));
+        FrameworkLog.info("📸 Screenshot mode: " + (useFailureOnlyScreenshots ? "FAILURE-ONLY" : "ALL-STEPS"));
     }
     
     /**
@@ -212,7 +365,7 @@ public class SmartBaseTest {
     protected void setScreenshotMode(boolean failureOnly) {
         useFailureOnlyScreenshots = failureOnly;
         TestHelper.setupScreenshotMode(failureOnly);
-        System.out.println("📸 Screenshot mode overridden to: " + (failureOnly ? "FAILURE-ONLY" : "ALL-STEPS"));
+        FrameworkLog.info("📸 Screenshot mode overridden to: " + (failureOnly ? "FAILURE-ONLY" : "ALL-STEPS"));
     }
     
     /**
@@ -268,41 +421,26 @@ public class SmartBaseTest {
                 return;
             }
             
-            // Group screenshots by execution ID
-            Map<String, List<File>> executionGroups = new HashMap<>();
-            
-            for (File screenshot : allScreenshots) {
-                String filename = screenshot.getName();
-                String executionId = ExecutionIdManager.extractExecutionIdFromFilename(filename);
-                executionGroups.computeIfAbsent(executionId, k -> new ArrayList<>()).add(screenshot);
-            }
-            
-            // Get current execution ID
-            String currentExecutionId = ExecutionIdManager.getCurrentExecutionId();
+            // Executions still running, this one and those of parallel forks or other builds
+            Set<String> liveExecutionIds = ExecutionIdManager.getLiveExecutionIds();
             
+            // Only keep screenshots from live executions
+            // Delete all other screenshots (from previous test runs)
             int deletedCount = 0;
-            for (Map.Entry<String, List<File>> entry : executionGroups.entrySet()) {
-                String executionId = entry.getKey();
-                
-                // Only keep screenshots from the current execution ID
-                // Delete all other screenshots (from previous test runs)
-                if (!currentExecutionId.equals(executionId)) {
-                    for (File oldScreenshot : entry.getValue()) {
-                        if (oldScreenshot.delete()) {
-                            deletedCount++;
-                        }
-                    }
+            for (File screenshot : allScreenshots) {
+                if (ExecutionIdManager.isFromFinishedExecution(screenshot.getName(), liveExecutionIds) && screenshot.delete()) {
+                    deletedCount++;
                 }
             }
             
             if (deletedCount > 0) {
-                System.out.println("🧹 Cleaned up " + deletedCount + " old screenshots from previous test runs");
+                FrameworkLog.info("🧹 Cleaned up " + deletedCount + " old screenshots from previous test runs");
             } else {
-                System.out.println("📸 Keeping all screenshots from current test session");
+                FrameworkLog.info("📸 Keeping all screenshots from current test session");
             }
             
         } catch (Exception e) {
-            System.err.println("⚠️ Warning: Failed to clean old screenshots: " + e.getMessage());
+            FrameworkLog.warn("⚠️ Warning: Failed to clean old screenshots: " + e.getMessage());
         }
     }
     
@@ -314,16 +452,28 @@ public class SmartBaseTest {
      * @return Result of the step execution
      */
     protected <T> T executeStep(String stepName, String stepDescription, Supplier<T> stepCode) {
-        System.out.println("🔄 Executing step: " + stepName + " - " + stepDescription);
+        FrameworkLog.info(() -> "🔄 Executing step: " + stepName + " - " + stepDescription);
+        long stepStart = ExecutionJournal.stepStarted(stepName, stepDescription);
+        FrameworkEvents.StepEvent stepEvent = FrameworkEvents.beginStep();
+        WaitAccounting.stepStarted();
+        boolean passed = false;
         
         try {
             T result = stepCode.get();
-            System.out.println("✅ Step completed: " + stepName);
+            passed = true;
+            FrameworkLog.info(() -> "✅ Step completed: " + stepName);
             return result;
         } catch (Exception e) {
-            System.err.println("❌ Step failed: " + stepName + " - " + e.getMessage());
+            FrameworkLog.error("❌ Step failed: " + stepName + " - " + e.getMessage());
+            ExecutionJournal.failure(stepName, e);
             handleStepFailure(stepName, e);
             throw e; // Re-throw to maintain test failure behavior
+        } finally {
+            // Assertion errors bypass the catch above but still end the step as failed
+            WaitAccounting.stepFinished(stepName);
+            lastStepDurationNanos = ExecutionJournal.stepFinished(stepName, passed, stepStart);
+            StepLatencyStats.record(stepName, lastStepDurationNanos);
+            FrameworkEvents.commitStep(stepEvent, stepName, passed);
         }
     }
     
@@ -340,6 +490,32 @@ public class SmartBaseTest {
         });
     }
     
+    /**
+     * Execute a test step and check it against performance budgets
+     * @param stepName Name of the step being executed
+     * @param stepDescription Description of what the step does
+     * @param stepCode The code to execute
+     * @param budgets Budgets the step must stay within, e.g. PerformanceBudget.stepDuration(Duration.ofMillis(300))
+     * @return Result of the step execution
+     */
+    protected <T> T executeStep(String stepName, String stepDescription, Supplier<T> stepCode, PerformanceBudget... budgets) {
+        T result = executeStep(stepName, stepDescription, stepCode);
+        checkBudgets(stepName, budgets);
+        return result;
+    }
+    
+    /**
+     * Execute a test step and check it against performance budgets (void return)
+     * @param stepName Name of the step being executed
+     * @param stepDescription Description of what the step does
+     * @param stepCode The code to execute
+     * @param budgets Budgets the step must stay within
+     */
+    protected void executeStep(String stepName, String stepDescription, Runnable stepCode, PerformanceBudget... budgets) {
+        executeStep(stepName, stepDescription, stepCode);
+        checkBudgets(stepName, budgets);
+    }
+    
     /**
      * Execute a test step with automatic failure handling and screenshot capture
      * @param stepName Name of the step being executed
@@ -349,16 +525,28 @@ public class SmartBaseTest {
      * @return Result of the step execution
      */
     protected <T> T executeStep(String stepName, String stepDescription, Supplier<T> stepCode, boolean captureScreenshot) {
-        System.out.println("🔄 Executing step: " + stepName + " - " + stepDescription);
+        FrameworkLog.info(() -> "🔄 Executing step: " + stepName + " - " + stepDescription);
+        long stepStart = ExecutionJournal.stepStarted(stepName, stepDescription);
+        FrameworkEvents.StepEvent stepEvent = FrameworkEvents.beginStep();
+        WaitAccounting.stepStarted();
+        boolean passed = false;
         
         try {
             T result = stepCode.get();
-            System.out.println("✅ Step completed: " + stepName);
+            passed = true;
+            FrameworkLog.info(() -> "✅ Step completed: " + stepName);
             return result;
         } catch (Exception e) {
-            System.err.println("❌ Step failed: " + stepName + " - " + e.getMessage());
+            FrameworkLog.error("❌ Step failed: " + stepName + " - " + e.getMessage());
+            ExecutionJournal.failure(stepName, e);
             handleStepFailure(stepName, e, captureScreenshot);
             throw e; // Re-throw to maintain test failure behavior
+        } finally {
+            // Assertion errors bypass the catch above but still end the step as failed
+            WaitAccounting.stepFinished(stepName);
+            lastStepDurationNanos = ExecutionJournal.stepFinished(stepName, passed, stepStart);
+            StepLatencyStats.record(stepName, lastStepDurationNanos);
+            FrameworkEvents.commitStep(stepEvent, stepName, passed);
         }
     }
     
@@ -381,16 +569,16 @@ public class SmartBaseTest {
      */
     protected void handleStepFailure(String stepName, Exception exception, boolean captureScreenshot) {
         // Record failure in tracker
-        String testName = TestResultTracker.getCurrentTestName();
-        if (testName != null) {
-            TestResultTracker.recordFailure(testName, stepName, exception);
+        String testId = TestResultTracker.getCurrentTestId();
+        if (testId != null) {
+            TestResultTracker.recordFailure(testId, stepName, exception);
         }
         
         // Capture screenshot if requested and in appropriate mode
         if (captureScreenshot) {
             String screenshotPath = handleTestFailure(stepName, exception);
-            if (screenshotPath != null && testName != null) {
-                TestResultTracker.recordScreenshot(testName);
+            if (screenshotPath != null && testId != null) {
+                TestResultTracker.recordScreenshot(testId);
             }
         }
     }
@@ -413,11 +601,185 @@ public class SmartBaseTest {
      * Safe navigation with automatic failure handling
      * @param stepName Name of the step
      * @param url URL to navigate to
+     * @param budgets Optional budgets for the page, e.g. PerformanceBudget.pageLoad(Duration.ofMillis(1500))
      */
-    protected void safeNavigate(String stepName, String url) {
+    protected void safeNavigate(String stepName, String url, PerformanceBudget... budgets) {
         executeStep(stepName, "Navigating to " + url, () -> {
             driver.get(url);
         });
+        // Collected after the step so the metrics scripts do not count towards its duration
+        if (BrowserMetricsCollector.isEnabled()) {
+            collectBrowserMetrics(stepName);
+        }
+        checkBudgets(stepName, budgets);
+    }
+    
+    /**
+     * Log in through the UI once and reuse the resulting session in later tests
+     * The first call runs the UI login and captures the cookies and web storage it produced (see AuthStateCache).
+     * Later calls inject them into the new browser session and deep-link to the landing page directly. A state
+     * that expired, or whose landing page does not pass the login check, is dropped and the UI login runs again.
+     * @param stateName Name of the cached state, e.g. "saucedemo:standard_user"
+     * @param landingUrl Page the test starts from once logged in, e.g. "https://www.saucedemo.com/inventory.html"
+     * @param uiLogin Steps that log in through the UI
+     * @param loggedIn Condition that holds on the landing page only when logged in
+     */
+    protected void loginWithCachedState(String stateName, String landingUrl, Runnable uiLogin, ExpectedCondition<?> loggedIn) {
+        Optional<AuthStateCache.AuthState> cached = AuthStateCache.get(stateName);
+        if (cached.isPresent()) {
+            boolean restored = executeStep("Restore login state", "Injecting login state '" + stateName + "' and opening " + landingUrl,
+                () -> tryRestore(cached.get(), landingUrl, loggedIn));
+            if (restored) {
+                return;
+            }
+            AuthStateCache.invalidate(stateName, "not logged in at " + landingUrl);
+            driver.manage().deleteAllCookies();
+            ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE_SCRIPT);
+        }
+        executeStep("Log in", "Logging in through the UI for '" + stateName + "'", () -> {
+            uiLogin.run();
+            wait.until(loggedIn);
+            if (AuthStateCache.isEnabled()) {
+                AuthStateCache.capture(driver, stateName);
+            }
+            if (!landingUrl.equals(driver.getCurrentUrl())) {
+                driver.get(landingUrl);
+                wait.until(loggedIn);
+            }
+        });
+    }
+    
+    /**
+     * Inject a cached login state and check it on the landing page
+     * Any error counts as not logged in rather than failing the step, so a stale state only costs a UI login
+     */
+    private boolean tryRestore(AuthStateCache.AuthState state, String landingUrl, ExpectedCondition<?> loggedIn) {
+        try {
+            return AuthStateCache.restore(driver, state) && isLoggedIn(landingUrl, loggedIn);
+        } catch (RuntimeException e) {
+            FrameworkLog.warn("⚠️ Warning: Could not check restored login state '" + state.getName() + "': " + e.getMessage());
+            return false;
+        }
+    }
+    
+    private boolean isLoggedIn(String landingUrl, ExpectedCondition<?> loggedIn) {
+        driver.get(landingUrl);
+        try {
+            new AccountingWebDriverWait(driver, LOGIN_VALIDATION_TIMEOUT).until(loggedIn);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Check the step that just finished against performance budgets
+     * Browser metrics are collected when a budget needs them and the step has none yet.
+     * A violation is recorded as a budget failure with a screenshot and fails the test
+     * with PerformanceBudgetExceededError.
+     * @param stepName Name of the step that just finished
+     * @param budgets Budgets the step must stay within
+     */
+    protected void checkBudgets(String stepName, PerformanceBudget... budgets) {
+        if (budgets == null || budgets.length == 0) {
+            return;
+        }
+        BrowserMetricsCollector.BrowserMetrics metrics =
+            lastBrowserMetrics != null && stepName.equals(lastBrowserMetrics.getStepName()) ? lastBrowserMetrics : null;
+        
+        List<PerformanceBudget.Violation> violations = new ArrayList<>();
+        for (PerformanceBudget budget : budgets) {
+            if (metrics == null && budget.needsBrowserMetrics()) {
+                metrics = collectBrowserMetrics(stepName);
+            }
+            PerformanceBudget.Violation violation = budget.check(lastStepDurationNanos, metrics);
+            if (violation != null) {
+                violations.add(violation);
+            }
+        }
+        if (violations.isEmpty()) {
+            return;
+        }
+        
+        // Keep a metrics snapshot next to the screenshot even for pure duration budgets
+        if (metrics == null && BrowserMetricsCollector.isEnabled()) {
+            collectBrowserMetrics(stepName);
+        }
+        List<String> messages = new ArrayList<>();
+        for (PerformanceBudget.Violation violation : violations) {
+            messages.add(violation.getMessage());
+            ExecutionJournal.budgetViolation(stepName, violation.getMessage(), violation.getMeasured(), violation.getBudget().getLimit());
+        }
+        PerformanceBudgetExceededError error = new PerformanceBudgetExceededError(stepName, violations);
+        FrameworkLog.error("🐢 " + error.getMessage());
+        ExecutionJournal.failure(stepName, error);
+        
+        String testId = TestResultTracker.getCurrentTestId();
+        if (testId != null) {
+            TestResultTracker.recordBudgetViolation(testId, stepName, messages);
+        }
+        String screenshotPath = handleAssertionFailure(stepName + "_Budget", error.getMessage());
+        if (screenshotPath != null && testId != null) {
+            TestResultTracker.recordScreenshot(testId);
+        }
+        throw error;
+    }
+    
+    /**
+     * Collect navigation timing, resource and Web Vitals metrics of the current page
+     * Call after interactions to capture INP and layout shifts caused by them
+     * @param stepName Name of the step the metrics are recorded for
+     * @return The collected metrics
+     */
+    protected BrowserMetricsCollector.BrowserMetrics collectBrowserMetrics(String stepName) {
+        lastBrowserMetrics = BrowserMetricsCollector.collect(driver, stepName);
+        return lastBrowserMetrics;
+    }
+    
+    /**
+     * Read many element values in a single round trip to the browser, typically inside a safeAssert
+     * e.g. queryDom(DomQuery.create().text("result", By.id("result")).selected("terms", By.id("terms")))
+     * The values are recorded in the journal and the trace under the current step.
+     * @param query Values to read, by key
+     * @return The values, to be asserted locally
+     */
+    protected DomQuery.Result queryDom(DomQuery query) {
+        return query.run(driver);
+    }
+    
+    /**
+     * Local copy of the current page or frame for reads of static content, e.g. domSnapshot().getText(By.id("result"))
+     * The copy is reused until a WebDriver command that may change the page (click, get, executeScript...)
+     * and taken again on the next call, so many reads cost a single round trip.
+     * @return Snapshot of the page, including the content of same-origin iframes
+     */
+    protected DomSnapshot domSnapshot() {
+        return domSnapshots.get(driver);
+    }
+    
+    /**
+     * Fill many form fields in a single round trip to the browser
+     * e.g. fillForm("Fill_Form", FormFill.create().field(By.name("user"), "Memo QA").field(By.id("terms"), true), true)
+     * @param stepName Name of the step
+     * @param form Value per field
+     * @param verify Whether to read every field back afterwards, in one more round trip
+     */
+    protected void fillForm(String stepName, FormFill form, boolean verify) {
+        executeStep(stepName, "Filling " + form.size() + " form fields", () -> {
+            form.fill(driver);
+            if (verify) {
+                form.verify(driver);
+            }
+        });
+    }
+    
+    /**
+     * Pause the test for a fixed time, accounted as sleep time in the report
+     * Prefer an explicit wait on the condition the pause is waiting for
+     * @param duration How long to pause
+     */
+    protected void pause(Duration duration) {
+        WaitAccounting.sleep(duration);
     }
     
     /**
@@ -449,7 +811,7 @@ public class SmartBaseTest {
      * Generate test report for current test
      */
     protected void generateTestReport() {
-        System.out.println("📊 Generating test report...");
+        FrameworkLog.info("📊 Generating test report...");
         ReportGenerator.generateReport();
     }
     
@@ -457,8 +819,7 @@ public class SmartBaseTest {
      * Get current test execution info
      */
     protected TestResultTracker.TestExecutionInfo getCurrentTestInfo() {
-        String testName = TestResultTracker.getCurrentTestName();
-        return testName != null ? TestResultTracker.getTestInfo(testName) : null;
+        return TestResultTracker.getCurrentTestInfo();
     }
     
     /**
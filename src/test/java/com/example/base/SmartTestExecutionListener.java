@@ -2,64 +2,192 @@ package com.example.base;
 
 import org.junit.jupiter.api.extension.*;
 import com.example.utils.ReportGenerator;
+import com.example.utils.ExecutionCheckpoint;
 import com.example.utils.ExecutionIdManager;
+import com.example.utils.ExecutionJournal;
+import com.example.utils.FrameworkLog;
+import com.example.utils.PerformanceBudgetExceededError;
+import com.example.utils.LiveDashboardServer;
+import com.example.utils.ResultCache;
+import com.example.utils.RetryPolicy;
+import com.example.utils.WaitAccounting;
+import org.opentest4j.TestAbortedException;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Optional;
 
 /**
  * Smart Test Execution Listener that automatically handles test failures
  * Provides centralized failure handling, screenshot capture, and reporting
+ * When a run is resumed (-Dresume=true), tests already completed under the execution are skipped
+ * Failed tests are attempted again in place when -Dretry.count is set (see RetryPolicy), reusing the
+ * browser session when it still responds; every attempt is recorded, and the report marks flaky tests
+ * Tests marked @ResultCache.Cacheable whose inputs are unchanged since they last passed are skipped and
+ * reported as CACHED (see ResultCache)
  */
 public class SmartTestExecutionListener implements 
     BeforeEachCallback, 
     AfterEachCallback, 
     TestExecutionExceptionHandler,
     BeforeAllCallback,
-    AfterAllCallback {
+    AfterAllCallback,
+    ExecutionCondition,
+    InvocationInterceptor {
     
     private static final String EXECUTION_START_TIME = LocalDateTime.now()
         .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(SmartTestExecutionListener.class);
+    private static final String START_NANOS_KEY = "startNanos";
     
     @Override
     public void beforeAll(ExtensionContext context) throws Exception {
         // Get the execution ID (automatically generated when ExecutionIdManager is first loaded)
         String executionId = ExecutionIdManager.getCurrentExecutionId();
         
-        System.out.println("🧪 Starting Test Suite: " + context.getDisplayName());
-        System.out.println("⏰ Execution started at: " + EXECUTION_START_TIME);
-        System.out.println("🆔 Execution ID: " + executionId);
-        System.out.println("=" .repeat(60));
+        FrameworkLog.info("🧪 Starting Test Suite: " + context.getDisplayName());
+        FrameworkLog.info("⏰ Execution started at: " + EXECUTION_START_TIME);
+        FrameworkLog.info("🆔 Execution ID: " + executionId);
+        FrameworkLog.info("=" .repeat(60));
+        
+        // No-op unless -Ddashboard.port is set
+        LiveDashboardServer.startIfEnabled();
+        ExecutionCheckpoint.startIfEnabled();
+        ResultCache.startIfEnabled();
+    }
+    
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        if (context.getTestMethod().isEmpty()) {
+            return ConditionEvaluationResult.enabled("Not a test");
+        }
+        Optional<ExecutionCheckpoint.Completion> completion = ExecutionCheckpoint.getResumableCompletion(context.getUniqueId());
+        if (completion.isPresent()) {
+            // Its journal events and screenshots come from the interrupted run, only the tracker needs it back
+            TestResultTracker.restoreTest(completion.get());
+            return ConditionEvaluationResult.disabled("Already " + completion.get().getStatus() + " in execution "
+                + ExecutionIdManager.getCurrentExecutionId() + " before it was resumed");
+        }
+        Method testMethod = context.getTestMethod().get();
+        Class<?> testClass = context.getTestClass().orElse(testMethod.getDeclaringClass());
+        Optional<ResultCache.Hit> hit = ResultCache.lookup(context.getUniqueId(), testClass, testMethod);
+        if (hit.isEmpty()) {
+            return ConditionEvaluationResult.enabled("Not completed earlier in this execution and no cached result");
+        }
+        // Reported like a run of its own, with the screenshots of the run it comes from
+        String testName = getTestName(context);
+        int screenshots = ResultCache.replay(hit.get(), context.getUniqueId(), testName, testClass.getName(), testMethod.getName());
+        TestResultTracker.recordCachedTest(context.getUniqueId(), testName, screenshots);
+        FrameworkLog.info("💾 Reused result of " + testName + " from execution " + hit.get().getExecutionId()
+            + " (saved " + hit.get().getDurationNanos() / 1_000_000 + "ms)");
+        return ConditionEvaluationResult.disabled("Inputs unchanged since it passed in execution " + hit.get().getExecutionId());
     }
     
     @Override
     public void beforeEach(ExtensionContext context) throws Exception {
         String testName = getTestName(context);
-        TestResultTracker.startTest(testName);
+        String testMethod = context.getTestMethod().map(Method::getName).orElse("Unknown");
+        String testClass = context.getTestClass().map(Class::getName).orElse("Unknown");
+        TestResultTracker.startTest(context.getUniqueId(), testName);
+        context.getStore(NAMESPACE).put(START_NANOS_KEY, System.nanoTime());
+        ExecutionJournal.testStarted(context.getUniqueId(), testName, testClass, testMethod);
+        WaitAccounting.testStarted();
         
         // Log test start with additional context
-        System.out.println("🔍 Test Method: " + context.getTestMethod().map(Method::getName).orElse("Unknown"));
-        System.out.println("📝 Test Class: " + context.getTestClass().map(Class::getSimpleName).orElse("Unknown"));
+        FrameworkLog.debug("🔍 Test Method: " + testMethod);
+        FrameworkLog.debug(() -> "📝 Test Class: " + context.getTestClass().map(Class::getSimpleName).orElse("Unknown"));
     }
     
     @Override
     public void afterEach(ExtensionContext context) throws Exception {
-        String testName = getTestName(context);
-        TestResultTracker.endTest(testName);
+        TestResultTracker.endTest(context.getUniqueId());
+        
+        Long startNanos = context.getStore(NAMESPACE).remove(START_NANOS_KEY, Long.class);
+        long durationNanos = startNanos != null ? System.nanoTime() - startNanos : 0;
+        WaitAccounting.testFinished();
+        // Captured log lines reach the journal through the log drainer, they must land before TEST_END
+        FrameworkLog.flush();
+        ExecutionJournal.testFinished(context.getUniqueId(), getTestStatus(context), durationNanos);
         
         // Don't generate report after each test - wait for afterAll
         // This allows all failures from the test class to be accumulated
     }
     
+    @Override
+    public void interceptTestMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext,
+                                    ExtensionContext extensionContext) throws Throwable {
+        Throwable failure = runAttempt(invocation::proceed);
+        for (int attempt = 1; failure != null && RetryPolicy.shouldRetry(failure, attempt); attempt++) {
+            startNextAttempt(extensionContext, failure, attempt + 1);
+            failure = runAttempt(() -> invokeAgain(invocationContext));
+        }
+        if (failure != null) {
+            // The last failure goes through handleTestExecutionException like any other
+            throw failure;
+        }
+    }
+    
+    @FunctionalInterface
+    private interface Attempt {
+        void run() throws Throwable;
+    }
+    
+    private static Throwable runAttempt(Attempt attempt) {
+        try {
+            attempt.run();
+            return null;
+        } catch (Throwable failure) {
+            return failure;
+        }
+    }
+    
+    /**
+     * Invoke the test method again on the same instance, which still holds the browser session
+     */
+    private static void invokeAgain(ReflectiveInvocationContext<Method> invocationContext) throws Throwable {
+        Method method = invocationContext.getExecutable();
+        method.setAccessible(true);
+        try {
+            method.invoke(invocationContext.getTarget().orElse(null), invocationContext.getArguments().toArray());
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Record the failed attempt as its own test run and set up the next one
+     */
+    private void startNextAttempt(ExtensionContext context, Throwable failure, int attempt) {
+        String testId = context.getUniqueId();
+        recordFailure(context, failure);
+        
+        Long startNanos = context.getStore(NAMESPACE).remove(START_NANOS_KEY, Long.class);
+        WaitAccounting.testFinished();
+        FrameworkLog.flush();
+        ExecutionJournal.testFinished(testId, "RETRIED", startNanos != null ? System.nanoTime() - startNanos : 0);
+        
+        TestResultTracker.retryTest(testId);
+        context.getStore(NAMESPACE).put(START_NANOS_KEY, System.nanoTime());
+        ExecutionJournal.testStarted(testId, getTestName(context), context.getTestClass().map(Class::getName).orElse("Unknown"),
+            context.getTestMethod().map(Method::getName).orElse("Unknown"));
+        WaitAccounting.testStarted();
+        
+        Object testInstance = context.getTestInstance().orElse(null);
+        boolean reused = testInstance instanceof SmartBaseTest && ((SmartBaseTest) testInstance).prepareRetry();
+        FrameworkLog.warn("🔁 Retrying " + getTestName(context) + " after " + failure.getClass().getSimpleName()
+            + " (attempt " + attempt + "/" + RetryPolicy.getMaxAttempts() + ", " + (reused ? "same" : "new") + " browser session)");
+    }
+    
     @Override
     public void afterAll(ExtensionContext context) throws Exception {
-        System.out.println("=" .repeat(60));
-        System.out.println("🏁 Test Suite Completed: " + context.getDisplayName());
-        System.out.println(TestResultTracker.getExecutionSummary());
+        FrameworkLog.info("=" .repeat(60));
+        FrameworkLog.info("🏁 Test Suite Completed: " + context.getDisplayName());
+        FrameworkLog.info(TestResultTracker.getExecutionSummary());
         
         // Generate final comprehensive report
-        System.out.println("📊 Generating final comprehensive report...");
+        FrameworkLog.info("📊 Generating final comprehensive report...");
         ReportGenerator.generateReport();
         
         // Note: Execution ID is not cleared here to allow multiple test classes
@@ -68,6 +196,22 @@ public class SmartTestExecutionListener implements
     
     @Override
     public void handleTestExecutionException(ExtensionContext context, Throwable throwable) throws Throwable {
+        String testName = getTestName(context);
+        if (throwable instanceof PerformanceBudgetExceededError) {
+            // Already recorded with its screenshot and metrics by SmartBaseTest.checkBudgets()
+            FrameworkLog.info("💥 Test exceeded performance budget: " + testName);
+            throw throwable;
+        }
+        recordFailure(context, throwable);
+        
+        // Re-throw the exception to maintain normal test failure behavior
+        throw throwable;
+    }
+    
+    /**
+     * Record a test failure with its screenshot, for the final attempt and for retried ones
+     */
+    private void recordFailure(ExtensionContext context, Throwable throwable) {
         String testName = getTestName(context);
         String testClass = context.getTestClass().map(Class::getSimpleName).orElse("Unknown");
         String testMethod = context.getTestMethod().map(method -> method.getName()).orElse("Unknown");
@@ -77,22 +221,22 @@ public class SmartTestExecutionListener implements
         String stepName = String.format("%s_%s_%s_Failure", testClass, testMethod, exceptionType);
         
         // Record the failure with detailed context
-        TestResultTracker.recordFailure(testName, stepName, 
-            throwable instanceof Exception ? (Exception) throwable : new RuntimeException(throwable));
+        TestResultTracker.recordFailure(context.getUniqueId(), stepName, throwable);
+        if (!ExecutionJournal.isFailureRecorded(throwable)) {
+            // A failure that escaped a step is already in the journal under the step's name
+            ExecutionJournal.failure(stepName, throwable);
+        }
         
         // Capture failure screenshot if we have access to WebDriver
         captureFailureScreenshot(context, stepName, throwable);
         
         // Log the failure details with more context
-        System.out.println("💥 Test execution failed: " + testName);
-        System.out.println("🔍 Test Class: " + testClass);
-        System.out.println("🔍 Test Method: " + testMethod);
-        System.out.println("🔍 Exception Type: " + exceptionType);
-        System.out.println("🔍 Failure step: " + stepName);
-        System.out.println("❌ Exception: " + throwable.getMessage());
-        
-        // Re-throw the exception to maintain normal test failure behavior
-        throw throwable;
+        FrameworkLog.info("💥 Test execution failed: " + testName);
+        FrameworkLog.info("🔍 Test Class: " + testClass);
+        FrameworkLog.info("🔍 Test Method: " + testMethod);
+        FrameworkLog.info("🔍 Exception Type: " + exceptionType);
+        FrameworkLog.info("🔍 Failure step: " + stepName);
+        FrameworkLog.error("❌ Exception: " + throwable.getMessage());
     }
     
     /**
@@ -102,6 +246,15 @@ public class SmartTestExecutionListener implements
         return context.getDisplayName();
     }
     
+    /**
+     * Derive the journal status of a finished test
+     */
+    private String getTestStatus(ExtensionContext context) {
+        return context.getExecutionException()
+            .map(throwable -> throwable instanceof TestAbortedException ? "ABORTED" : "FAILED")
+            .orElse("PASSED");
+    }
+    
     
     /**
      * Capture failure screenshot if WebDriver is available
@@ -116,12 +269,12 @@ public class SmartTestExecutionListener implements
                     throwable instanceof Exception ? (Exception) throwable : new RuntimeException(throwable));
                 
                 if (screenshotPath != null) {
-                    TestResultTracker.recordScreenshot(getTestName(context));
-                    System.out.println("📸 Failure screenshot captured: " + screenshotPath);
+                    TestResultTracker.recordScreenshot(context.getUniqueId());
+                    FrameworkLog.info("📸 Failure screenshot captured: " + screenshotPath);
                 }
             }
         } catch (Exception e) {
-            System.err.println("⚠️ Warning: Could not capture failure screenshot: " + e.getMessage());
+            FrameworkLog.warn("⚠️ Warning: Could not capture failure screenshot: " + e.getMessage());
         }
     }
 }
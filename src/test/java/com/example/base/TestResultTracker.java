@@ -1,125 +1,399 @@
 package com.example.base;
 
+import com.example.utils.BrowserProcessSampler;
+import com.example.utils.ExecutionCheckpoint;
+import com.example.utils.FrameworkLog;
+import com.example.utils.LatencyHistogram;
+import com.example.utils.StepLatencyStats;
+
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.Map;
 
 /**
  * Thread-safe test result tracker for managing test execution state
  * Tracks test failures, execution times, and provides centralized failure handling
+ * Tests are keyed by their JUnit unique ID, so parameterized tests and duplicate display names
+ * get their own record. Failures keep their type, message and a bounded stack trace instead of
+ * the exception itself, and only the most recent passed and failed records are retained
+ * (-Dtracker.maxRecords, default 1000); totals come from counters, so memory stays flat on long runs.
  */
 public class TestResultTracker {
-    private static final Map<String, TestExecutionInfo> testExecutions = new ConcurrentHashMap<>();
-    private static final ThreadLocal<String> currentTestName = new ThreadLocal<>();
+    private static final String MAX_RECORDS_PROPERTY = "tracker.maxRecords";
+    private static final String STACK_FRAMES_PROPERTY = "tracker.stackFrames";
+    private static final int MAX_RECORDS = Integer.getInteger(MAX_RECORDS_PROPERTY, 1000);
+    private static final int STACK_FRAMES = Integer.getInteger(STACK_FRAMES_PROPERTY, 8);
+    
+    private static final Map<String, TestExecutionInfo> runningTests = new ConcurrentHashMap<>();
+    private static final Map<String, TestExecutionInfo> passedTests = boundedMap();
+    private static final Map<String, TestExecutionInfo> failedTests = boundedMap();
+    private static final ThreadLocal<String> currentTestId = new ThreadLocal<>();
+    
+    private static final LongAdder totalTests = new LongAdder();
+    private static final LongAdder totalFailedTests = new LongAdder();
+    private static final LongAdder totalScreenshots = new LongAdder();
+    private static final LongAdder totalBudgetViolations = new LongAdder();
+    private static final LongAdder restoredTests = new LongAdder();
+    private static final LongAdder totalRetries = new LongAdder();
+    private static final LongAdder flakyTests = new LongAdder();
+    private static final LongAdder cachedTests = new LongAdder();
+    
+    /**
+     * A recorded failure, without the exception object and the state it references
+     */
+    public static class FailureRecord {
+        private final String stepName;
+        private final String exceptionType;
+        private final String message;
+        private final String stackTrace;
+        private final LocalDateTime time = LocalDateTime.now();
+        
+        FailureRecord(String stepName, Throwable throwable) {
+            this.stepName = stepName;
+            this.exceptionType = throwable.getClass().getName();
+            this.message = throwable.getMessage();
+            this.stackTrace = formatStackTrace(throwable);
+        }
+        
+        /**
+         * Failure restored from a checkpoint, detail is "Type: message" and the stack trace is gone
+         */
+        FailureRecord(String stepName, String detail) {
+            int separator = detail != null ? detail.indexOf(": ") : -1;
+            this.stepName = stepName;
+            this.exceptionType = separator > 0 ? detail.substring(0, separator) : "Unknown";
+            this.message = separator > 0 ? detail.substring(separator + 2) : detail;
+            this.stackTrace = "";
+        }
+        
+        public String getStepName() { return stepName; }
+        public String getExceptionType() { return exceptionType; }
+        public String getExceptionSimpleName() { return exceptionType.substring(exceptionType.lastIndexOf('.') + 1); }
+        public String getMessage() { return message; }
+        public String getStackTrace() { return stackTrace; }
+        public LocalDateTime getTime() { return time; }
+        
+        private static String formatStackTrace(Throwable throwable) {
+            StackTraceElement[] frames = throwable.getStackTrace();
+            StringBuilder trace = new StringBuilder();
+            int shown = Math.min(frames.length, STACK_FRAMES);
+            for (int i = 0; i < shown; i++) {
+                trace.append("\tat ").append(frames[i]).append('\n');
+            }
+            if (frames.length > shown) {
+                trace.append("\t... ").append(frames.length - shown).append(" more\n");
+            }
+            return trace.toString();
+        }
+    }
     
     /**
      * Test execution information
      */
     public static class TestExecutionInfo {
+        private final String testId;
         private final String testName;
         private final LocalDateTime startTime;
-        private LocalDateTime endTime;
-        private boolean hasFailures = false;
-        private Exception lastException;
-        private String lastFailureStep;
-        private int screenshotCount = 0;
+        private volatile LocalDateTime endTime;
+        // Durations use the monotonic clock, the LocalDateTime fields are for display only
+        private final long startNanos;
+        private volatile long endNanos;
+        private final List<FailureRecord> failures = new ArrayList<>(0);
+        private final List<String> budgetViolations = new ArrayList<>(0);
+        private volatile int screenshotCount = 0;
+        private volatile BrowserProcessSampler.ProcessUsage processUsage;
+        // Earlier failed attempts of the test when it was retried, oldest first
+        private final List<TestExecutionInfo> previousAttempts;
+        
+        public TestExecutionInfo(String testId, String testName) {
+            this(testId, testName, Collections.emptyList());
+        }
         
-        public TestExecutionInfo(String testName) {
+        private TestExecutionInfo(String testId, String testName, List<TestExecutionInfo> previousAttempts) {
+            this.testId = testId;
             this.testName = testName;
             this.startTime = LocalDateTime.now();
+            this.startNanos = System.nanoTime();
+            this.previousAttempts = previousAttempts;
+        }
+        
+        /**
+         * Test completed by an interrupted run of the execution
+         */
+        TestExecutionInfo(ExecutionCheckpoint.Completion completion) {
+            this.testId = completion.getTestId();
+            this.testName = completion.getDisplayName();
+            this.endTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(completion.getEndEpochMillis()), ZoneId.systemDefault());
+            this.startTime = endTime.minusNanos(completion.getDurationNanos());
+            this.startNanos = 0;
+            this.endNanos = completion.getDurationNanos();
+            this.screenshotCount = completion.getScreenshotCount();
+            this.previousAttempts = Collections.emptyList();
         }
         
         // Getters and setters
+        public String getTestId() { return testId; }
         public String getTestName() { return testName; }
         public LocalDateTime getStartTime() { return startTime; }
         public LocalDateTime getEndTime() { return endTime; }
-        public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
-        public boolean hasFailures() { return hasFailures; }
-        public void setHasFailures(boolean hasFailures) { this.hasFailures = hasFailures; }
-        public Exception getLastException() { return lastException; }
-        public void setLastException(Exception lastException) { this.lastException = lastException; }
-        public String getLastFailureStep() { return lastFailureStep; }
-        public void setLastFailureStep(String lastFailureStep) { this.lastFailureStep = lastFailureStep; }
+        public void setEndTime(LocalDateTime endTime) {
+            this.endNanos = System.nanoTime();
+            this.endTime = endTime;
+        }
+        public synchronized boolean hasFailures() { return !failures.isEmpty() || !budgetViolations.isEmpty(); }
+        public synchronized List<FailureRecord> getFailures() { return new ArrayList<>(failures); }
+        public synchronized FailureRecord getLastFailure() { return failures.isEmpty() ? null : failures.get(failures.size() - 1); }
+        public String getLastFailureStep() {
+            FailureRecord lastFailure = getLastFailure();
+            return lastFailure != null ? lastFailure.getStepName() : null;
+        }
+        public synchronized List<String> getBudgetViolations() { return new ArrayList<>(budgetViolations); }
+        public synchronized boolean hasBudgetViolations() { return !budgetViolations.isEmpty(); }
         public int getScreenshotCount() { return screenshotCount; }
-        public void incrementScreenshotCount() { this.screenshotCount++; }
+        public synchronized void incrementScreenshotCount() { this.screenshotCount++; }
+        public BrowserProcessSampler.ProcessUsage getProcessUsage() { return processUsage; }
+        public void setProcessUsage(BrowserProcessSampler.ProcessUsage processUsage) { this.processUsage = processUsage; }
+        public List<TestExecutionInfo> getPreviousAttempts() { return Collections.unmodifiableList(previousAttempts); }
+        public int getAttempt() { return previousAttempts.size() + 1; }
         
-        public long getExecutionTimeMs() {
-            if (endTime != null) {
-                return java.time.Duration.between(startTime, endTime).toMillis();
+        /**
+         * Passed after failing on earlier attempts
+         */
+        public boolean isFlaky() {
+            return !previousAttempts.isEmpty() && !hasFailures();
+        }
+        
+        /**
+         * Next attempt of this test, keeping this one and the earlier ones
+         */
+        TestExecutionInfo nextAttempt() {
+            List<TestExecutionInfo> attempts = new ArrayList<>(previousAttempts);
+            attempts.add(this);
+            return new TestExecutionInfo(testId, testName, attempts);
+        }
+        
+        /**
+         * Add a failure, returning true when it is the test's first
+         */
+        synchronized boolean addFailure(FailureRecord failure) {
+            boolean first = !hasFailures();
+            failures.add(failure);
+            return first;
+        }
+        
+        synchronized boolean addBudgetViolations(String stepName, List<String> violations) {
+            boolean first = !hasFailures();
+            for (String violation : violations) {
+                budgetViolations.add(stepName + ": " + violation);
             }
-            return java.time.Duration.between(startTime, LocalDateTime.now()).toMillis();
+            return first;
+        }
+        
+        public long getExecutionTimeMs() {
+            return getExecutionTimeNanos() / 1_000_000;
+        }
+        
+        public long getExecutionTimeNanos() {
+            return (endTime != null ? endNanos : System.nanoTime()) - startNanos;
         }
     }
     
     /**
      * Start tracking a test execution
+     * @param testId JUnit unique ID of the test
+     * @param testName Display name of the test
      */
-    public static void startTest(String testName) {
-        currentTestName.set(testName);
-        testExecutions.put(testName, new TestExecutionInfo(testName));
-        System.out.println("🚀 Starting test: " + testName);
+    public static void startTest(String testId, String testName) {
+        currentTestId.set(testId);
+        runningTests.put(testId, new TestExecutionInfo(testId, testName));
+        totalTests.increment();
+        FrameworkLog.info("🚀 Starting test: " + testName);
     }
     
     /**
      * End tracking a test execution
      */
-    public static void endTest(String testName) {
-        TestExecutionInfo info = testExecutions.get(testName);
+    public static void endTest(String testId) {
+        TestExecutionInfo info = runningTests.get(testId);
         if (info != null) {
             info.setEndTime(LocalDateTime.now());
-            System.out.println("✅ Completed test: " + testName + 
-                " (Duration: " + info.getExecutionTimeMs() + "ms, Screenshots: " + info.getScreenshotCount() + ")");
+            // Added to the completed records before leaving the running ones, so lookups never miss it
+            Map<String, TestExecutionInfo> completed = info.hasFailures() ? failedTests : passedTests;
+            synchronized (completed) {
+                completed.put(testId, info);
+            }
+            runningTests.remove(testId);
+            if (info.isFlaky()) {
+                flakyTests.increment();
+            }
+            FrameworkLog.info("✅ Completed test: " + info.getTestName() +
+                " (Duration: " + info.getExecutionTimeMs() + "ms, Screenshots: " + info.getScreenshotCount()
+                + (info.getAttempt() > 1 ? ", Attempt: " + info.getAttempt() : "") + ")");
         }
-        currentTestName.remove();
+        currentTestId.remove();
+    }
+    
+    /**
+     * Close the failed attempt of a running test and start tracking its next attempt
+     * The failed attempt is kept on the new one; the test only counts as failed again if the retry fails too
+     */
+    public static void retryTest(String testId) {
+        TestExecutionInfo failedAttempt = runningTests.get(testId);
+        if (failedAttempt == null) {
+            return;
+        }
+        failedAttempt.setEndTime(LocalDateTime.now());
+        TestExecutionInfo nextAttempt = failedAttempt.nextAttempt();
+        runningTests.put(testId, nextAttempt);
+        if (failedAttempt.hasFailures()) {
+            totalFailedTests.decrement();
+        }
+        totalRetries.increment();
+        FrameworkLog.info("🔁 Retrying test: " + failedAttempt.getTestName() + " (attempt " + nextAttempt.getAttempt()
+            + ", previous attempt took " + failedAttempt.getExecutionTimeMs() + "ms)");
+    }
+    
+    /**
+     * Count a test completed by an interrupted run of the same execution, which the resumed run skips
+     */
+    public static void restoreTest(ExecutionCheckpoint.Completion completion) {
+        TestExecutionInfo info = new TestExecutionInfo(completion);
+        boolean failed = completion.isFailed();
+        if (failed) {
+            info.addFailure(new FailureRecord(completion.getFailureStep(), completion.getFailureDetail()));
+            totalFailedTests.increment();
+        }
+        Map<String, TestExecutionInfo> completed = failed ? failedTests : passedTests;
+        synchronized (completed) {
+            completed.put(info.getTestId(), info);
+        }
+        totalTests.increment();
+        restoredTests.increment();
+        totalScreenshots.add(info.getScreenshotCount());
+        FrameworkLog.info("⏭️ Restored test: " + info.getTestName() + " (" + completion.getStatus() + " before the run was resumed)");
+    }
+    
+    /**
+     * Count a test skipped because its result was reused from an earlier run, see ResultCache
+     */
+    public static void recordCachedTest(String testId, String testName, int screenshots) {
+        TestExecutionInfo info = new TestExecutionInfo(testId, testName);
+        info.setEndTime(LocalDateTime.now());
+        for (int i = 0; i < screenshots; i++) {
+            info.incrementScreenshotCount();
+        }
+        synchronized (passedTests) {
+            passedTests.put(testId, info);
+        }
+        totalTests.increment();
+        cachedTests.increment();
+        totalScreenshots.add(screenshots);
+        FrameworkLog.info("💾 Cached test: " + testName + " (Screenshots: " + screenshots + ")");
     }
     
     /**
      * Record a test failure
      */
-    public static void recordFailure(String testName, String stepName, Exception exception) {
-        TestExecutionInfo info = testExecutions.get(testName);
+    public static void recordFailure(String testId, String stepName, Throwable throwable) {
+        TestExecutionInfo info = getTestInfo(testId);
         if (info != null) {
-            info.setHasFailures(true);
-            info.setLastException(exception);
-            info.setLastFailureStep(stepName);
-            System.out.println("❌ Test failure recorded: " + testName + " - Step: " + stepName);
+            if (info.addFailure(new FailureRecord(stepName, throwable))) {
+                markFailed(info);
+            }
+            FrameworkLog.info("❌ Test failure recorded: " + info.getTestName() + " - Step: " + stepName);
+        }
+    }
+    
+    /**
+     * Record performance budget violations of a step, a failure distinct from functional ones
+     */
+    public static void recordBudgetViolation(String testId, String stepName, List<String> violations) {
+        TestExecutionInfo info = getTestInfo(testId);
+        if (info != null) {
+            if (info.addBudgetViolations(stepName, violations)) {
+                markFailed(info);
+            }
+            totalBudgetViolations.add(violations.size());
+            FrameworkLog.info("🐢 Performance budget exceeded: " + info.getTestName() + " - Step: " + stepName);
+        }
+    }
+    
+    /**
+     * Record CPU and memory usage of the test's driver and browser processes
+     */
+    public static void recordProcessUsage(String testId, BrowserProcessSampler.ProcessUsage usage) {
+        TestExecutionInfo info = getTestInfo(testId);
+        if (info != null) {
+            info.setProcessUsage(usage);
         }
     }
     
     /**
      * Record a screenshot capture
      */
-    public static void recordScreenshot(String testName) {
-        TestExecutionInfo info = testExecutions.get(testName);
+    public static void recordScreenshot(String testId) {
+        TestExecutionInfo info = getTestInfo(testId);
         if (info != null) {
             info.incrementScreenshotCount();
+            totalScreenshots.increment();
         }
     }
     
     /**
-     * Get current test name for the current thread
+     * Get the unique ID of the current test for the current thread
+     */
+    public static String getCurrentTestId() {
+        return currentTestId.get();
+    }
+    
+    /**
+     * Get the display name of the current test for the current thread
      */
     public static String getCurrentTestName() {
-        return currentTestName.get();
+        TestExecutionInfo info = getCurrentTestInfo();
+        return info != null ? info.getTestName() : null;
     }
     
     /**
-     * Get test execution info
+     * Get execution info of the current test for the current thread
      */
-    public static TestExecutionInfo getTestInfo(String testName) {
-        return testExecutions.get(testName);
+    public static TestExecutionInfo getCurrentTestInfo() {
+        String testId = currentTestId.get();
+        return testId != null ? getTestInfo(testId) : null;
+    }
+    
+    /**
+     * Get test execution info, null once a completed test has been evicted
+     */
+    public static TestExecutionInfo getTestInfo(String testId) {
+        TestExecutionInfo info = runningTests.get(testId);
+        if (info != null) {
+            return info;
+        }
+        synchronized (failedTests) {
+            info = failedTests.get(testId);
+        }
+        if (info != null) {
+            return info;
+        }
+        synchronized (passedTests) {
+            return passedTests.get(testId);
+        }
     }
     
     /**
      * Check if current test has failures
      */
     public static boolean hasCurrentTestFailures() {
-        String currentTest = getCurrentTestName();
-        if (currentTest != null) {
-            TestExecutionInfo info = testExecutions.get(currentTest);
-            return info != null && info.hasFailures();
-        }
-        return false;
+        TestExecutionInfo info = getCurrentTestInfo();
+        return info != null && info.hasFailures();
     }
     
     /**
@@ -130,24 +404,45 @@ public class TestResultTracker {
         summary.append("\n📊 Test Execution Summary:\n");
         summary.append("=" .repeat(80)).append("\n");
         
-        int totalTests = testExecutions.size();
-        long totalFailures = testExecutions.values().stream().mapToLong(info -> info.hasFailures() ? 1 : 0).sum();
-        long totalScreenshots = testExecutions.values().stream().mapToLong(TestExecutionInfo::getScreenshotCount).sum();
+        long total = totalTests.sum();
+        long failures = totalFailedTests.sum();
+        long budgetViolations = totalBudgetViolations.sum();
         
-        summary.append("Total Tests: ").append(totalTests).append("\n");
-        summary.append("Failed Tests: ").append(totalFailures).append("\n");
-        summary.append("Passed Tests: ").append(totalTests - totalFailures).append("\n");
-        summary.append("Total Screenshots: ").append(totalScreenshots).append("\n");
+        summary.append("Total Tests: ").append(total).append("\n");
+        summary.append("Failed Tests: ").append(failures).append("\n");
+        summary.append("Passed Tests: ").append(total - failures).append("\n");
+        summary.append("Total Screenshots: ").append(totalScreenshots.sum()).append("\n");
+        if (budgetViolations > 0) {
+            summary.append("Budget Violations: ").append(budgetViolations).append("\n");
+        }
+        if (totalRetries.sum() > 0) {
+            summary.append("Retries: ").append(totalRetries.sum()).append(" (Flaky Tests: ").append(flakyTests.sum()).append(")\n");
+        }
+        if (restoredTests.sum() > 0) {
+            summary.append("Restored From Checkpoint: ").append(restoredTests.sum()).append("\n");
+        }
+        if (cachedTests.sum() > 0) {
+            summary.append("Cached Results: ").append(cachedTests.sum()).append("\n");
+        }
         summary.append("=" .repeat(80)).append("\n");
         
-        for (TestExecutionInfo info : testExecutions.values()) {
-            String status = info.hasFailures() ? "❌ FAILED" : "✅ PASSED";
+        List<TestExecutionInfo> retained = getRetainedRecords();
+        for (TestExecutionInfo info : retained) {
+            String status = info.isFlaky() ? "🎲 FLAKY" : info.hasFailures() ? "❌ FAILED" : "✅ PASSED";
             String failureDetails = "";
             
-            if (info.hasFailures()) {
-                failureDetails = String.format(" | Step: %s | Exception: %s", 
-                    info.getLastFailureStep() != null ? info.getLastFailureStep() : "Unknown",
-                    info.getLastException() != null ? info.getLastException().getClass().getSimpleName() : "Unknown");
+            FailureRecord lastFailure = info.getLastFailure();
+            if (lastFailure != null) {
+                failureDetails = String.format(" | Step: %s | Exception: %s",
+                    lastFailure.getStepName() != null ? lastFailure.getStepName() : "Unknown",
+                    lastFailure.getExceptionSimpleName());
+            } else if (info.hasBudgetViolations()) {
+                failureDetails = String.format(" | Budget: %s", String.join("; ", info.getBudgetViolations()));
+            }
+            for (TestExecutionInfo attempt : info.getPreviousAttempts()) {
+                FailureRecord attemptFailure = attempt.getLastFailure();
+                failureDetails += String.format(" | Attempt %d: %s", attempt.getAttempt(),
+                    attemptFailure != null ? attemptFailure.getExceptionSimpleName() : "failed");
             }
             
             summary.append(String.format("%-40s | %s | %dms | %d screenshots%s\n",
@@ -158,6 +453,27 @@ public class TestResultTracker {
                 failureDetails
             ));
         }
+        if (retained.size() < total) {
+            summary.append("... ").append(total - retained.size()).append(" older tests not listed (-D")
+                .append(MAX_RECORDS_PROPERTY).append("=").append(MAX_RECORDS).append(")\n");
+        }
+        
+        if (retained.stream().anyMatch(info -> info.getProcessUsage() != null)) {
+            summary.append("=" .repeat(80)).append("\n");
+            summary.append("🖥️ Browser Processes:\n");
+            for (TestExecutionInfo info : retained) {
+                if (info.getProcessUsage() != null) {
+                    summary.append(String.format("%-40s | %s\n", info.getTestName(), info.getProcessUsage()));
+                }
+            }
+        }
+        
+        Map<String, LatencyHistogram> stepLatencies = StepLatencyStats.getHistograms();
+        if (!stepLatencies.isEmpty()) {
+            summary.append("=" .repeat(80)).append("\n");
+            summary.append("⏱️ Step Latency:\n");
+            summary.append(StepLatencyStats.formatSummary(stepLatencies));
+        }
         
         return summary.toString();
     }
@@ -165,19 +481,26 @@ public class TestResultTracker {
     /**
      * Get detailed failure information for a specific test
      */
-    public static String getDetailedFailureInfo(String testName) {
-        TestExecutionInfo info = testExecutions.get(testName);
+    public static String getDetailedFailureInfo(String testId) {
+        TestExecutionInfo info = getTestInfo(testId);
         if (info == null || !info.hasFailures()) {
-            return "No failure information available for test: " + testName;
+            return "No failure information available for test: " + testId;
         }
         
         StringBuilder details = new StringBuilder();
         details.append("\n🔍 Detailed Failure Information:\n");
         details.append("=" .repeat(60)).append("\n");
         details.append("Test Name: ").append(info.getTestName()).append("\n");
-        details.append("Failure Step: ").append(info.getLastFailureStep()).append("\n");
-        details.append("Exception Type: ").append(info.getLastException().getClass().getSimpleName()).append("\n");
-        details.append("Exception Message: ").append(info.getLastException().getMessage()).append("\n");
+        details.append("Test ID: ").append(info.getTestId()).append("\n");
+        for (FailureRecord failure : info.getFailures()) {
+            details.append("Failure Step: ").append(failure.getStepName()).append("\n");
+            details.append("Exception Type: ").append(failure.getExceptionSimpleName()).append("\n");
+            details.append("Exception Message: ").append(failure.getMessage()).append("\n");
+            details.append(failure.getStackTrace());
+        }
+        for (String violation : info.getBudgetViolations()) {
+            details.append("Budget Violation: ").append(violation).append("\n");
+        }
         details.append("Execution Time: ").append(info.getExecutionTimeMs()).append("ms\n");
         details.append("Screenshots Captured: ").append(info.getScreenshotCount()).append("\n");
         details.append("=" .repeat(60)).append("\n");
@@ -189,7 +512,64 @@ public class TestResultTracker {
      * Clear all test execution data
      */
     public static void clearAll() {
-        testExecutions.clear();
-        currentTestName.remove();
+        runningTests.clear();
+        synchronized (passedTests) {
+            passedTests.clear();
+        }
+        synchronized (failedTests) {
+            failedTests.clear();
+        }
+        totalTests.reset();
+        totalFailedTests.reset();
+        totalScreenshots.reset();
+        totalBudgetViolations.reset();
+        restoredTests.reset();
+        totalRetries.reset();
+        flakyTests.reset();
+        cachedTests.reset();
+        currentTestId.remove();
+    }
+    
+    /**
+     * Count a test as failed on its first failure, moving it to the failed records if already completed
+     */
+    private static void markFailed(TestExecutionInfo info) {
+        totalFailedTests.increment();
+        TestExecutionInfo completed;
+        synchronized (passedTests) {
+            completed = passedTests.remove(info.getTestId());
+        }
+        if (completed != null) {
+            synchronized (failedTests) {
+                failedTests.put(info.getTestId(), completed);
+            }
+        }
+    }
+    
+    /**
+     * Retained records: failed tests first, then passed, then still running
+     */
+    private static List<TestExecutionInfo> getRetainedRecords() {
+        List<TestExecutionInfo> records = new ArrayList<>();
+        synchronized (failedTests) {
+            records.addAll(failedTests.values());
+        }
+        synchronized (passedTests) {
+            records.addAll(passedTests.values());
+        }
+        records.addAll(runningTests.values());
+        return records;
+    }
+    
+    /**
+     * Insertion-ordered map dropping its oldest entry beyond MAX_RECORDS, guarded by its own monitor
+     */
+    private static Map<String, TestExecutionInfo> boundedMap() {
+        return new LinkedHashMap<String, TestExecutionInfo>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TestExecutionInfo> eldest) {
+                return size() > MAX_RECORDS;
+            }
+        };
     }
 }
@@ -7,10 +7,13 @@ import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.FluentWait;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import java.time.Duration;
+import java.util.List;
 import com.example.base.SmartBaseTest;
 import com.example.utils.ReportGenerator;
 import com.example.utils.TestHelper;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 public class InventoryFlowTest extends SmartBaseTest {
     @Test
     @DisplayName("Inventory flow test with centralized screenshot configuration")
@@ -19,21 +22,21 @@ public class InventoryFlowTest extends SmartBaseTest {
         TestHelper.setupScreenshotMode(true);
         
         try {
-            driver.get("https://www.saucedemo.com/");
-            System.out.println("✅ Navigated to login page");
-
-            // CSS Locators
-            WebElement username = driver.findElement(By.cssSelector("input#user-name"));
-            WebElement password = driver.findElement(By.cssSelector("input#password"));
-            WebElement loginBtn = driver.findElement(By.cssSelector("input#login-button"));
+            // UI login on the first test only, later tests get the cached session and open the inventory directly
+            loginWithCachedState("saucedemo:standard_user", "https://www.saucedemo.com/inventory.html", () -> {
+                driver.get("https://www.saucedemo.com/");
+                System.out.println("✅ Navigated to login page");
 
-            username.sendKeys("standard_user");
-            password.sendKeys("secret_sauce");
-            System.out.println("✅ Credentials entered");
-            loginBtn.click();
+                // CSS Locators
+                WebElement username = driver.findElement(By.cssSelector("input#user-name"));
+                WebElement password = driver.findElement(By.cssSelector("input#password"));
+                WebElement loginBtn = driver.findElement(By.cssSelector("input#login-button"));
 
-            // Explicit wait
-            wait.until(ExpectedConditions.and(
+                username.sendKeys("standard_user");
+                password.sendKeys("secret_sauce");
+                System.out.println("✅ Credentials entered");
+                loginBtn.click();
+            }, ExpectedConditions.and(
                 ExpectedConditions.urlContains("inventory"),
                 ExpectedConditions.visibilityOfElementLocated(By.cssSelector(".inventory_list"))
             ));
@@ -52,11 +55,7 @@ public class InventoryFlowTest extends SmartBaseTest {
             ((JavascriptExecutor) driver).executeScript("arguments[0].click();", firstAddToCart);
             
             // Wait a moment for the button to update
-            try {
-                Thread.sleep(2000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            pause(Duration.ofSeconds(2));
             
             // Re-find the button after click (it becomes stale after DOM update)
             WebElement updatedButton = driver.findElement(By.xpath("//button[contains(@class,'btn_inventory') and (normalize-space()='Remove' or normalize-space()='REMOVE' or normalize-space()='remove')][1]"));
@@ -76,12 +75,18 @@ public class InventoryFlowTest extends SmartBaseTest {
             wait.until(ExpectedConditions.textToBe(By.cssSelector("#shopping_cart_container .shopping_cart_badge"), "1"));
             System.out.println("✅ Cart badge shows '1'");
 
+            // Read the product names from a local DOM snapshot instead of one getText round trip each
+            List<String> productNames = domSnapshot().getTexts(By.cssSelector(".inventory_item_name"));
+            System.out.println("✅ Inventory lists " + productNames.size() + " products: " + productNames);
+
             // Navigate to the detail page of the first product
             WebElement firstItemTitle = driver.findElement(By.xpath("(//div[contains(@class,'inventory_item_name')])[1]"));
             firstItemTitle.click();
 
             // Validate that .inventory_details_name appears on the detail page
             wait.until(ExpectedConditions.visibilityOfElementLocated(By.cssSelector(".inventory_details_name")));
+            assertEquals(productNames.get(0), domSnapshot().getText(By.cssSelector(".inventory_details_name")),
+                "Detail page should show the first product");
             System.out.println("✅ Product detail page loaded successfully");
 
             // Go back to the inventory page
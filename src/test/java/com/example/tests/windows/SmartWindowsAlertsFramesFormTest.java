@@ -12,7 +12,11 @@ import java.time.Duration;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import com.example.base.SmartBaseTest;
+import com.example.utils.DomQuery;
+import com.example.utils.FormFill;
 
 /**
  * Smart Test class demonstrating centralized failure handling
@@ -111,8 +115,7 @@ public class SmartWindowsAlertsFramesFormTest extends SmartBaseTest {
             driver.switchTo().alert().accept();
             
             // Validate the result text
-            WebElement result = driver.findElement(By.id("result"));
-            String alertResult = result.getText();
+            String alertResult = queryDom(DomQuery.create().text("result", By.id("result"))).getString("result");
             System.out.println("JS Alert result: " + alertResult);
             assertEquals("You successfully clicked an alert", alertResult, "JS Alert result should match expected text");
         });
@@ -128,8 +131,7 @@ public class SmartWindowsAlertsFramesFormTest extends SmartBaseTest {
             driver.switchTo().alert().dismiss();
             
             // Validate the result text
-            WebElement result = driver.findElement(By.id("result"));
-            String confirmResult = result.getText();
+            String confirmResult = queryDom(DomQuery.create().text("result", By.id("result"))).getString("result");
             System.out.println("JS Confirm result: " + confirmResult);
             assertEquals("You clicked: Cancel", confirmResult, "JS Confirm dismiss result should match expected text");
         });
@@ -146,8 +148,7 @@ public class SmartWindowsAlertsFramesFormTest extends SmartBaseTest {
             driver.switchTo().alert().accept();
             
             // Validate the result text
-            WebElement result = driver.findElement(By.id("result"));
-            String promptResult = result.getText();
+            String promptResult = queryDom(DomQuery.create().text("result", By.id("result"))).getString("result");
             System.out.println("JS Prompt result: " + promptResult);
             assertEquals("You entered: Hola QA", promptResult, "JS Prompt result should match expected text");
         });
@@ -189,25 +190,13 @@ public class SmartWindowsAlertsFramesFormTest extends SmartBaseTest {
             System.out.println("Switched back to main document");
         });
         
-        // Validation: Re-switch to the iframe to verify content
-        safeWait("Re_Switch_To_Iframe_For_Validation", "iframe for validation", 
-            wait -> wait.until(ExpectedConditions.frameToBeAvailableAndSwitchToIt(By.id("mce_0_ifr"))));
-        
-        // Get the text from the editor and validate
+        // Validation: the DOM snapshot of the main document includes the same-origin iframe, no frame switch needed
         safeAssert("Validate_Text_In_Editor", "text in iframe editor matches expected", () -> {
-            System.out.println("Re-switching to iframe for validation...");
-            WebElement editorForValidation = driver.findElement(By.id("tinymce"));
-            String actualText = editorForValidation.getText();
+            String actualText = domSnapshot().getText(By.cssSelector("#mce_0_ifr #tinymce"));
             System.out.println("Actual text in editor: " + actualText);
             assertEquals("Text inside the frame", actualText, "Text in iframe editor should match the sent text");
         });
         
-        // Switch back to default content
-        executeStep("Final_Switch_To_Default", "Switching back to main document after validation", () -> {
-            driver.switchTo().defaultContent();
-            System.out.println("Switched back to main document after validation");
-        });
-        
         System.out.println("Iframe test completed successfully!");
     }
 
@@ -219,61 +208,33 @@ public class SmartWindowsAlertsFramesFormTest extends SmartBaseTest {
         // Navigate to form page
         safeNavigate("Navigate_To_Form_Page", "https://www.selenium.dev/selenium/web/web-form.html");
         
-        // Fill the text input field
-        safeElementInteraction("Fill_Text_Input", 
-            () -> driver.findElement(By.name("my-text")),
-            element -> {
-                element.clear();
-                element.sendKeys("Memo QA");
-                System.out.println("Filled text input field with: Memo QA");
-            });
-        
-        // Fill the password field
-        safeElementInteraction("Fill_Password_Field", 
-            () -> driver.findElement(By.name("my-password")),
-            element -> {
-                element.clear();
-                element.sendKeys("Secreto123");
-                System.out.println("Filled password field");
-            });
-        
-        // Fill the textarea field
-        safeElementInteraction("Fill_Textarea_Field", 
-            () -> driver.findElement(By.name("my-textarea")),
-            element -> {
-                element.clear();
-                element.sendKeys("Some comments for the form.");
-                System.out.println("Filled textarea field");
-            });
-        
-        // Click the radio button labeled "Option 2"
-        safeElementInteraction("Select_Radio_Option_2", 
-            () -> driver.findElement(By.id("my-radio-2")),
-            element -> {
-                element.click();
-                System.out.println("Selected radio button Option 2");
-            });
-        
-        // Click the checkbox with fallback for ElementClickInterceptedException
-        executeStep("Click_Checkbox", "Clicking checkbox with fallback", () -> {
-            WebElement checkbox = driver.findElement(By.cssSelector("input[type='checkbox']"));
-            try {
-                checkbox.click();
-                System.out.println("Clicked checkbox using regular click");
-            } catch (Exception e) {
-                // Fallback to JavaScript click if regular click fails
-                ((JavascriptExecutor) driver).executeScript("arguments[0].click();", checkbox);
-                System.out.println("Clicked checkbox using JavaScript click (fallback)");
-            }
-        });
-        
-        // Select "Two" from the dropdown
-        executeStep("Select_Dropdown_Option", "Selecting 'Two' from dropdown", () -> {
-            WebElement dropdown = driver.findElement(By.name("my-select"));
-            dropdown.click();
-            WebElement optionTwo = driver.findElement(By.xpath("//option[normalize-space()='Two']"));
-            optionTwo.click();
-            System.out.println("Selected 'Two' from dropdown");
+        // Fill every field in one round trip
+        fillForm("Fill_Form_Fields", FormFill.create()
+            .field(By.name("my-text"), "Memo QA")
+            .field(By.name("my-password"), "Secreto123")
+            .field(By.name("my-textarea"), "Some comments for the form.")
+            .field(By.id("my-radio-2"), true)
+            .field(By.cssSelector("input[type='checkbox']"), false)
+            .field(By.name("my-select"), "Two"), false);
+        System.out.println("Filled text, password and textarea fields, selected radio button Option 2, "
+            + "toggled the checkbox and selected 'Two' from dropdown");
+        
+        // Verify every field in a single round trip before submitting
+        safeAssert("Verify_Form_Values", "form fields hold the entered values", () -> {
+            DomQuery.Result values = queryDom(DomQuery.create()
+                .value("text", By.name("my-text"))
+                .value("password", By.name("my-password"))
+                .value("textarea", By.name("my-textarea"))
+                .selected("radio2", By.id("my-radio-2"))
+                .selected("checkbox", By.cssSelector("input[type='checkbox']"))
+                .value("select", By.name("my-select")));
+            System.out.println("Form values: " + values.asMap().keySet());
+            assertEquals("Memo QA", values.getString("text"), "Text input should hold the entered text");
+            assertEquals("Secreto123", values.getString("password"), "Password field should hold the entered password");
+            assertEquals("Some comments for the form.", values.getString("textarea"), "Textarea should hold the entered comments");
+            assertTrue(values.getBoolean("radio2"), "Radio button Option 2 should be selected");
+            assertFalse(values.getBoolean("checkbox"), "Checkbox should be unchecked");
+            assertEquals("2", values.getString("select"), "Dropdown should have 'Two' selected");
         });
         
         // Click the Submit button
@@ -285,15 +246,15 @@ public class SmartWindowsAlertsFramesFormTest extends SmartBaseTest {
             });
         
         // Wait for the confirmation message to be visible
-        WebElement confirmationMessage = safeWait("Wait_For_Confirmation", 
+        safeWait("Wait_For_Confirmation", 
             "confirmation message to be visible", 
             wait -> wait.until(ExpectedConditions.visibilityOfElementLocated(By.id("message"))));
         
-        System.out.println("Confirmation message appeared: " + confirmationMessage.getText());
-        
         // Assert that the confirmation text is "Received!"
         safeAssert("Verify_Confirmation_Message", "confirmation text is 'Received!'", () -> {
-            assertEquals("Received!", confirmationMessage.getText(), "Form submission confirmation should be 'Received!'");
+            String confirmation = queryDom(DomQuery.create().text("message", By.id("message"))).getString("message");
+            System.out.println("Confirmation message appeared: " + confirmation);
+            assertEquals("Received!", confirmation, "Form submission confirmation should be 'Received!'");
         });
         
         System.out.println("Form automation test completed successfully!");
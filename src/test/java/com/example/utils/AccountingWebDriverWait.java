@@ -0,0 +1,22 @@
+package com.example.utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * WebDriverWait that accounts the time spent in every until() call, see WaitAccounting
+ */
+public class AccountingWebDriverWait extends WebDriverWait {
+    
+    public AccountingWebDriverWait(WebDriver driver, Duration timeout) {
+        super(driver, timeout);
+    }
+    
+    @Override
+    public <V> V until(Function<? super WebDriver, V> isTrue) {
+        return WaitAccounting.explicitWait(isTrue, () -> super.until(isTrue));
+    }
+}
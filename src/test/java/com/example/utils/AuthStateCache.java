@@ -0,0 +1,180 @@
+package com.example.utils;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authenticated browser state captured after a UI login and injected into later sessions
+ * A state holds the cookies, localStorage and sessionStorage of one origin, under a name such as
+ * "saucedemo:standard_user". It expires after -Dauth.cache.ttlSeconds (default 900) or when its first
+ * cookie expires, whichever comes first. States are kept in memory only, so each JVM logs in once and
+ * no session secrets are written to disk. Disable with -Dauth.cache.enabled=false.
+ */
+public final class AuthStateCache {
+    private static final String ENABLED_PROPERTY = "auth.cache.enabled";
+    private static final String TTL_PROPERTY = "auth.cache.ttlSeconds";
+    // A state this close to expiry is dropped, so it does not expire halfway through a test
+    private static final long EXPIRY_MARGIN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    
+    private static final String CAPTURE_SCRIPT =
+        "return {local: Object.assign({}, window.localStorage), session: Object.assign({}, window.sessionStorage)};";
+    private static final String RESTORE_SCRIPT = """
+        for (const [key, value] of Object.entries(arguments[0])) {
+            window.localStorage.setItem(key, value);
+        }
+        for (const [key, value] of Object.entries(arguments[1])) {
+            window.sessionStorage.setItem(key, value);
+        }
+        """;
+    
+    private static final Map<String, AuthState> states = new ConcurrentHashMap<>();
+    
+    private AuthStateCache() {
+    }
+    
+    /**
+     * Cookies and web storage of an origin, as captured after logging in
+     */
+    public static class AuthState {
+        private final String name;
+        private final String origin;
+        private final List<Cookie> cookies;
+        private final Map<String, String> localStorage;
+        private final Map<String, String> sessionStorage;
+        private final long capturedAtMillis;
+        private final long expiresAtMillis;
+        
+        AuthState(String name, String origin, List<Cookie> cookies, Map<String, String> localStorage,
+                  Map<String, String> sessionStorage, long capturedAtMillis, long expiresAtMillis) {
+            this.name = name;
+            this.origin = origin;
+            this.cookies = cookies;
+            this.localStorage = localStorage;
+            this.sessionStorage = sessionStorage;
+            this.capturedAtMillis = capturedAtMillis;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+        
+        public String getName() { return name; }
+        public String getOrigin() { return origin; }
+        public List<Cookie> getCookies() { return Collections.unmodifiableList(cookies); }
+        public Map<String, String> getLocalStorage() { return Collections.unmodifiableMap(localStorage); }
+        public Map<String, String> getSessionStorage() { return Collections.unmodifiableMap(sessionStorage); }
+        public long getCapturedAtMillis() { return capturedAtMillis; }
+        public long getExpiresAtMillis() { return expiresAtMillis; }
+        
+        public boolean isExpired(long nowMillis) {
+            // Short-lived states keep at least half of their lifetime
+            return nowMillis >= expiresAtMillis - Math.min(EXPIRY_MARGIN_MILLIS, (expiresAtMillis - capturedAtMillis) / 2);
+        }
+    }
+    
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+    }
+    
+    /**
+     * Cached state with this name, unless it is missing or expired
+     */
+    public static Optional<AuthState> get(String name) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        AuthState state = states.get(name);
+        if (state != null && state.isExpired(System.currentTimeMillis())) {
+            invalidate(name, "expired");
+            return Optional.empty();
+        }
+        return Optional.ofNullable(state);
+    }
+    
+    /**
+     * Capture the cookies and web storage of the page the driver is on and cache them under a name
+     * Call right after logging in, before the test changes anything the next tests would inherit
+     */
+    public static AuthState capture(WebDriver driver, String name) {
+        long now = System.currentTimeMillis();
+        List<Cookie> cookies = new ArrayList<>(driver.manage().getCookies());
+        long expiresAt = now + TimeUnit.SECONDS.toMillis(Long.getLong(TTL_PROPERTY, 900));
+        for (Cookie cookie : cookies) {
+            if (cookie.getExpiry() != null) {
+                expiresAt = Math.min(expiresAt, cookie.getExpiry().getTime());
+            }
+        }
+        Map<String, String> localStorage = new LinkedHashMap<>();
+        Map<String, String> sessionStorage = new LinkedHashMap<>();
+        Object storage = ((JavascriptExecutor) driver).executeScript(CAPTURE_SCRIPT);
+        if (storage instanceof Map) {
+            copyEntries(((Map<?, ?>) storage).get("local"), localStorage);
+            copyEntries(((Map<?, ?>) storage).get("session"), sessionStorage);
+        }
+        AuthState state = new AuthState(name, getOrigin(driver.getCurrentUrl()), cookies, localStorage, sessionStorage, now, expiresAt);
+        if (isEnabled()) {
+            states.put(name, state);
+        }
+        FrameworkLog.info("🔐 Captured login state '" + name + "': " + cookies.size() + " cookie(s), "
+            + (localStorage.size() + sessionStorage.size()) + " storage entries, valid for "
+            + TimeUnit.MILLISECONDS.toSeconds(expiresAt - now) + "s");
+        return state;
+    }
+    
+    /**
+     * Inject a state into the driver's session
+     * Opens the root of the state's origin first, since cookies and storage can only be set for the page's origin
+     * @return whether every cookie and storage entry was accepted
+     */
+    public static boolean restore(WebDriver driver, AuthState state) {
+        try {
+            driver.get(state.origin + "/");
+            driver.manage().deleteAllCookies();
+            for (Cookie cookie : state.cookies) {
+                driver.manage().addCookie(cookie);
+            }
+            if (!state.localStorage.isEmpty() || !state.sessionStorage.isEmpty()) {
+                ((JavascriptExecutor) driver).executeScript(RESTORE_SCRIPT, state.localStorage, state.sessionStorage);
+            }
+            FrameworkLog.info("🔐 Restored login state '" + state.name + "', captured "
+                + TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - state.capturedAtMillis) + "s ago");
+            return true;
+        } catch (WebDriverException e) {
+            FrameworkLog.warn("⚠️ Warning: Could not restore login state '" + state.name + "': " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Drop a cached state, e.g. when the session it holds was rejected by the site
+     */
+    public static void invalidate(String name, String reason) {
+        if (states.remove(name) != null) {
+            FrameworkLog.info("🔐 Login state '" + name + "' invalidated: " + reason);
+        }
+    }
+    
+    public static void clearAll() {
+        states.clear();
+    }
+    
+    /**
+     * Scheme, host and port of a URL, e.g. https://www.saucedemo.com
+     */
+    public static String getOrigin(String url) {
+        URI uri = URI.create(url);
+        return uri.getScheme() + "://" + uri.getRawAuthority();
+    }
+    
+    private static void copyEntries(Object entries, Map<String, String> target) {
+        if (entries instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) entries).entrySet()) {
+                target.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.util.*;
+
+/**
+ * Collects front-end performance metrics of the current page
+ * Navigation Timing, a resource timing summary and Web Vitals (LCP, CLS, INP) are read in a single
+ * script; Web Vitals come from buffered PerformanceObserver entries, so the page needs no instrumentation.
+ * On Chromium the CDP Performance.getMetrics counters (JS heap, DOM nodes, layouts...) are added.
+ * Every metric is also recorded in the execution journal for the given step.
+ * Enabled by default, disable with -Dbrowser.metrics=false.
+ */
+public class BrowserMetricsCollector {
+    private static final String BROWSER_METRICS_PROPERTY = "browser.metrics";
+    
+    // Times are in milliseconds relative to navigation start, sizes in bytes
+    public static final String TTFB = "ttfb";
+    public static final String DOM_CONTENT_LOADED = "domContentLoaded";
+    public static final String LOAD = "load";
+    public static final String TRANSFER_SIZE = "transferSize";
+    public static final String RESOURCE_COUNT = "resourceCount";
+    public static final String RESOURCE_TRANSFER_SIZE = "resourceTransferSize";
+    public static final String SLOWEST_RESOURCE = "slowestResource";
+    public static final String LCP = "lcp";
+    public static final String CLS = "cls";
+    public static final String INP = "inp";
+    public static final String CDP_PREFIX = "cdp.";
+    
+    private static final List<String> CDP_METRICS = Arrays.asList(
+        "JSHeapUsedSize", "JSHeapTotalSize", "Nodes", "Documents", "JSEventListeners",
+        "LayoutCount", "RecalcStyleCount", "LayoutDuration", "ScriptDuration", "TaskDuration");
+    
+    private static final String METRICS_SCRIPT = """
+        const result = {};
+        const nav = performance.getEntriesByType('navigation')[0];
+        if (nav) {
+            result.dns = nav.domainLookupEnd - nav.domainLookupStart;
+            result.connect = nav.connectEnd - nav.connectStart;
+            result.ttfb = nav.responseStart;
+            result.domInteractive = nav.domInteractive;
+            result.domContentLoaded = nav.domContentLoadedEventEnd;
+            result.load = nav.loadEventEnd;
+            result.transferSize = nav.transferSize;
+        }
+        const resources = performance.getEntriesByType('resource');
+        let resourceSize = 0;
+        let slowest = 0;
+        for (const resource of resources) {
+            resourceSize += resource.transferSize || 0;
+            slowest = Math.max(slowest, resource.duration);
+        }
+        result.resourceCount = resources.length;
+        result.resourceTransferSize = resourceSize;
+        result.slowestResource = slowest;
+        // Buffered entries are handed to the observer synchronously and can be taken right away
+        const take = (options) => {
+            try {
+                const observer = new PerformanceObserver(() => {});
+                observer.observe(Object.assign({buffered: true}, options));
+                const entries = observer.takeRecords();
+                observer.disconnect();
+                return entries;
+            } catch (e) {
+                return null;
+            }
+        };
+        const lcp = take({type: 'largest-contentful-paint'});
+        if (lcp && lcp.length) {
+            result.lcp = lcp[lcp.length - 1].startTime;
+        }
+        const shifts = take({type: 'layout-shift'});
+        if (shifts) {
+            // Largest session window: shifts less than 1s apart, at most 5s long
+            let cls = 0, windowValue = 0, windowStart = 0, previous = 0;
+            for (const shift of shifts) {
+                if (shift.hadRecentInput) continue;
+                if (windowValue > 0 && (shift.startTime - previous > 1000 || shift.startTime - windowStart > 5000)) {
+                    windowValue = 0;
+                }
+                if (windowValue === 0) windowStart = shift.startTime;
+                windowValue += shift.value;
+                previous = shift.startTime;
+                cls = Math.max(cls, windowValue);
+            }
+            result.cls = cls;
+        }
+        const events = take({type: 'event', durationThreshold: 16});
+        if (events) {
+            const interactions = events.filter(entry => entry.interactionId > 0);
+            if (interactions.length) {
+                result.inp = interactions.reduce((max, entry) => Math.max(max, entry.duration), 0);
+            }
+        }
+        return result;
+        """;
+    
+    /**
+     * Metrics of one page at one step, in collection order
+     */
+    public static class BrowserMetrics {
+        private final String stepName;
+        private final Map<String, Double> values = new LinkedHashMap<>();
+        
+        BrowserMetrics(String stepName) {
+            this.stepName = stepName;
+        }
+        
+        public String getStepName() { return stepName; }
+        public Map<String, Double> getValues() { return Collections.unmodifiableMap(values); }
+        
+        /**
+         * Metric value, or null when the browser did not report it
+         */
+        public Double get(String metricName) {
+            return values.get(metricName);
+        }
+        
+        /**
+         * Bytes transferred for the document and all its resources
+         */
+        public double getTotalTransferSize() {
+            return values.getOrDefault(TRANSFER_SIZE, 0.0) + values.getOrDefault(RESOURCE_TRANSFER_SIZE, 0.0);
+        }
+    }
+    
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(BROWSER_METRICS_PROPERTY, "true"));
+    }
+    
+    /**
+     * Collect the metrics of the current page and record them in the journal for the step
+     * Never fails the test: a browser that does not support a metric just omits it
+     */
+    public static BrowserMetrics collect(WebDriver driver, String stepName) {
+        BrowserMetrics metrics = new BrowserMetrics(stepName);
+        if (driver instanceof JavascriptExecutor) {
+            try {
+                Object result = ((JavascriptExecutor) driver).executeScript(METRICS_SCRIPT);
+                if (result instanceof Map) {
+                    for (Map.Entry<?, ?> entry : ((Map<?, ?>) result).entrySet()) {
+                        if (entry.getValue() instanceof Number) {
+                            metrics.values.put(String.valueOf(entry.getKey()), ((Number) entry.getValue()).doubleValue());
+                        }
+                    }
+                }
+            } catch (WebDriverException e) {
+                FrameworkLog.warn("⚠️ Warning: Failed to collect browser metrics: " + e.getMessage());
+            }
+        }
+        if (driver instanceof HasCdp) {
+            collectCdpMetrics((HasCdp) driver, metrics);
+        }
+        
+        for (Map.Entry<String, Double> metric : metrics.values.entrySet()) {
+            ExecutionJournal.metric(stepName, metric.getKey(), metric.getValue());
+        }
+        return metrics;
+    }
+    
+    private static void collectCdpMetrics(HasCdp cdp, BrowserMetrics metrics) {
+        try {
+            cdp.executeCdpCommand("Performance.enable", new HashMap<>());
+            Object list = cdp.executeCdpCommand("Performance.getMetrics", new HashMap<>()).get("metrics");
+            if (!(list instanceof List)) {
+                return;
+            }
+            for (Object item : (List<?>) list) {
+                if (item instanceof Map) {
+                    Map<?, ?> metric = (Map<?, ?>) item;
+                    Object name = metric.get("name");
+                    Object value = metric.get("value");
+                    if (CDP_METRICS.contains(name) && value instanceof Number) {
+                        double number = ((Number) value).doubleValue();
+                        // CDP reports durations in seconds, store milliseconds like the timing metrics
+                        if (String.valueOf(name).endsWith("Duration")) {
+                            number *= 1000;
+                        }
+                        metrics.values.put(CDP_PREFIX + name, number);
+                    }
+                }
+            }
+        } catch (WebDriverException e) {
+            FrameworkLog.warn("⚠️ Warning: Failed to collect CDP performance metrics: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Samples CPU time and resident memory of the driver and browser processes of each WebDriver session
+ * The session's process tree is rooted at its driver service (chromedriver, geckodriver, msedgedriver),
+ * told apart from services of drivers created concurrently by its --port argument, and its descendants
+ * are followed at every sample, so renderer and GPU processes that come and go are included. CPU time comes from ProcessHandle,
+ * RSS from /proc/<pid>/status on Linux (other platforms report CPU only).
+ * Enabled by default, disable with -Dprocess.sampling=false; interval with -Dprocess.sampling.intervalMs.
+ */
+public class BrowserProcessSampler {
+    private static final String SAMPLING_PROPERTY = "process.sampling";
+    private static final String INTERVAL_PROPERTY = "process.sampling.intervalMs";
+    private static final long DEFAULT_INTERVAL_MS = 1000;
+    
+    // Journal metrics of a session are recorded under this step name
+    public static final String METRICS_STEP = "Browser processes";
+    public static final String PEAK_RSS = "process.peakRss";
+    public static final String AVERAGE_RSS = "process.averageRss";
+    public static final String CPU_TIME = "process.cpuTime";
+    public static final String AVERAGE_CPU_CORES = "process.averageCpuCores";
+    public static final String PEAK_PROCESS_COUNT = "process.peakProcessCount";
+    
+    private static final Path PROC = Paths.get("/proc");
+    private static volatile ScheduledExecutorService scheduler;
+    
+    /**
+     * Resource usage of one session's process tree over its lifetime
+     */
+    public static class ProcessUsage {
+        private final long peakRssBytes;
+        private final long averageRssBytes;
+        private final long cpuNanos;
+        private final long wallNanos;
+        private final int peakProcessCount;
+        private final int sampleCount;
+        
+        ProcessUsage(long peakRssBytes, long averageRssBytes, long cpuNanos, long wallNanos, int peakProcessCount, int sampleCount) {
+            this.peakRssBytes = peakRssBytes;
+            this.averageRssBytes = averageRssBytes;
+            this.cpuNanos = cpuNanos;
+            this.wallNanos = wallNanos;
+            this.peakProcessCount = peakProcessCount;
+            this.sampleCount = sampleCount;
+        }
+        
+        public long getPeakRssBytes() { return peakRssBytes; }
+        public long getAverageRssBytes() { return averageRssBytes; }
+        public long getCpuNanos() { return cpuNanos; }
+        public int getPeakProcessCount() { return peakProcessCount; }
+        public int getSampleCount() { return sampleCount; }
+        
+        /**
+         * Average number of CPU cores kept busy while the session was open
+         */
+        public double getAverageCpuCores() {
+            return wallNanos > 0 ? cpuNanos / (double) wallNanos : 0;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "peak RSS %d MB, avg RSS %d MB, CPU %.1fs (%.2f cores), %d processes",
+                peakRssBytes / (1024 * 1024), averageRssBytes / (1024 * 1024), cpuNanos / 1e9, getAverageCpuCores(), peakProcessCount);
+        }
+    }
+    
+    /**
+     * Sampling of one WebDriver session, started by start() and ended by stop()
+     */
+    public static class Session {
+        private final List<ProcessHandle> roots;
+        private final long startNanos = System.nanoTime();
+        // Highest CPU time seen per process, so processes that already exited still count
+        private final Map<Long, Long> cpuByPid = new HashMap<>();
+        private volatile ScheduledFuture<?> task;
+        private long peakRssBytes;
+        private long rssTotal;
+        private int rssSamples;
+        private int peakProcessCount;
+        private int sampleCount;
+        private ProcessUsage usage;
+        
+        Session(List<ProcessHandle> roots) {
+            this.roots = roots;
+        }
+        
+        private synchronized void sample() {
+            if (usage != null) {
+                return;
+            }
+            List<ProcessHandle> processes = new ArrayList<>();
+            for (ProcessHandle root : roots) {
+                if (root.isAlive()) {
+                    processes.add(root);
+                }
+                root.descendants().forEach(processes::add);
+            }
+            
+            long rss = 0;
+            boolean rssAvailable = false;
+            for (ProcessHandle process : processes) {
+                Optional<Duration> cpu = process.info().totalCpuDuration();
+                if (cpu.isPresent()) {
+                    cpuByPid.merge(process.pid(), cpu.get().toNanos(), Math::max);
+                }
+                long processRss = readRssBytes(process.pid());
+                if (processRss >= 0) {
+                    rss += processRss;
+                    rssAvailable = true;
+                }
+            }
+            
+            sampleCount++;
+            peakProcessCount = Math.max(peakProcessCount, processes.size());
+            if (rssAvailable) {
+                peakRssBytes = Math.max(peakRssBytes, rss);
+                rssTotal += rss;
+                rssSamples++;
+            }
+        }
+        
+        /**
+         * Take a final sample, stop sampling and return the usage, idempotent
+         */
+        public synchronized ProcessUsage stop() {
+            if (usage == null) {
+                if (task != null) {
+                    task.cancel(false);
+                }
+                sample();
+                long cpuNanos = cpuByPid.values().stream().mapToLong(Long::longValue).sum();
+                usage = new ProcessUsage(peakRssBytes, rssSamples > 0 ? rssTotal / rssSamples : 0, cpuNanos,
+                    System.nanoTime() - startNanos, peakProcessCount, sampleCount);
+            }
+            return usage;
+        }
+    }
+    
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(SAMPLING_PROPERTY, "true"));
+    }
+    
+    /**
+     * Start sampling the driver service child process listening on the given port, and its descendants
+     * Nothing is sampled where ProcessHandle cannot read command lines (Windows)
+     * @return The session, or null when sampling is disabled or no local service uses the port (remote drivers)
+     */
+    public static Session start(int driverPort) {
+        if (!isEnabled()) {
+            return null;
+        }
+        String portArgument = "--port=" + driverPort;
+        List<ProcessHandle> roots = new ArrayList<>();
+        ProcessHandle.current().children()
+            .filter(child -> child.info().arguments().map(arguments -> Arrays.asList(arguments).contains(portArgument)).orElse(false))
+            .forEach(roots::add);
+        if (roots.isEmpty()) {
+            return null;
+        }
+        
+        Session session = new Session(roots);
+        session.sample();
+        session.task = getScheduler().scheduleAtFixedRate(session::sample, getIntervalMs(), getIntervalMs(), TimeUnit.MILLISECONDS);
+        return session;
+    }
+    
+    /**
+     * Record the usage of a finished session in the journal for the current test
+     */
+    public static void recordUsage(ProcessUsage usage) {
+        if (usage.getPeakRssBytes() > 0) {
+            ExecutionJournal.metric(METRICS_STEP, PEAK_RSS, usage.getPeakRssBytes());
+            ExecutionJournal.metric(METRICS_STEP, AVERAGE_RSS, usage.getAverageRssBytes());
+        }
+        ExecutionJournal.metric(METRICS_STEP, CPU_TIME, usage.getCpuNanos() / 1_000_000.0);
+        ExecutionJournal.metric(METRICS_STEP, AVERAGE_CPU_CORES, usage.getAverageCpuCores());
+        ExecutionJournal.metric(METRICS_STEP, PEAK_PROCESS_COUNT, usage.getPeakProcessCount());
+    }
+    
+    /**
+     * Resident set size from /proc/<pid>/status, or -1 when not available
+     */
+    static long readRssBytes(long pid) {
+        Path status = PROC.resolve(Long.toString(pid)).resolve("status");
+        try {
+            for (String line : Files.readAllLines(status, StandardCharsets.US_ASCII)) {
+                if (line.startsWith("VmRSS:")) {
+                    // Reported as "VmRSS:    123456 kB"
+                    String[] parts = line.substring(6).trim().split("\\s+");
+                    return Long.parseLong(parts[0]) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux, or the process exited between listing and reading
+        }
+        return -1;
+    }
+    
+    private static long getIntervalMs() {
+        try {
+            return Math.max(50, Long.parseLong(System.getProperty(INTERVAL_PROPERTY, String.valueOf(DEFAULT_INTERVAL_MS))));
+        } catch (NumberFormatException e) {
+            return DEFAULT_INTERVAL_MS;
+        }
+    }
+    
+    private static ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            synchronized (BrowserProcessSampler.class) {
+                if (scheduler == null) {
+                    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "browser-process-sampler");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return scheduler;
+    }
+}
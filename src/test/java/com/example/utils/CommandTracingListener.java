@@ -0,0 +1,143 @@
+package com.example.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * WebDriver listener that records every command with its latency into the execution journal
+ * Each command (findElement, click, getText, switchTo, getScreenshotAs...) becomes a COMMAND event
+ * attributed to the current test and step, with an estimate of the bytes sent and received.
+ * Enabled with -Dtrace.commands=true; the driver is then wrapped by SmartBaseTest.createDriver().
+ */
+public class CommandTracingListener implements WebDriverListener {
+    private static final String TRACE_COMMANDS_PROPERTY = "trace.commands";
+    private static final int MAX_CALL_DEPTH = 32;
+    // Approximate size of a W3C element reference on the wire
+    private static final int ELEMENT_REFERENCE_BYTES = 80;
+    
+    private static final Map<Method, String> commandNames = new ConcurrentHashMap<>();
+    
+    private final ThreadLocal<CallStack> callStacks = ThreadLocal.withInitial(CallStack::new);
+    
+    /**
+     * Start times of the calls in progress on one thread, preallocated once per thread
+     */
+    private static class CallStack {
+        private final long[] startNanos = new long[MAX_CALL_DEPTH];
+        private int depth;
+    }
+    
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(TRACE_COMMANDS_PROPERTY, "false"));
+    }
+    
+    /**
+     * Wrap the driver in a tracing decorator when command tracing is enabled
+     */
+    public static WebDriver decorateIfEnabled(WebDriver driver) {
+        if (!isEnabled()) {
+            return driver;
+        }
+        FrameworkLog.info("🛰️ WebDriver command tracing enabled");
+        return new EventFiringDecorator<>(new CommandTracingListener()).decorate(driver);
+    }
+    
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        CallStack stack = callStacks.get();
+        if (stack.depth < MAX_CALL_DEPTH) {
+            stack.startNanos[stack.depth] = System.nanoTime();
+        }
+        stack.depth++;
+    }
+    
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        finish(method, args, result);
+    }
+    
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        finish(method, args, null);
+    }
+    
+    private void finish(Method method, Object[] args, Object result) {
+        long now = System.nanoTime();
+        CallStack stack = callStacks.get();
+        if (stack.depth == 0) {
+            return;
+        }
+        stack.depth--;
+        if (stack.depth >= MAX_CALL_DEPTH) {
+            return;
+        }
+        long durationNanos = now - stack.startNanos[stack.depth];
+        String command = getCommandName(method);
+        ExecutionJournal.command(command, durationNanos, estimatePayloadBytes(args) + estimatePayloadBytes(result));
+        WaitAccounting.command(command, durationNanos);
+    }
+    
+    /**
+     * Command name such as WebElement.click or TargetLocator.frame, cached per method
+     */
+    private static String getCommandName(Method method) {
+        String name = commandNames.get(method);
+        if (name == null) {
+            name = commandNames.computeIfAbsent(method, m -> m.getDeclaringClass().getSimpleName() + "." + m.getName());
+        }
+        return name;
+    }
+    
+    /**
+     * Rough size of a command argument or result as it travels over the WebDriver protocol
+     */
+    static long estimatePayloadBytes(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length();
+        }
+        if (value instanceof byte[]) {
+            // Screenshots travel base64 encoded
+            return (((byte[]) value).length + 2) / 3 * 4L;
+        }
+        if (value instanceof File) {
+            return (((File) value).length() + 2) / 3 * 4;
+        }
+        if (value instanceof WebElement) {
+            return ELEMENT_REFERENCE_BYTES;
+        }
+        if (value instanceof By) {
+            return value.toString().length();
+        }
+        if (value instanceof Object[]) {
+            long total = 0;
+            for (Object element : (Object[]) value) {
+                total += estimatePayloadBytes(element);
+            }
+            return total;
+        }
+        if (value instanceof Collection) {
+            long total = 0;
+            for (Object element : (Collection<?>) value) {
+                total += estimatePayloadBytes(element);
+            }
+            return total;
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return 8;
+        }
+        return 0;
+    }
+}
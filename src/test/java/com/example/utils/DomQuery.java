@@ -0,0 +1,304 @@
+package com.example.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many element values read in a single executeScript round trip
+ * Each value is registered under a key with a locator and the property to read, e.g.
+ * DomQuery.create().text("result", By.id("result")).selected("terms", By.id("terms")).
+ * run() resolves every locator in the page and returns the values, so assertions run locally
+ * instead of paying a findElement plus a getText/isSelected/getAttribute command per value.
+ * Values are read from the first match, like findElement; the results are recorded in the journal
+ * and show up as a "dom-query" span in the trace.
+ */
+public final class DomQuery {
+    // Resolves the strategy and value of a By.Remotable to the matching elements, shared with FormFill
+    static final String FIND_ALL_SCRIPT = """
+        const findAll = (using, value) => {
+            switch (using) {
+                case 'css selector': return Array.from(document.querySelectorAll(value));
+                case 'id': return Array.from(document.querySelectorAll('#' + CSS.escape(value)));
+                case 'name': return Array.from(document.querySelectorAll('[name="' + CSS.escape(value) + '"]'));
+                case 'class name': return Array.from(document.getElementsByClassName(value));
+                case 'tag name': return Array.from(document.getElementsByTagName(value));
+                case 'link text': return Array.from(document.querySelectorAll('a')).filter(link => link.innerText.trim() === value);
+                case 'partial link text': return Array.from(document.querySelectorAll('a')).filter(link => link.innerText.includes(value));
+                case 'xpath': {
+                    const snapshot = document.evaluate(value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);
+                    const elements = [];
+                    for (let i = 0; i < snapshot.snapshotLength; i++) {
+                        if (snapshot.snapshotItem(i).nodeType === Node.ELEMENT_NODE) {
+                            elements.push(snapshot.snapshotItem(i));
+                        }
+                    }
+                    return elements;
+                }
+            }
+            throw new Error('Unsupported locator strategy: ' + using);
+        };
+        """;
+    
+    // Locators are resolved once per query even when several properties of the same element are read
+    private static final String QUERY_SCRIPT = FIND_ALL_SCRIPT + """
+        const isDisplayed = element => {
+            const style = window.getComputedStyle(element);
+            return element.getClientRects().length > 0 && style.visibility !== 'hidden' && style.display !== 'none';
+        };
+        const matches = new Map();
+        const results = {};
+        for (const query of arguments[0]) {
+            const locator = query.using + '\\n' + query.value;
+            if (!matches.has(locator)) {
+                matches.set(locator, findAll(query.using, query.value));
+            }
+            const elements = matches.get(locator);
+            const element = elements[0];
+            let value = null;
+            switch (query.property) {
+                case 'COUNT': value = elements.length; break;
+                case 'EXISTS': value = elements.length > 0; break;
+                case 'TEXT': value = element ? (isDisplayed(element) ? element.innerText.trim() : '') : null; break;
+                case 'VALUE': value = element ? (element.value ?? element.getAttribute('value')) : null; break;
+                case 'ATTRIBUTE': value = element ? element.getAttribute(query.attribute) : null; break;
+                case 'SELECTED': value = element ? !!(element.checked || element.selected) : null; break;
+                case 'SELECTED_TEXT': value = element && element.selectedIndex >= 0 ? element.options[element.selectedIndex].text.trim() : null; break;
+                case 'DISPLAYED': value = element ? isDisplayed(element) : null; break;
+                case 'ENABLED': value = element ? !element.disabled : null; break;
+            }
+            results[query.key] = {found: elements.length > 0, value: value};
+        }
+        return results;
+        """;
+    
+    private final Map<String, Query> queries = new LinkedHashMap<>();
+    
+    private DomQuery() {
+    }
+    
+    /**
+     * Property read from the first element a locator matches
+     * COUNT and EXISTS describe all matches and are also answered when nothing matches
+     */
+    public enum Property {
+        TEXT,
+        VALUE,
+        ATTRIBUTE,
+        SELECTED,
+        SELECTED_TEXT,
+        DISPLAYED,
+        ENABLED,
+        COUNT,
+        EXISTS
+    }
+    
+    private static class Query {
+        private final String key;
+        private final By locator;
+        private final By.Remotable.Parameters parameters;
+        private final Property property;
+        private final String attribute;
+        
+        Query(String key, By locator, By.Remotable.Parameters parameters, Property property, String attribute) {
+            this.key = key;
+            this.locator = locator;
+            this.parameters = parameters;
+            this.property = property;
+            this.attribute = attribute;
+        }
+        
+        Map<String, Object> toScriptArgument() {
+            Map<String, Object> argument = new HashMap<>();
+            argument.put("key", key);
+            argument.put("using", parameters.using());
+            argument.put("value", String.valueOf(parameters.value()));
+            argument.put("property", property.name());
+            argument.put("attribute", attribute);
+            return argument;
+        }
+    }
+    
+    public static DomQuery create() {
+        return new DomQuery();
+    }
+    
+    /**
+     * Visible text of the element, trimmed like WebElement.getText(); empty when the element is hidden
+     */
+    public DomQuery text(String key, By locator) {
+        return add(key, locator, Property.TEXT, null);
+    }
+    
+    /**
+     * Current value of an input, textarea or select
+     */
+    public DomQuery value(String key, By locator) {
+        return add(key, locator, Property.VALUE, null);
+    }
+    
+    /**
+     * HTML attribute of the element, null when it is not set
+     */
+    public DomQuery attribute(String key, By locator, String attributeName) {
+        return add(key, locator, Property.ATTRIBUTE, attributeName);
+    }
+    
+    /**
+     * Whether a checkbox or radio button is checked, or an option selected
+     */
+    public DomQuery selected(String key, By locator) {
+        return add(key, locator, Property.SELECTED, null);
+    }
+    
+    /**
+     * Text of the selected option of a select, null when nothing is selected
+     */
+    public DomQuery selectedText(String key, By locator) {
+        return add(key, locator, Property.SELECTED_TEXT, null);
+    }
+    
+    public DomQuery displayed(String key, By locator) {
+        return add(key, locator, Property.DISPLAYED, null);
+    }
+    
+    public DomQuery enabled(String key, By locator) {
+        return add(key, locator, Property.ENABLED, null);
+    }
+    
+    /**
+     * Number of elements the locator matches
+     */
+    public DomQuery count(String key, By locator) {
+        return add(key, locator, Property.COUNT, null);
+    }
+    
+    public DomQuery exists(String key, By locator) {
+        return add(key, locator, Property.EXISTS, null);
+    }
+    
+    public int size() {
+        return queries.size();
+    }
+    
+    private DomQuery add(String key, By locator, Property property, String attribute) {
+        if (queries.containsKey(key)) {
+            throw new IllegalArgumentException("Duplicate DOM query key: " + key);
+        }
+        queries.put(key, new Query(key, locator, getRemoteParameters(locator, "DOM query '" + key + "'"), property, attribute));
+        return this;
+    }
+    
+    /**
+     * Strategy and value of a locator, as understood by FIND_ALL_SCRIPT
+     */
+    static By.Remotable.Parameters getRemoteParameters(By locator, String usedBy) {
+        if (!(locator instanceof By.Remotable)) {
+            // Custom locators only exist on the Java side, the script cannot resolve them
+            throw new IllegalArgumentException(usedBy + " needs a standard locator, got " + locator);
+        }
+        return ((By.Remotable) locator).getRemoteParameters();
+    }
+    
+    /**
+     * Resolve every query in the page or frame the driver is on, in one executeScript call
+     */
+    public Result run(WebDriver driver) {
+        List<Map<String, Object>> arguments = new ArrayList<>();
+        for (Query query : queries.values()) {
+            arguments.add(query.toScriptArgument());
+        }
+        long start = System.nanoTime();
+        Object response = ((JavascriptExecutor) driver).executeScript(QUERY_SCRIPT, arguments);
+        Map<?, ?> values = response instanceof Map ? (Map<?, ?>) response : Collections.emptyMap();
+        
+        Map<String, Object> results = new LinkedHashMap<>();
+        Set<String> found = new HashSet<>();
+        StringBuilder journalDetail = new StringBuilder();
+        for (Query query : queries.values()) {
+            Object entry = values.get(query.key);
+            if (entry instanceof Map) {
+                Map<?, ?> value = (Map<?, ?>) entry;
+                results.put(query.key, value.get("value"));
+                if (Boolean.TRUE.equals(value.get("found"))) {
+                    found.add(query.key);
+                }
+            } else {
+                results.put(query.key, null);
+            }
+            journalDetail.append(query.key).append(" = ")
+                .append(found.contains(query.key) || query.property == Property.COUNT || query.property == Property.EXISTS
+                    ? results.get(query.key) : "<not found>")
+                .append('\n');
+        }
+        ExecutionJournal.domQuery(journalDetail.toString().trim(), queries.size(), start);
+        FrameworkLog.debug("🔎 DOM query: " + queries.size() + " values in "
+            + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+        return new Result(new LinkedHashMap<>(queries), results, found);
+    }
+    
+    /**
+     * Values returned by a DOM query, by key
+     * Reading a value whose element was not found throws NoSuchElementException, as findElement would have
+     */
+    public static class Result {
+        private final Map<String, Query> queries;
+        private final Map<String, Object> values;
+        private final Set<String> found;
+        
+        Result(Map<String, Query> queries, Map<String, Object> values, Set<String> found) {
+            this.queries = queries;
+            this.values = values;
+            this.found = found;
+        }
+        
+        /**
+         * Whether the locator of the value matched at least one element
+         */
+        public boolean isFound(String key) {
+            getQuery(key);
+            return found.contains(key);
+        }
+        
+        public String getString(String key) {
+            Object value = get(key);
+            return value != null ? String.valueOf(value) : null;
+        }
+        
+        public boolean getBoolean(String key) {
+            return Boolean.TRUE.equals(get(key));
+        }
+        
+        public int getInt(String key) {
+            Object value = get(key);
+            return value instanceof Number ? ((Number) value).intValue() : 0;
+        }
+        
+        /**
+         * Every value by key, null for elements that were not found
+         */
+        public Map<String, Object> asMap() {
+            return Collections.unmodifiableMap(values);
+        }
+        
+        private Object get(String key) {
+            Query query = getQuery(key);
+            if (!found.contains(key) && query.property != Property.COUNT && query.property != Property.EXISTS) {
+                throw new NoSuchElementException("DOM query '" + key + "' found no element for " + query.locator);
+            }
+            return values.get(key);
+        }
+        
+        private Query getQuery(String key) {
+            Query query = queries.get(key);
+            if (query == null) {
+                throw new IllegalArgumentException("Unknown DOM query key: " + key);
+            }
+            return query;
+        }
+    }
+}
@@ -0,0 +1,570 @@
+package com.example.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-only copy of the page's DOM, queried locally without browser round trips
+ * take() serializes the document the driver is on in one executeScript call, with the content of
+ * same-origin iframes (e.g. TinyMCE's #tinymce) nested inside their iframe element, and parses it
+ * with the JDK. CSS selectors and XPath are then evaluated against the copy; other By locators are
+ * translated to XPath. Text is the whitespace-collapsed text content, so unlike WebElement.getText()
+ * it includes hidden elements. Use it for static content: titles, result text, product names.
+ * A Cache hands out the same snapshot until the driver runs a command that may change the page.
+ */
+public final class DomSnapshot {
+    private static final String ENABLED_PROPERTY = "dom.snapshot.enabled";
+    
+    // Comments and attributes that are not valid XML names (e.g. Vue's @click) would make the copy unparseable
+    private static final String SNAPSHOT_SCRIPT = """
+        const validName = /^[A-Za-z_][\\w.:-]*$/;
+        const copy = doc => {
+            const root = doc.documentElement.cloneNode(true);
+            const frames = doc.querySelectorAll('iframe, frame');
+            const copies = root.querySelectorAll('iframe, frame');
+            frames.forEach((frame, i) => {
+                let frameDocument = null;
+                try {
+                    frameDocument = frame.contentDocument;
+                } catch (e) {
+                    // Cross-origin frame
+                }
+                if (frameDocument && frameDocument.documentElement && copies[i]) {
+                    copies[i].appendChild(copy(frameDocument));
+                }
+            });
+            return root;
+        };
+        const root = copy(document);
+        for (const element of [root, ...root.querySelectorAll('*')]) {
+            for (const attribute of Array.from(element.attributes)) {
+                if (!validName.test(attribute.name)) {
+                    element.removeAttribute(attribute.name);
+                }
+            }
+        }
+        const comments = document.createTreeWalker(root, NodeFilter.SHOW_COMMENT);
+        const removed = [];
+        while (comments.nextNode()) {
+            removed.push(comments.currentNode);
+        }
+        removed.forEach(comment => comment.remove());
+        return {url: location.href, title: document.title, xml: new XMLSerializer().serializeToString(root)};
+        """;
+    private static final Set<String> NON_TEXT_ELEMENTS = Set.of("script", "style", "noscript", "template");
+    // Elements rendered on their own line, so their text never runs into the text around them
+    private static final Set<String> BLOCK_ELEMENTS = Set.of("address", "article", "aside", "blockquote", "br", "dd", "div",
+        "dl", "dt", "fieldset", "figcaption", "figure", "footer", "form", "h1", "h2", "h3", "h4", "h5", "h6", "header", "hr",
+        "li", "main", "nav", "ol", "option", "p", "pre", "section", "table", "td", "th", "tr", "ul");
+    
+    private static final ThreadLocal<DocumentBuilder> documentBuilders = ThreadLocal.withInitial(DomSnapshot::newDocumentBuilder);
+    private static final ThreadLocal<XPath> xpaths = ThreadLocal.withInitial(() -> XPathFactory.newInstance().newXPath());
+    
+    private final String url;
+    private final String title;
+    private final Document document;
+    private final long sizeBytes;
+    
+    private DomSnapshot(String url, String title, Document document, long sizeBytes) {
+        this.url = url;
+        this.title = title;
+        this.document = document;
+        this.sizeBytes = sizeBytes;
+    }
+    
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+    }
+    
+    /**
+     * Serialize and parse the page or frame the driver is on
+     */
+    public static DomSnapshot take(WebDriver driver) {
+        long start = System.nanoTime();
+        Object response = ((JavascriptExecutor) driver).executeScript(SNAPSHOT_SCRIPT);
+        if (!(response instanceof Map)) {
+            throw new WebDriverException("DOM snapshot script returned " + response);
+        }
+        Map<?, ?> page = (Map<?, ?>) response;
+        String xml = String.valueOf(page.get("xml"));
+        String url = String.valueOf(page.get("url"));
+        DocumentBuilder builder = documentBuilders.get();
+        Document document;
+        try {
+            // Control characters are legal in HTML text but not in XML
+            document = builder.parse(new InputSource(new StringReader(xml.replaceAll("[\\x00-\\x08\\x0B\\x0C\\x0E-\\x1F]", ""))));
+        } catch (SAXException | IOException e) {
+            throw new WebDriverException("Could not parse DOM snapshot of " + url + ": " + e.getMessage(), e);
+        } finally {
+            builder.reset();
+        }
+        long size = xml.getBytes(StandardCharsets.UTF_8).length;
+        ExecutionJournal.span("DOM snapshot", "dom-snapshot", start, size);
+        FrameworkLog.debug("🗂️ DOM snapshot of " + url + ": " + size / 1024 + " KB in "
+            + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+        return new DomSnapshot(url, String.valueOf(page.get("title")), document, size);
+    }
+    
+    public String getUrl() { return url; }
+    public String getTitle() { return title; }
+    public long getSizeBytes() { return sizeBytes; }
+    
+    /**
+     * Elements matching a locator, in document order
+     */
+    public List<Element> findElements(By locator) {
+        return selectXPath(toXPath(locator));
+    }
+    
+    /**
+     * First element matching a locator, like WebDriver.findElement()
+     */
+    public Element findElement(By locator) {
+        List<Element> elements = findElements(locator);
+        if (elements.isEmpty()) {
+            throw new NoSuchElementException("No element in the DOM snapshot of " + url + " for " + locator);
+        }
+        return elements.get(0);
+    }
+    
+    public boolean exists(By locator) {
+        return !findElements(locator).isEmpty();
+    }
+    
+    public int count(By locator) {
+        return findElements(locator).size();
+    }
+    
+    /**
+     * Text of the first matching element, whitespace collapsed and trimmed
+     */
+    public String getText(By locator) {
+        return textOf(findElement(locator));
+    }
+    
+    /**
+     * Text of every matching element, e.g. all product names of a listing
+     */
+    public List<String> getTexts(By locator) {
+        List<String> texts = new ArrayList<>();
+        for (Element element : findElements(locator)) {
+            texts.add(textOf(element));
+        }
+        return texts;
+    }
+    
+    /**
+     * Attribute of the first matching element as it was in the HTML, null when it is not set
+     * Properties changed by scripts or by typing, such as an input's current value, are not attributes
+     */
+    public String getAttribute(By locator, String name) {
+        Element element = findElement(locator);
+        return element.hasAttribute(name) ? element.getAttribute(name) : null;
+    }
+    
+    private List<Element> selectXPath(String expression) {
+        NodeList nodes;
+        try {
+            nodes = (NodeList) xpaths.get().evaluate(expression, document, XPathConstants.NODESET);
+        } catch (XPathExpressionException e) {
+            throw new IllegalArgumentException("Invalid XPath for DOM snapshot: " + expression, e);
+        }
+        List<Element> elements = new ArrayList<>(nodes.getLength());
+        for (int i = 0; i < nodes.getLength(); i++) {
+            if (nodes.item(i) instanceof Element) {
+                elements.add((Element) nodes.item(i));
+            }
+        }
+        return elements;
+    }
+    
+    private static String textOf(Element element) {
+        StringBuilder text = new StringBuilder();
+        appendText(element, text);
+        return text.toString().replaceAll("\\s+", " ").trim();
+    }
+    
+    private static void appendText(Node node, StringBuilder text) {
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.TEXT_NODE || child.getNodeType() == Node.CDATA_SECTION_NODE) {
+                text.append(child.getNodeValue());
+            } else if (child.getNodeType() == Node.ELEMENT_NODE && !NON_TEXT_ELEMENTS.contains(child.getNodeName().toLowerCase())) {
+                boolean block = BLOCK_ELEMENTS.contains(child.getNodeName().toLowerCase());
+                if (block) {
+                    text.append(' ');
+                }
+                appendText(child, text);
+                if (block) {
+                    text.append(' ');
+                }
+            }
+        }
+    }
+    
+    /**
+     * XPath equivalent of a standard locator, evaluated against the snapshot
+     */
+    static String toXPath(By locator) {
+        By.Remotable.Parameters parameters = DomQuery.getRemoteParameters(locator, "DOM snapshot");
+        String value = String.valueOf(parameters.value());
+        switch (parameters.using()) {
+            case "xpath":
+                return value;
+            case "css selector":
+                return CssToXPath.translate(value);
+            case "id":
+                return "//*[@id=" + CssToXPath.literal(value) + "]";
+            case "name":
+                return "//*[@name=" + CssToXPath.literal(value) + "]";
+            case "class name":
+                return "//*" + CssToXPath.hasWord("class", value);
+            case "tag name":
+                return "//" + value.toLowerCase();
+            case "link text":
+                return "//a[normalize-space(.)=" + CssToXPath.literal(value.trim()) + "]";
+            case "partial link text":
+                return "//a[contains(normalize-space(.), " + CssToXPath.literal(value.trim()) + ")]";
+            default:
+                throw new IllegalArgumentException("DOM snapshot does not support locator " + locator);
+        }
+    }
+    
+    private static DocumentBuilder newDocumentBuilder() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        // Element names stay plain (div, body...) so XPath needs no namespace prefixes
+        factory.setNamespaceAware(false);
+        try {
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("No XML parser for DOM snapshots", e);
+        }
+    }
+    
+    /**
+     * Translates the common subset of CSS selectors to XPath 1.0
+     * Type, universal, #id, .class and attribute selectors ([a], =, ~=, |=, ^=, $=, *=), :first-child,
+     * :last-child and :nth-child(n), the descendant, child, adjacent and general sibling combinators,
+     * and selector lists. Anything else is rejected rather than matched differently than in the browser.
+     */
+    static final class CssToXPath {
+        private final String css;
+        private int position;
+        
+        private CssToXPath(String css) {
+            this.css = css;
+        }
+        
+        static String translate(String css) {
+            return new CssToXPath(css.trim()).selectorList();
+        }
+        
+        private String selectorList() {
+            List<String> selectors = new ArrayList<>();
+            do {
+                selectors.add(selector());
+            } while (consume(','));
+            if (position < css.length()) {
+                throw unsupported();
+            }
+            return String.join(" | ", selectors);
+        }
+        
+        private String selector() {
+            StringBuilder xpath = new StringBuilder();
+            skipWhitespace();
+            char combinator = ' ';
+            while (true) {
+                String[] compound = compound();
+                switch (combinator) {
+                    case '>':
+                        xpath.append('/').append(compound[0]).append(compound[1]);
+                        break;
+                    case '+':
+                        xpath.append("/following-sibling::*[1]")
+                            .append(compound[0].equals("*") ? "" : "[self::" + compound[0] + "]").append(compound[1]);
+                        break;
+                    case '~':
+                        xpath.append("/following-sibling::").append(compound[0]).append(compound[1]);
+                        break;
+                    default:
+                        xpath.append("//").append(compound[0]).append(compound[1]);
+                        break;
+                }
+                boolean whitespace = skipWhitespace();
+                if (position >= css.length() || css.charAt(position) == ',') {
+                    return xpath.toString();
+                }
+                char next = css.charAt(position);
+                if (next == '>' || next == '+' || next == '~') {
+                    combinator = next;
+                    position++;
+                    skipWhitespace();
+                } else if (whitespace) {
+                    combinator = ' ';
+                } else {
+                    throw unsupported();
+                }
+            }
+        }
+        
+        /**
+         * Element name test and predicates of one compound selector
+         */
+        private String[] compound() {
+            String name = "*";
+            boolean hasType = consume('*');
+            if (!hasType && position < css.length() && isNameChar(css.charAt(position))) {
+                name = identifier().toLowerCase();
+                hasType = true;
+            }
+            StringBuilder predicates = new StringBuilder();
+            while (position < css.length()) {
+                char c = css.charAt(position);
+                if (c == '#') {
+                    position++;
+                    predicates.append("[@id=").append(literal(identifier())).append(']');
+                } else if (c == '.') {
+                    position++;
+                    predicates.append(hasWord("class", identifier()));
+                } else if (c == '[') {
+                    position++;
+                    predicates.append(attribute());
+                } else if (c == ':') {
+                    position++;
+                    predicates.append(pseudoClass());
+                } else {
+                    break;
+                }
+            }
+            if (!hasType && predicates.length() == 0) {
+                throw unsupported();
+            }
+            return new String[] {name, predicates.toString()};
+        }
+        
+        private String attribute() {
+            skipWhitespace();
+            String name = identifier();
+            skipWhitespace();
+            if (consume(']')) {
+                return "[@" + name + "]";
+            }
+            String operator = consume('=') ? "=" : css.substring(position, Math.min(position + 2, css.length()));
+            if (!operator.equals("=")) {
+                if (!Set.of("~=", "|=", "^=", "$=", "*=").contains(operator)) {
+                    throw unsupported();
+                }
+                position += 2;
+            }
+            skipWhitespace();
+            String value = position < css.length() && (css.charAt(position) == '"' || css.charAt(position) == '\'')
+                ? quoted() : identifier();
+            skipWhitespace();
+            if (!consume(']')) {
+                throw unsupported();
+            }
+            String attribute = "@" + name;
+            String literal = literal(value);
+            switch (operator) {
+                case "~=":
+                    return hasWord(name, value);
+                case "|=":
+                    return "[" + attribute + "=" + literal + " or starts-with(" + attribute + ", " + literal(value + "-") + ")]";
+                case "^=":
+                    return "[starts-with(" + attribute + ", " + literal + ")]";
+                case "$=":
+                    return "[substring(" + attribute + ", string-length(" + attribute + ") - " + value.length() + " + 1) = " + literal + "]";
+                case "*=":
+                    return "[contains(" + attribute + ", " + literal + ")]";
+                default:
+                    return "[" + attribute + "=" + literal + "]";
+            }
+        }
+        
+        private String pseudoClass() {
+            String name = identifier();
+            switch (name) {
+                case "first-child":
+                    return "[not(preceding-sibling::*)]";
+                case "last-child":
+                    return "[not(following-sibling::*)]";
+                case "nth-child":
+                    if (!consume('(')) {
+                        throw unsupported();
+                    }
+                    int start = position;
+                    while (position < css.length() && Character.isDigit(css.charAt(position))) {
+                        position++;
+                    }
+                    String index = css.substring(start, position);
+                    if (index.isEmpty() || !consume(')')) {
+                        throw unsupported();
+                    }
+                    return "[count(preceding-sibling::*) = " + (Integer.parseInt(index) - 1) + "]";
+                default:
+                    throw unsupported();
+            }
+        }
+        
+        private String identifier() {
+            int start = position;
+            while (position < css.length() && isNameChar(css.charAt(position))) {
+                position++;
+            }
+            if (start == position) {
+                throw unsupported();
+            }
+            return css.substring(start, position);
+        }
+        
+        private String quoted() {
+            char quote = css.charAt(position++);
+            int end = css.indexOf(quote, position);
+            if (end < 0) {
+                throw unsupported();
+            }
+            String value = css.substring(position, end);
+            position = end + 1;
+            return value;
+        }
+        
+        private boolean consume(char c) {
+            skipWhitespaceBefore(c);
+            if (position < css.length() && css.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+        
+        private void skipWhitespaceBefore(char c) {
+            // Whitespace is a combinator, only skip it in front of punctuation that cannot start a selector
+            if (c == ',' || c == ')' || c == ']') {
+                skipWhitespace();
+            }
+        }
+        
+        private boolean skipWhitespace() {
+            int start = position;
+            while (position < css.length() && Character.isWhitespace(css.charAt(position))) {
+                position++;
+            }
+            return position > start;
+        }
+        
+        private static boolean isNameChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '-' || c == '_';
+        }
+        
+        private IllegalArgumentException unsupported() {
+            return new IllegalArgumentException("DOM snapshot does not support CSS selector '" + css + "' at position " + position
+                + "; use By.xpath or a live query instead");
+        }
+        
+        static String hasWord(String attribute, String word) {
+            return "[contains(concat(' ', normalize-space(@" + attribute + "), ' '), " + literal(" " + word + " ") + ")]";
+        }
+        
+        /**
+         * XPath string literal, using concat() for values with both kinds of quotes
+         */
+        static String literal(String value) {
+            if (!value.contains("'")) {
+                return "'" + value + "'";
+            }
+            if (!value.contains("\"")) {
+                return "\"" + value + "\"";
+            }
+            return "concat('" + value.replace("'", "', \"'\", '") + "')";
+        }
+    }
+    
+    /**
+     * Latest snapshot of one driver, dropped before the driver runs a command that may change the page
+     * Attach it with decorate(); the read-only commands below keep the snapshot, any other command
+     * (click, sendKeys, get, executeScript, switchTo().frame(), alert handling...) drops it.
+     * Changes made by the page itself, e.g. timers or late responses, are not noticed.
+     */
+    public static class Cache implements WebDriverListener {
+        private static final Set<String> READ_ONLY_COMMANDS = Set.of(
+            "findElement", "findElements", "getText", "getAttribute", "getDomAttribute", "getDomProperty",
+            "getCssValue", "getTagName", "getAriaRole", "getAccessibleName", "isDisplayed", "isEnabled", "isSelected",
+            "getLocation", "getSize", "getRect", "getShadowRoot", "getTitle", "getCurrentUrl", "getPageSource",
+            "getWindowHandle", "getWindowHandles", "getScreenshotAs", "getCookies", "getCookieNamed", "getCapabilities",
+            "manage", "navigate", "switchTo", "timeouts", "getPosition", "getWrappedDriver",
+            "toString", "hashCode", "equals");
+        
+        private final AtomicLong generation = new AtomicLong();
+        private volatile boolean attached;
+        private DomSnapshot snapshot;
+        private long snapshotGeneration = -1;
+        
+        /**
+         * Wrap the driver so its commands drop the snapshot, a no-op with -Ddom.snapshot.enabled=false
+         */
+        public WebDriver decorate(WebDriver driver) {
+            invalidate();
+            if (!isEnabled()) {
+                attached = false;
+                return driver;
+            }
+            attached = true;
+            return new EventFiringDecorator<>(this).decorate(driver);
+        }
+        
+        /**
+         * Snapshot of the driver's page, taken again when a command may have changed the page since the last one
+         * Without decorate() every call takes a new snapshot
+         */
+        public synchronized DomSnapshot get(WebDriver driver) {
+            if (attached && snapshot != null && snapshotGeneration == generation.get()) {
+                return snapshot;
+            }
+            snapshot = take(driver);
+            // Read after the snapshot script, whose own executeScript call bumped the generation
+            snapshotGeneration = generation.get();
+            return snapshot;
+        }
+        
+        public synchronized void invalidate() {
+            snapshot = null;
+            generation.incrementAndGet();
+        }
+        
+        @Override
+        public void beforeAnyCall(Object target, Method method, Object[] args) {
+            if (!READ_ONLY_COMMANDS.contains(method.getName())) {
+                generation.incrementAndGet();
+            }
+        }
+    }
+}
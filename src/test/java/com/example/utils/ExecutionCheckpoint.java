@@ -0,0 +1,267 @@
+package com.example.utils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Completion checkpoint of an execution, used to resume a run that was interrupted
+ * Every finished test is appended to target/execution/EXECUTION_ID.checkpoint with its outcome,
+ * duration, first failure and artifacts, once its events are synced to the journal, so a killed
+ * JVM or a rebooted agent only loses the tests in progress. Forks sharing an execution ID each
+ * write their own EXECUTION_ID_pPID.checkpoint.
+ * With -Dresume=true the run continues the execution given by -Dexecution.id, or the latest
+ * checkpointed one, and skips the tests it already completed. Failed tests are skipped too unless
+ * -Dresume.rerunFailed=true. Checkpoints are written unless -Dcheckpoint.enabled=false.
+ */
+public class ExecutionCheckpoint implements ExecutionJournal.Listener {
+    private static final String CHECKPOINT_DIR = "target/execution";
+    private static final String CHECKPOINT_EXTENSION = ".checkpoint";
+    private static final String ENABLED_PROPERTY = "checkpoint.enabled";
+    private static final String RESUME_PROPERTY = "resume";
+    private static final String RERUN_FAILED_PROPERTY = "resume.rerunFailed";
+    private static final int FIXED_FIELDS = 7;
+    
+    private static volatile boolean started;
+    private static volatile Map<String, Completion> completedTests;
+    
+    // Tests in progress in this JVM, only touched by the journal writer thread
+    private final Map<String, Completion> runningTests = new HashMap<>();
+    
+    /**
+     * A test completed under the execution, as persisted in the checkpoint
+     */
+    public static class Completion {
+        private final String testId;
+        private final String displayName;
+        private String status = "INCOMPLETE";
+        private long durationNanos;
+        private long endEpochMillis;
+        private String failureStep;
+        private String failureDetail;
+        private final List<String> artifacts = new ArrayList<>();
+        
+        Completion(String testId, String displayName) {
+            this.testId = testId;
+            this.displayName = displayName;
+        }
+        
+        public String getTestId() { return testId; }
+        public String getDisplayName() { return displayName; }
+        public String getStatus() { return status; }
+        public long getDurationNanos() { return durationNanos; }
+        public long getEndEpochMillis() { return endEpochMillis; }
+        public String getFailureStep() { return failureStep; }
+        // Exception type and message, "Type: message"
+        public String getFailureDetail() { return failureDetail; }
+        public List<String> getArtifacts() { return Collections.unmodifiableList(artifacts); }
+        
+        public boolean isFailed() {
+            return "FAILED".equals(status);
+        }
+        
+        public int getScreenshotCount() {
+            return (int) artifacts.stream().filter(path -> path.endsWith(".png")).count();
+        }
+    }
+    
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+    }
+    
+    public static boolean isResumeEnabled() {
+        return Boolean.parseBoolean(System.getProperty(RESUME_PROPERTY, "false"));
+    }
+    
+    /**
+     * Start writing the checkpoint of the current execution, once per JVM
+     */
+    public static synchronized void startIfEnabled() {
+        if (started || !isEnabled()) {
+            return;
+        }
+        started = true;
+        ExecutionJournal.addLiveListener(new ExecutionCheckpoint());
+        if (isResumeEnabled()) {
+            FrameworkLog.info("⏯️ Resuming execution " + ExecutionIdManager.getCurrentExecutionId() + ": "
+                + getCompletedTests().size() + " test(s) already completed");
+        }
+    }
+    
+    /**
+     * Completion of a test that a resumed run should skip, if any
+     */
+    public static Optional<Completion> getResumableCompletion(String testId) {
+        if (!isResumeEnabled()) {
+            return Optional.empty();
+        }
+        Completion completion = getCompletedTests().get(testId);
+        if (completion == null || completion.isFailed() && Boolean.parseBoolean(System.getProperty(RERUN_FAILED_PROPERTY, "false"))) {
+            return Optional.empty();
+        }
+        return Optional.of(completion);
+    }
+    
+    /**
+     * Tests completed under the current execution by earlier runs, loaded once
+     */
+    public static Map<String, Completion> getCompletedTests() {
+        if (completedTests == null) {
+            synchronized (ExecutionCheckpoint.class) {
+                if (completedTests == null) {
+                    completedTests = load(ExecutionIdManager.getCurrentExecutionId());
+                }
+            }
+        }
+        return completedTests;
+    }
+    
+    /**
+     * Execution with the most recently written checkpoint, resumed when no ID is given
+     */
+    public static Optional<String> findLatestExecutionId() {
+        File[] checkpoints = new File(CHECKPOINT_DIR).listFiles((dir, name) -> name.endsWith(CHECKPOINT_EXTENSION));
+        if (checkpoints == null || checkpoints.length == 0) {
+            return Optional.empty();
+        }
+        return Arrays.stream(checkpoints)
+            .max(Comparator.comparingLong(File::lastModified))
+            .map(file -> file.getName().substring(0, file.getName().length() - CHECKPOINT_EXTENSION.length()))
+            .map(name -> name.replaceFirst("_p\\d+$", ""));
+    }
+    
+    private static Map<String, Completion> load(String executionId) {
+        Map<String, Completion> completions = new HashMap<>();
+        File[] checkpoints = new File(CHECKPOINT_DIR).listFiles((dir, name) -> name.equals(executionId + CHECKPOINT_EXTENSION)
+            || name.startsWith(executionId + "_p") && name.endsWith(CHECKPOINT_EXTENSION));
+        if (checkpoints == null) {
+            return completions;
+        }
+        Arrays.sort(checkpoints);
+        for (File checkpoint : checkpoints) {
+            try (BufferedReader reader = Files.newBufferedReader(checkpoint.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Completion completion = parse(line);
+                    if (completion != null) {
+                        // A test completed by several runs keeps its latest outcome
+                        completions.merge(completion.testId, completion,
+                            (previous, latest) -> latest.endEpochMillis >= previous.endEpochMillis ? latest : previous);
+                    }
+                }
+            } catch (IOException e) {
+                FrameworkLog.warn("⚠️ Warning: Could not read checkpoint " + checkpoint + ": " + e.getMessage());
+            }
+        }
+        return completions;
+    }
+    
+    // ---------------------------------------------------------------------
+    // Recording, on the journal writer thread
+    // ---------------------------------------------------------------------
+    
+    @Override
+    public void onEvent(ExecutionJournal.Event event) {
+        switch (event.getType()) {
+            case TEST_START:
+                runningTests.put(event.getTestId(), new Completion(event.getTestId(), event.getName()));
+                break;
+            case FAILURE:
+                Completion failed = event.getTestId() != null ? runningTests.get(event.getTestId()) : null;
+                if (failed != null && failed.failureDetail == null) {
+                    failed.failureStep = event.getName();
+                    failed.failureDetail = event.getDetail();
+                }
+                break;
+            case ARTIFACT:
+                Completion artifactOwner = event.getTestId() != null ? runningTests.get(event.getTestId()) : null;
+                if (artifactOwner != null && event.getDetail() != null) {
+                    artifactOwner.artifacts.add(event.getDetail());
+                }
+                break;
+            case TEST_END:
+                Completion finished = runningTests.remove(event.getTestId());
+                // A retried attempt is not a completion, the next attempt starts right away
+                if (finished != null && !"RETRIED".equals(event.getName())) {
+                    finished.status = event.getName();
+                    finished.durationNanos = event.getValue();
+                    finished.endEpochMillis = event.getEpochMillis();
+                    append(finished);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+    
+    private static void append(Completion completion) {
+        Path checkpoint = Paths.get(CHECKPOINT_DIR, ExecutionIdManager.getCurrentExecutionId()
+            + ExecutionIdManager.getForkSuffix() + CHECKPOINT_EXTENSION);
+        try {
+            Files.createDirectories(checkpoint.getParent());
+            Files.write(checkpoint, format(completion).getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+        } catch (IOException e) {
+            FrameworkLog.warn("⚠️ Warning: Could not checkpoint " + completion.displayName + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * One tab-separated line: test ID, name, status, duration, end time, failure step, failure detail, artifacts...
+     */
+    private static String format(Completion completion) {
+        List<String> fields = new ArrayList<>(FIXED_FIELDS + completion.artifacts.size());
+        fields.add(completion.testId);
+        fields.add(completion.displayName);
+        fields.add(completion.status);
+        fields.add(String.valueOf(completion.durationNanos));
+        fields.add(String.valueOf(completion.endEpochMillis));
+        fields.add(completion.failureStep);
+        fields.add(completion.failureDetail);
+        fields.addAll(completion.artifacts);
+        StringBuilder line = new StringBuilder();
+        for (String field : fields) {
+            if (line.length() > 0) {
+                line.append('\t');
+            }
+            line.append(escape(field));
+        }
+        return line.append('\n').toString();
+    }
+    
+    /**
+     * Parse a checkpoint line, null for a line cut short by a crash
+     */
+    private static Completion parse(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length < FIXED_FIELDS) {
+            return null;
+        }
+        try {
+            Completion completion = new Completion(unescape(fields[0]), unescape(fields[1]));
+            completion.status = unescape(fields[2]);
+            completion.durationNanos = Long.parseLong(fields[3]);
+            completion.endEpochMillis = Long.parseLong(fields[4]);
+            completion.failureStep = unescape(fields[5]);
+            completion.failureDetail = unescape(fields[6]);
+            for (int i = FIXED_FIELDS; i < fields.length; i++) {
+                completion.artifacts.add(unescape(fields[i]));
+            }
+            return completion.testId != null ? completion : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    // Null is written as a lone backslash
+    private static String escape(String value) {
+        return value == null ? "\\" : TsvUtil.escape(value);
+    }
+    
+    private static String unescape(String value) {
+        return "\\".equals(value) ? null : TsvUtil.unescape(value);
+    }
+}
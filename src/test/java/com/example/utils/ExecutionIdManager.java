@@ -1,19 +1,50 @@
 package com.example.utils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.*;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 /**
  * Manages unique execution IDs for test runs
  * Provides thread-safe execution ID generation and management
+ * One ID covers a whole launcher run: surefire/failsafe and Gradle test forks of the same build share
+ * the ID of their parent process through a run file in target/execution, created under a file lock
+ * by the first fork. -Dexecution.id set by the build (prefixed with exec_ when it lacks it) overrides
+ * the coordination, and -Dresume=true without it reuses the latest checkpointed execution, see
+ * ExecutionCheckpoint. A run stays live while its launcher process is alive, and cleanup never
+ * removes artifacts of a live run. Forks of a Gradle or mvnd daemon do not join it, since the daemon
+ * outlives the build: each gets its own ID unless the test task passes -Dexecution.id.
  */
 public class ExecutionIdManager {
     private static volatile String currentExecutionId = null;
     private static final AtomicLong executionCounter = new AtomicLong(0);
     private static final String EXECUTION_ID_PREFIX = "exec_";
+    private static final String EXECUTION_ID_PROPERTY = "execution.id";
+    private static final String UNKNOWN_EXECUTION_ID = "unknown";
+    private static final String RUN_DIR = "target/execution";
+    private static final String RUN_FILE_PREFIX = "run_";
+    private static final String RUN_FILE_EXTENSION = ".properties";
+    private static final String LOCK_FILE = "run.lock";
+    // Main classes of the JVMs build tools fork to run tests
+    private static final String[] FORK_MAIN_CLASSES = {
+        "org.apache.maven.surefire.booter.ForkedBooter", "surefirebooter", "GradleWorkerMain"};
+    // Main classes of build daemons (Gradle, mvnd) that run many builds in one process
+    private static final String[] DAEMON_MAIN_CLASSES = {"GradleDaemon", "mvnd.daemon"};
     private static volatile boolean isInitialized = false;
+    private static volatile boolean sharedWithForks = false;
     
     // Static initializer to ensure execution ID is generated when class is first loaded
     static {
@@ -25,9 +56,249 @@ public class ExecutionIdManager {
      */
     private static synchronized void initializeExecutionId() {
         if (!isInitialized) {
-            currentExecutionId = generateExecutionId();
+            String configuredId = System.getProperty(EXECUTION_ID_PROPERTY);
+            if ((configuredId == null || configuredId.isBlank()) && ExecutionCheckpoint.isResumeEnabled()) {
+                // Resuming without an explicit ID continues the latest checkpointed execution
+                configuredId = ExecutionCheckpoint.findLatestExecutionId().orElse(null);
+            }
+            if (configuredId != null && !configuredId.isBlank()) {
+                currentExecutionId = normalizeConfiguredId(configuredId);
+                sharedWithForks = isForkedJvm();
+                registerLiveRun(currentExecutionId, ProcessHandle.current());
+                FrameworkLog.info("🆔 Maven execution started with configured ID: " + currentExecutionId);
+            } else if (isForkedJvm() && !isDaemon(getLauncher())) {
+                ProcessHandle launcher = getLauncher();
+                currentExecutionId = joinLauncherRun(launcher);
+                sharedWithForks = true;
+                FrameworkLog.info("🆔 Maven execution started with ID: " + currentExecutionId + " (shared by forks of process " + launcher.pid() + ")");
+            } else {
+                currentExecutionId = generateExecutionId();
+                registerLiveRun(currentExecutionId, ProcessHandle.current());
+                FrameworkLog.info("🆔 Maven execution started with ID: " + currentExecutionId);
+                if (isForkedJvm()) {
+                    // A daemon outlives the build, joining its run would put every later build under this ID
+                    FrameworkLog.info("🆔 Forked by build daemon " + getLauncher().pid() + ", set -Dexecution.id in the test task to share one ID between forks");
+                }
+            }
             isInitialized = true;
-            System.out.println("🆔 Maven execution started with ID: " + currentExecutionId);
+        }
+    }
+    
+    /**
+     * Configured IDs get the exec_ prefix, so artifact names they end up in can be parsed back
+     */
+    private static String normalizeConfiguredId(String configuredId) {
+        String executionId = configuredId.trim();
+        if (!executionId.startsWith(EXECUTION_ID_PREFIX)) {
+            FrameworkLog.info("🆔 Configured execution ID " + executionId + " used as " + EXECUTION_ID_PREFIX + executionId);
+            executionId = EXECUTION_ID_PREFIX + executionId;
+        }
+        return executionId;
+    }
+    
+    /**
+     * Whether this JVM is a test fork started by Maven surefire/failsafe or Gradle
+     */
+    public static boolean isForkedJvm() {
+        String command = System.getProperty("sun.java.command", "");
+        for (String mainClass : FORK_MAIN_CLASSES) {
+            if (command.contains(mainClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Process that forked this JVM, or this JVM when it has no parent
+     */
+    private static ProcessHandle getLauncher() {
+        return ProcessHandle.current().parent().orElse(ProcessHandle.current());
+    }
+    
+    /**
+     * Whether the process is a Gradle or mvnd daemon rather than a launcher that ends with the build
+     * When the command line of the process is not available it is treated as a launcher
+     */
+    private static boolean isDaemon(ProcessHandle process) {
+        String commandLine = process.info().commandLine().orElse("");
+        for (String mainClass : DAEMON_MAIN_CLASSES) {
+            if (commandLine.contains(mainClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Whether other JVMs of the same run use the same execution ID
+     * Their artifacts must then be told apart by process, see getForkSuffix()
+     */
+    public static boolean isSharedWithForks() {
+        getCurrentExecutionId();
+        return sharedWithForks;
+    }
+    
+    /**
+     * Suffix that keeps artifact names of parallel forks apart, empty when the ID is not shared
+     */
+    public static String getForkSuffix() {
+        return isSharedWithForks() ? "_p" + ProcessHandle.current().pid() : "";
+    }
+    
+    /**
+     * Execution ID of the launcher's run, created by whichever fork gets the lock first
+     */
+    private static String joinLauncherRun(ProcessHandle launcher) {
+        Path runFile = getRunFile(launcher.pid());
+        try {
+            return withRunLock(() -> {
+                Optional<Properties> existing = readRunFile(runFile);
+                if (existing.isPresent() && isAlive(existing.get()) && sameProcess(existing.get(), launcher)) {
+                    return existing.get().getProperty("executionId");
+                }
+                String executionId = generateExecutionId();
+                writeRunFile(runFile, executionId, launcher);
+                return executionId;
+            });
+        } catch (IOException e) {
+            FrameworkLog.warn("⚠️ Warning: Could not coordinate execution ID with other forks: " + e.getMessage());
+            return generateExecutionId();
+        }
+    }
+    
+    /**
+     * Record a run that is not coordinated through a launcher, so cleanup in other JVMs leaves it alone
+     */
+    private static void registerLiveRun(String executionId, ProcessHandle owner) {
+        try {
+            withRunLock(() -> {
+                writeRunFile(getRunFile(owner.pid()), executionId, owner);
+                return null;
+            });
+        } catch (IOException e) {
+            FrameworkLog.warn("⚠️ Warning: Could not register execution " + executionId + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Execution IDs of every run whose launcher is still alive, always including the current one
+     * Run files of finished runs are removed on the way
+     */
+    public static Set<String> getLiveExecutionIds() {
+        Set<String> liveIds = new HashSet<>();
+        liveIds.add(getCurrentExecutionId());
+        Path runDir = Paths.get(RUN_DIR);
+        if (!Files.isDirectory(runDir)) {
+            return liveIds;
+        }
+        try {
+            withRunLock(() -> {
+                try (Stream<Path> runFiles = Files.list(runDir)) {
+                    for (Path runFile : (Iterable<Path>) runFiles::iterator) {
+                        String name = runFile.getFileName().toString();
+                        if (!name.startsWith(RUN_FILE_PREFIX) || !name.endsWith(RUN_FILE_EXTENSION)) {
+                            continue;
+                        }
+                        Optional<Properties> run = readRunFile(runFile);
+                        if (run.isPresent() && isAlive(run.get())) {
+                            liveIds.add(run.get().getProperty("executionId"));
+                        } else {
+                            Files.deleteIfExists(runFile);
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (IOException e) {
+            FrameworkLog.warn("⚠️ Warning: Could not read live executions: " + e.getMessage());
+        }
+        return liveIds;
+    }
+    
+    /**
+     * Whether the execution is still running in this or another JVM
+     */
+    public static boolean isLiveExecution(String executionId) {
+        return getLiveExecutionIds().contains(executionId);
+    }
+    
+    private static Path getRunFile(long launcherPid) {
+        return Paths.get(RUN_DIR, RUN_FILE_PREFIX + launcherPid + RUN_FILE_EXTENSION);
+    }
+    
+    private static Optional<Properties> readRunFile(Path runFile) throws IOException {
+        if (!Files.exists(runFile)) {
+            return Optional.empty();
+        }
+        Properties run = new Properties();
+        try (InputStream in = Files.newInputStream(runFile)) {
+            run.load(in);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        return run.getProperty("executionId") != null ? Optional.of(run) : Optional.empty();
+    }
+    
+    private static void writeRunFile(Path runFile, String executionId, ProcessHandle launcher) throws IOException {
+        Properties run = new Properties();
+        run.setProperty("executionId", executionId);
+        run.setProperty("launcherPid", String.valueOf(launcher.pid()));
+        run.setProperty("launcherStart", String.valueOf(getStartMillis(launcher)));
+        Path tempFile = runFile.resolveSibling(runFile.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tempFile)) {
+            run.store(out, "Execution shared by the test forks of one launcher");
+        }
+        Files.move(tempFile, runFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Whether the launcher recorded in a run file is still running
+     * The start time guards against the PID having been reused by an unrelated process
+     */
+    private static boolean isAlive(Properties run) {
+        long pid;
+        try {
+            pid = Long.parseLong(run.getProperty("launcherPid", "-1"));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        Optional<ProcessHandle> launcher = ProcessHandle.of(pid);
+        return launcher.isPresent() && launcher.get().isAlive() && sameProcess(run, launcher.get());
+    }
+    
+    private static boolean sameProcess(Properties run, ProcessHandle process) {
+        long recordedStart;
+        try {
+            recordedStart = Long.parseLong(run.getProperty("launcherStart", "-1"));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        long actualStart = getStartMillis(process);
+        // Start times are not available everywhere, the PID alone has to do then
+        return recordedStart < 0 || actualStart < 0 || recordedStart == actualStart;
+    }
+    
+    private static long getStartMillis(ProcessHandle process) {
+        return process.info().startInstant().map(Instant::toEpochMilli).orElse(-1L);
+    }
+    
+    @FunctionalInterface
+    private interface LockedOperation<T> {
+        T run() throws IOException;
+    }
+    
+    /**
+     * Run an operation holding both the JVM monitor and a file lock shared by all forks
+     */
+    @SuppressWarnings("try") // the lock is only held, never read
+    private static synchronized <T> T withRunLock(LockedOperation<T> operation) throws IOException {
+        Path runDir = Paths.get(RUN_DIR);
+        Files.createDirectories(runDir);
+        try (FileChannel channel = FileChannel.open(runDir.resolve(LOCK_FILE),
+                 StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = channel.lock()) {
+            return operation.run();
         }
     }
     
@@ -50,7 +321,7 @@ public class ExecutionIdManager {
      */
     public static void setCurrentExecutionId(String executionId) {
         currentExecutionId = executionId;
-        System.out.println("🆔 Execution ID set: " + executionId);
+        FrameworkLog.info("🆔 Execution ID set: " + executionId);
     }
     
     /**
@@ -71,7 +342,7 @@ public class ExecutionIdManager {
      */
     public static void clearCurrentExecutionId() {
         if (currentExecutionId != null) {
-            System.out.println("🆔 Execution completed: " + currentExecutionId);
+            FrameworkLog.info("🆔 Execution completed: " + currentExecutionId);
             currentExecutionId = null;
             isInitialized = false;
         }
@@ -105,15 +376,36 @@ public class ExecutionIdManager {
             }
         }
         
-        return "unknown";
+        return UNKNOWN_EXECUTION_ID;
     }
     
     /**
      * Check if a filename belongs to the current execution
      */
     public static boolean belongsToCurrentExecution(String filename) {
-        String executionId = extractExecutionIdFromFilename(filename);
-        return getCurrentExecutionId().equals(executionId);
+        return belongsToExecution(filename, getCurrentExecutionId());
+    }
+    
+    /**
+     * Whether a screenshot name ends in the execution ID, which holds for IDs with underscores or "exec" in them
+     */
+    public static boolean belongsToExecution(String filename, String executionId) {
+        String nameWithoutExt = filename.endsWith(".png") ? filename.substring(0, filename.length() - 4) : filename;
+        return nameWithoutExt.endsWith("_" + executionId);
+    }
+    
+    /**
+     * Whether a screenshot was taken by a finished execution and may be cleaned up
+     * Screenshots of live executions are matched by their full ID, and names no execution ID
+     * can be parsed from are kept rather than treated as an old run
+     */
+    public static boolean isFromFinishedExecution(String filename, Set<String> liveExecutionIds) {
+        for (String liveExecutionId : liveExecutionIds) {
+            if (belongsToExecution(filename, liveExecutionId)) {
+                return false;
+            }
+        }
+        return !UNKNOWN_EXECUTION_ID.equals(extractExecutionIdFromFilename(filename));
     }
     
     /**
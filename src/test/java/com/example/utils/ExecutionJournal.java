@@ -0,0 +1,879 @@
+package com.example.utils;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only journal of structured execution events
+ * Test threads only enqueue events, a single background thread encodes and appends them to
+ * target/journal/EXECUTION_ID.journal. Consumers replay the file in one sequential read.
+ * Test forks sharing an execution ID each write their own EXECUTION_ID_pPID.journal, replayed together.
+ *
+ * Record layout: type code, zigzag-varint deltas for wall clock and nanoTime, dictionary-encoded
+ * strings (thread, test id, name, detail), a varint value and, for command events, a varint size.
+ * Log lines and DOM query results are mostly unique, so their detail is written inline and never enters the dictionary.
+ * Every writer session starts with a header that resets the string dictionary, so several sessions
+ * can append to the same file. The writer repeats the header once the dictionary holds MAX_DICTIONARY_SIZE
+ * strings, which bounds the memory of writer and readers in long runs.
+ */
+public class ExecutionJournal {
+    private static final String JOURNAL_DIR = "target/journal";
+    private static final String JOURNAL_EXTENSION = ".journal";
+    private static final int SESSION_MAGIC = 0x454A524E; // "EJRN"
+    // Bumped whenever a record type or layout is added; each version only adds to the previous one,
+    // so older journals stay readable
+    // 2: COMMAND events with a size field
+    // 3: BUDGET events
+    // 4: SPAN events
+    // 5: LOG events with an inline detail
+    // 6: QUERY events
+    private static final int FORMAT_VERSION = 6;
+    private static final int OLDEST_READABLE_VERSION = 1;
+    private static final int QUEUE_CAPACITY = 16384;
+    private static final int MAX_DETAIL_LENGTH = 4000;
+    private static final int MAX_DICTIONARY_SIZE = 1 << 16;
+    private static final long METRIC_SCALE = 1000;
+    
+    private static final BlockingQueue<Event> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final AtomicLong enqueuedCount = new AtomicLong();
+    private static final Object flushLock = new Object();
+    private static final List<Listener> liveListeners = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<String> currentTestId = new ThreadLocal<>();
+    private static final ThreadLocal<Deque<String>> currentSteps = ThreadLocal.withInitial(ArrayDeque::new);
+    // Last failure recorded for the test on this thread, so it is not recorded again when it ends the test
+    private static final ThreadLocal<Throwable> recordedFailure = new ThreadLocal<>();
+    
+    private static volatile long writtenCount = 0;
+    // Highest enqueued count a flush() caller waits for, guarded by flushLock
+    private static long flushTarget = 0;
+    private static volatile Thread writerThread;
+    
+    /**
+     * Event types, the code is what gets persisted so it must never be reused
+     */
+    public enum EventType {
+        SESSION_START(1),
+        TEST_START(2),
+        TEST_END(3),
+        STEP_START(4),
+        STEP_END(5),
+        FAILURE(6),
+        ARTIFACT(7),
+        COMMAND(8, true),
+        METRIC(9),
+        BUDGET(10, true),
+        SPAN(11, true),
+        LOG(12, false, true),
+        QUERY(13, true, true);
+        
+        private final int code;
+        private final boolean hasSize;
+        private final boolean inlineDetail;
+        
+        EventType(int code) {
+            this(code, false);
+        }
+        
+        EventType(int code, boolean hasSize) {
+            this(code, hasSize, false);
+        }
+        
+        EventType(int code, boolean hasSize, boolean inlineDetail) {
+            this.code = code;
+            this.hasSize = hasSize;
+            this.inlineDetail = inlineDetail;
+        }
+        
+        public int getCode() { return code; }
+        
+        /**
+         * Whether records of this type carry the extra size field
+         */
+        boolean hasSize() { return hasSize; }
+        
+        /**
+         * Whether the detail is written inline instead of through the string dictionary
+         */
+        boolean hasInlineDetail() { return inlineDetail; }
+        
+        static EventType fromCode(int code) {
+            for (EventType type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown journal event type: " + code);
+        }
+    }
+    
+    /**
+     * A single journal event
+     * Field meaning per type:
+     * SESSION_START - name: execution ID, value: process ID
+     * TEST_START    - name: display name, detail: ClassName#methodName
+     * TEST_END      - name: status (PASSED/FAILED/ABORTED, RETRIED for an attempt followed by another), value: duration in nanoseconds
+     *                 CACHED for a result reused from an earlier run, detail: execution ID of that run
+     * STEP_START    - name: step name, detail: step description
+     * STEP_END      - name: step name, detail: status (PASSED/FAILED), value: duration in nanoseconds
+     * FAILURE       - name: step name, detail: exception type and message
+     * ARTIFACT      - name: step name, detail: artifact path, value: size in bytes
+     * COMMAND       - name: WebDriver command, detail: step name, value: duration in nanoseconds, size: payload bytes
+     * METRIC        - name: metric name, detail: step name, value: metric value in thousandths (ms become microseconds)
+     * BUDGET        - name: step name, detail: violation message, value: measured value, size: budget limit (both in thousandths)
+     * SPAN          - name: activity, detail: category (driver, screenshot, wait...), value: duration in nanoseconds, size: bytes
+     * LOG           - name: level, detail: message, stamped when it was logged; see FrameworkLog
+     * QUERY         - name: step name, detail: one "key = value" line per value, value: duration in nanoseconds, size: number of values
+     */
+    public static class Event {
+        private final EventType type;
+        private final long epochMillis;
+        private final long nanoTime;
+        private final String thread;
+        private final String testId;
+        private final String name;
+        private final String detail;
+        private final long value;
+        private final long size;
+        
+        public Event(EventType type, long epochMillis, long nanoTime, String thread,
+                     String testId, String name, String detail, long value) {
+            this(type, epochMillis, nanoTime, thread, testId, name, detail, value, 0);
+        }
+        
+        public Event(EventType type, long epochMillis, long nanoTime, String thread,
+                     String testId, String name, String detail, long value, long size) {
+            this.type = type;
+            this.epochMillis = epochMillis;
+            this.nanoTime = nanoTime;
+            this.thread = thread;
+            this.testId = testId;
+            this.name = name;
+            this.detail = detail;
+            this.value = value;
+            this.size = size;
+        }
+        
+        public EventType getType() { return type; }
+        public long getEpochMillis() { return epochMillis; }
+        public long getNanoTime() { return nanoTime; }
+        public String getThread() { return thread; }
+        public String getTestId() { return testId; }
+        public String getName() { return name; }
+        public String getDetail() { return detail; }
+        public long getValue() { return value; }
+        public long getSize() { return size; }
+        
+        /**
+         * Value of a METRIC event or measured value of a BUDGET event, undoing the fixed-point scaling
+         */
+        public double getMetricValue() { return value / (double) METRIC_SCALE; }
+        
+        /**
+         * Limit of a BUDGET event, undoing the fixed-point scaling
+         */
+        public double getBudgetLimit() { return size / (double) METRIC_SCALE; }
+    }
+    
+    /**
+     * Consumer of journal events, either replayed from a file or delivered live
+     */
+    public interface Listener {
+        void onEvent(Event event);
+        
+        default void onComplete() {
+        }
+    }
+    
+    /**
+     * Combine several listeners so they are all fed from the same replay
+     */
+    public static Listener compose(Listener... listeners) {
+        return new Listener() {
+            @Override
+            public void onEvent(Event event) {
+                for (Listener listener : listeners) {
+                    listener.onEvent(event);
+                }
+            }
+            
+            @Override
+            public void onComplete() {
+                for (Listener listener : listeners) {
+                    listener.onComplete();
+                }
+            }
+        };
+    }
+    
+    // ---------------------------------------------------------------------
+    // Recording API
+    // ---------------------------------------------------------------------
+    
+    /**
+     * Record the start of a test and bind it to the current thread
+     */
+    public static void testStarted(String testId, String displayName, String className, String methodName) {
+        currentTestId.set(testId);
+        currentSteps.get().clear();
+        recordedFailure.remove();
+        record(EventType.TEST_START, testId, displayName, className + "#" + methodName, 0);
+    }
+    
+    /**
+     * Record the end of the test bound to the current thread
+     */
+    public static void testFinished(String testId, String status, long durationNanos) {
+        testFinished(testId, status, durationNanos, null);
+    }
+    
+    /**
+     * Record the end of the test bound to the current thread, with a detail on its status
+     * e.g. the execution a CACHED result comes from
+     */
+    public static void testFinished(String testId, String status, long durationNanos, String detail) {
+        record(EventType.TEST_END, testId, status, detail, durationNanos);
+        currentTestId.remove();
+        currentSteps.remove();
+        recordedFailure.remove();
+    }
+    
+    /**
+     * Record the start of a step
+     * @return the nanoTime the step started at, to be passed to stepFinished
+     */
+    public static long stepStarted(String stepName, String description) {
+        currentSteps.get().push(stepName);
+        return record(EventType.STEP_START, currentTestId.get(), stepName, description, 0);
+    }
+    
+    /**
+     * Record the end of a step started with stepStarted
+     * Returns the step duration in nanoseconds
+     */
+    public static long stepFinished(String stepName, boolean passed, long startNanos) {
+        long now = System.nanoTime();
+        Deque<String> steps = currentSteps.get();
+        if (!steps.isEmpty()) {
+            steps.pop();
+        }
+        enqueue(new Event(EventType.STEP_END, System.currentTimeMillis(), now, Thread.currentThread().getName(),
+            currentTestId.get(), stepName, passed ? "PASSED" : "FAILED", now - startNanos));
+        return now - startNanos;
+    }
+    
+    /**
+     * Record a failure for the current test
+     */
+    public static void failure(String stepName, Throwable throwable) {
+        String detail = throwable.getClass().getName() + ": " + throwable.getMessage();
+        recordedFailure.set(throwable);
+        record(EventType.FAILURE, currentTestId.get(), stepName, detail, 0);
+    }
+    
+    /**
+     * Whether the throwable was already recorded as a failure of the current test, e.g. by the step it escaped from
+     */
+    public static boolean isFailureRecorded(Throwable throwable) {
+        return throwable != null && throwable == recordedFailure.get();
+    }
+    
+    /**
+     * Record an artifact (screenshot, log file...) produced by the current test
+     */
+    public static void artifact(String stepName, String path, long sizeBytes) {
+        record(EventType.ARTIFACT, currentTestId.get(), stepName, path, sizeBytes);
+    }
+    
+    /**
+     * Record a WebDriver command issued by the current thread, attributed to the current test and step
+     */
+    public static void command(String command, long durationNanos, long payloadBytes) {
+        long now = System.nanoTime();
+        enqueue(new Event(EventType.COMMAND, System.currentTimeMillis(), now, Thread.currentThread().getName(),
+            currentTestId.get(), command, currentSteps.get().peek(), durationNanos, payloadBytes));
+    }
+    
+    /**
+     * Record a measured metric (browser timing, size, count...) for a step of the current test
+     * Stored with three decimals of precision
+     */
+    public static void metric(String stepName, String metricName, double value) {
+        record(EventType.METRIC, currentTestId.get(), metricName, stepName, Math.round(value * METRIC_SCALE));
+    }
+    
+    /**
+     * Record a performance budget exceeded by a step of the current test
+     */
+    public static void budgetViolation(String stepName, String message, double measured, double limit) {
+        long now = System.nanoTime();
+        enqueue(new Event(EventType.BUDGET, System.currentTimeMillis(), now, Thread.currentThread().getName(),
+            currentTestId.get(), stepName, message, Math.round(measured * METRIC_SCALE), Math.round(limit * METRIC_SCALE)));
+    }
+    
+    /**
+     * Record a framework activity outside of steps (driver startup, screenshot...) that ends now
+     * @param startNanos System.nanoTime() when the activity started
+     * @param sizeBytes Bytes produced by the activity, 0 when not applicable
+     */
+    public static void span(String name, String category, long startNanos, long sizeBytes) {
+        long now = System.nanoTime();
+        enqueue(new Event(EventType.SPAN, System.currentTimeMillis(), now, Thread.currentThread().getName(),
+            currentTestId.get(), name, category, now - startNanos, sizeBytes));
+    }
+    
+    /**
+     * Record a batched DOM query of the current test that ends now, attributed to the current step
+     * @param results One "key = value" line per queried value
+     * @param startNanos System.nanoTime() when the query started
+     */
+    public static void domQuery(String results, int valueCount, long startNanos) {
+        long now = System.nanoTime();
+        enqueue(new Event(EventType.QUERY, System.currentTimeMillis(), now, Thread.currentThread().getName(),
+            currentTestId.get(), currentSteps.get().peek(), results, now - startNanos, valueCount));
+    }
+    
+    /**
+     * Record a log line captured for a test
+     * Called from the FrameworkLog drainer, so the thread and timestamps are those of the logging thread
+     */
+    public static void log(String testId, String thread, long epochMillis, long nanoTime, String level, String message) {
+        enqueue(new Event(EventType.LOG, epochMillis, nanoTime, thread, testId, level, message, 0));
+    }
+    
+    /**
+     * Test ID bound to the current thread, or null outside of a test
+     */
+    public static String getCurrentTestId() {
+        return currentTestId.get();
+    }
+    
+    /**
+     * Innermost step currently running on this thread, or null outside of a step
+     */
+    public static String getCurrentStepName() {
+        return currentSteps.get().peek();
+    }
+    
+    private static long record(EventType type, String testId, String name, String detail, long value) {
+        long now = System.nanoTime();
+        enqueue(new Event(type, System.currentTimeMillis(), now, Thread.currentThread().getName(),
+            testId, name, detail, value));
+        return now;
+    }
+    
+    private static void enqueue(Event event) {
+        ensureWriterStarted();
+        enqueuedCount.incrementAndGet();
+        try {
+            // Only blocks when the writer is QUEUE_CAPACITY events behind
+            queue.put(event);
+        } catch (InterruptedException e) {
+            enqueuedCount.decrementAndGet();
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    // ---------------------------------------------------------------------
+    // Background writer
+    // ---------------------------------------------------------------------
+    
+    private static void ensureWriterStarted() {
+        if (writerThread == null) {
+            synchronized (ExecutionJournal.class) {
+                if (writerThread == null) {
+                    Thread thread = new Thread(ExecutionJournal::writeLoop, "execution-journal-writer");
+                    thread.setDaemon(true);
+                    thread.start();
+                    Runtime.getRuntime().addShutdownHook(new Thread(ExecutionJournal::flush, "execution-journal-flush"));
+                    writerThread = thread;
+                }
+            }
+        }
+    }
+    
+    private static void writeLoop() {
+        String executionId = ExecutionIdManager.getCurrentExecutionId();
+        List<Event> batch = new ArrayList<>(256);
+        try {
+            Path journalFile = getJournalFile();
+            Files.createDirectories(journalFile.getParent());
+            // A resumed execution appends to the journal of the run that was interrupted
+            truncateIncompleteRecord(journalFile);
+            try (JournalWriter writer = new JournalWriter(new FileOutputStream(journalFile.toFile(), true))) {
+                writer.writeSessionHeader(executionId, ProcessHandle.current().pid());
+                while (true) {
+                    batch.add(queue.take());
+                    queue.drainTo(batch);
+                    boolean testEnded = false;
+                    for (Event event : batch) {
+                        writer.write(event);
+                        testEnded |= event.getType() == EventType.TEST_END;
+                    }
+                    boolean flushed = testEnded || queue.isEmpty();
+                    if (testEnded) {
+                        // Finished tests reach the disk before live listeners such as the checkpoint hear of them
+                        writer.sync();
+                    } else if (flushed) {
+                        writer.flush();
+                    }
+                    for (Event event : batch) {
+                        notifyLiveListeners(event);
+                    }
+                    synchronized (flushLock) {
+                        // More events are queued, so these ride along with the next flush unless flush() waits for them
+                        if (!flushed && writtenCount < flushTarget) {
+                            writer.flush();
+                        }
+                        markWritten(batch.size());
+                    }
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("❌ Execution journal disabled, failed to write: " + e);
+            // Keep draining so recording threads never block on a dead writer
+            markWritten(batch.size());
+            while (true) {
+                try {
+                    batch.clear();
+                    batch.add(queue.take());
+                    queue.drainTo(batch);
+                    markWritten(batch.size());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+    
+    private static void markWritten(int count) {
+        synchronized (flushLock) {
+            writtenCount += count;
+            flushLock.notifyAll();
+        }
+    }
+    
+    private static void notifyLiveListeners(Event event) {
+        for (Listener listener : liveListeners) {
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                System.err.println("⚠️ Warning: Live journal listener failed: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Register a listener that receives every event right after it is written
+     * Live listeners run on the writer thread, never on test threads, and must not block
+     */
+    public static void addLiveListener(Listener listener) {
+        liveListeners.add(listener);
+    }
+    
+    public static void removeLiveListener(Listener listener) {
+        liveListeners.remove(listener);
+    }
+    
+    /**
+     * Block until every event recorded so far is written to disk
+     * Called before the journal is replayed in the same JVM
+     */
+    public static void flush() {
+        if (writerThread == null) {
+            return;
+        }
+        long target = enqueuedCount.get();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        synchronized (flushLock) {
+            flushTarget = Math.max(flushTarget, target);
+            while (writtenCount < target && writerThread.isAlive()) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    System.err.println("⚠️ Warning: Timed out flushing execution journal");
+                    return;
+                }
+                try {
+                    flushLock.wait(remainingMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    
+    // ---------------------------------------------------------------------
+    // Files and replay
+    // ---------------------------------------------------------------------
+    
+    /**
+     * Journal file written by this JVM for the current execution
+     */
+    public static Path getJournalFile() {
+        return Paths.get(JOURNAL_DIR, ExecutionIdManager.getCurrentExecutionId() + ExecutionIdManager.getForkSuffix() + JOURNAL_EXTENSION);
+    }
+    
+    public static Path getJournalFile(String executionId) {
+        return Paths.get(JOURNAL_DIR, executionId + JOURNAL_EXTENSION);
+    }
+    
+    /**
+     * Journal files of an execution, one per JVM when forks share the execution ID
+     */
+    public static List<Path> getJournalFiles(String executionId) {
+        File[] journals = new File(JOURNAL_DIR).listFiles((dir, name) -> name.equals(executionId + JOURNAL_EXTENSION)
+            || name.startsWith(executionId + "_p") && name.endsWith(JOURNAL_EXTENSION));
+        if (journals == null) {
+            return new ArrayList<>();
+        }
+        List<Path> files = new ArrayList<>();
+        for (File journal : journals) {
+            files.add(journal.toPath());
+        }
+        Collections.sort(files);
+        return files;
+    }
+    
+    /**
+     * Execution ID a journal file belongs to, from its name
+     */
+    public static String getExecutionId(Path journalFile) {
+        String name = journalFile.getFileName().toString();
+        if (name.endsWith(JOURNAL_EXTENSION)) {
+            name = name.substring(0, name.length() - JOURNAL_EXTENSION.length());
+        }
+        return name.replaceFirst("_p\\d+$", "");
+    }
+    
+    /**
+     * Most recently modified journal in target/journal, if any
+     */
+    public static Optional<Path> findLatestJournal() {
+        File[] journals = new File(JOURNAL_DIR).listFiles((dir, name) -> name.endsWith(JOURNAL_EXTENSION));
+        if (journals == null || journals.length == 0) {
+            return Optional.empty();
+        }
+        return Arrays.stream(journals)
+            .max(Comparator.comparingLong(File::lastModified))
+            .map(File::toPath);
+    }
+    
+    /**
+     * Replay a journal file in a single sequential read
+     * A truncated trailing record (killed JVM) ends the replay without an error
+     */
+    public static void replay(Path journalFile, Listener listener) throws IOException {
+        replay(Collections.singletonList(journalFile), listener);
+    }
+    
+    /**
+     * Replay several journal files of one execution one after the other, completing the listener once
+     * Files of forks that are still running end at their last complete record
+     */
+    public static void replay(List<Path> journalFiles, Listener listener) throws IOException {
+        for (Path journalFile : journalFiles) {
+            try (InputStream in = Files.newInputStream(journalFile)) {
+                readEvents(in, listener);
+            }
+        }
+        listener.onComplete();
+    }
+    
+    /**
+     * Decode the events of a journal stream (file, archive entry...) without completing the listener
+     * The stream is not closed
+     */
+    public static void readEvents(InputStream stream, Listener listener) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+        JournalReader reader = new JournalReader(in);
+        Event event;
+        while ((event = reader.next()) != null) {
+            listener.onEvent(event);
+        }
+    }
+    
+    /**
+     * Cut a record left half-written by a killed JVM, so a new session can be appended after it
+     * Everything from the first record that cannot be decoded on is removed
+     */
+    private static void truncateIncompleteRecord(Path journalFile) throws IOException {
+        if (!Files.exists(journalFile) || Files.size(journalFile) == 0) {
+            return;
+        }
+        long completeBytes = 0;
+        String reason = "an incomplete record";
+        try (CountingInputStream counter = new CountingInputStream(new BufferedInputStream(Files.newInputStream(journalFile), 1 << 16))) {
+            JournalReader reader = new JournalReader(new DataInputStream(counter));
+            while (reader.next() != null) {
+                completeBytes = counter.getCount();
+            }
+        } catch (IOException e) {
+            reason = "records that could not be decoded (" + e.getMessage() + ")";
+        }
+        if (completeBytes < Files.size(journalFile)) {
+            try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+                channel.truncate(completeBytes);
+            }
+            FrameworkLog.warn("⚠️ Warning: Removed " + reason + " at the end of " + journalFile);
+        }
+    }
+    
+    /**
+     * Counts the bytes consumed by the reader, which are record boundaries between events
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+        
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+        
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+        
+        long getCount() {
+            return count;
+        }
+    }
+    
+    /**
+     * Encodes events for one writer session
+     */
+    private static class JournalWriter implements Closeable {
+        private final FileOutputStream file;
+        private final DataOutputStream out;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private long lastEpochMillis;
+        private long lastNanoTime;
+        
+        JournalWriter(FileOutputStream file) {
+            this.file = file;
+            this.out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+        }
+        
+        void writeSessionHeader(String executionId, long pid) throws IOException {
+            writeHeader();
+            long now = System.nanoTime();
+            write(new Event(EventType.SESSION_START, System.currentTimeMillis(), now,
+                Thread.currentThread().getName(), null, executionId, null, pid));
+        }
+        
+        /**
+         * Header that resets the dictionary and time deltas, mirrored by JournalReader.startSession()
+         */
+        private void writeHeader() throws IOException {
+            out.writeByte(0);
+            out.writeInt(SESSION_MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            dictionary.clear();
+            lastEpochMillis = 0;
+            lastNanoTime = 0;
+        }
+        
+        void write(Event event) throws IOException {
+            if (dictionary.size() >= MAX_DICTIONARY_SIZE) {
+                writeHeader();
+            }
+            out.writeByte(event.getType().getCode());
+            writeVarLong(zigzag(event.getEpochMillis() - lastEpochMillis));
+            writeVarLong(zigzag(event.getNanoTime() - lastNanoTime));
+            lastEpochMillis = event.getEpochMillis();
+            lastNanoTime = event.getNanoTime();
+            writeString(event.getThread());
+            writeString(event.getTestId());
+            writeString(event.getName());
+            if (event.getType().hasInlineDetail()) {
+                writeInline(truncate(event.getDetail()));
+            } else {
+                writeString(truncate(event.getDetail()));
+            }
+            writeVarLong(zigzag(event.getValue()));
+            if (event.getType().hasSize()) {
+                writeVarLong(zigzag(event.getSize()));
+            }
+        }
+        
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            Integer index = dictionary.get(value);
+            if (index != null) {
+                writeVarLong(index + 2L);
+            } else {
+                writeVarLong(1);
+                out.writeUTF(value);
+                dictionary.put(value, dictionary.size());
+            }
+        }
+        
+        private void writeInline(String value) throws IOException {
+            if (value == null) {
+                writeVarLong(0);
+            } else {
+                writeVarLong(1);
+                out.writeUTF(value);
+            }
+        }
+        
+        private void writeVarLong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.writeByte((int) value);
+        }
+        
+        void flush() throws IOException {
+            out.flush();
+        }
+        
+        /**
+         * Flush and wait for the device, so the records survive a machine crash
+         */
+        void sync() throws IOException {
+            out.flush();
+            file.getFD().sync();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+    
+    /**
+     * Decodes events, mirroring JournalWriter
+     */
+    private static class JournalReader {
+        private final DataInputStream in;
+        private final List<String> dictionary = new ArrayList<>();
+        private long lastEpochMillis;
+        private long lastNanoTime;
+        
+        JournalReader(DataInputStream in) {
+            this.in = in;
+        }
+        
+        Event next() throws IOException {
+            try {
+                int code = in.read();
+                if (code < 0) {
+                    return null;
+                }
+                if (code == 0) {
+                    startSession();
+                    code = in.readUnsignedByte();
+                }
+                EventType type = EventType.fromCode(code);
+                long epochMillis = lastEpochMillis + unzigzag(readVarLong());
+                long nanoTime = lastNanoTime + unzigzag(readVarLong());
+                lastEpochMillis = epochMillis;
+                lastNanoTime = nanoTime;
+                String thread = readString();
+                String testId = readString();
+                String name = readString();
+                String detail = type.hasInlineDetail() ? readInline() : readString();
+                long value = unzigzag(readVarLong());
+                long size = type.hasSize() ? unzigzag(readVarLong()) : 0;
+                return new Event(type, epochMillis, nanoTime, thread, testId, name, detail, value, size);
+            } catch (EOFException e) {
+                return null;
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                // Unknown event type or dictionary reference, the bytes are not a record of this format
+                throw new IOException("Corrupt execution journal: " + e.getMessage(), e);
+            }
+        }
+        
+        private void startSession() throws IOException {
+            if (in.readInt() != SESSION_MAGIC) {
+                throw new IOException("Corrupt execution journal: bad session header");
+            }
+            int version = in.readUnsignedByte();
+            if (version < OLDEST_READABLE_VERSION || version > FORMAT_VERSION) {
+                throw new IOException("Unsupported execution journal version: " + version);
+            }
+            dictionary.clear();
+            lastEpochMillis = 0;
+            lastNanoTime = 0;
+        }
+        
+        private String readString() throws IOException {
+            long tag = readVarLong();
+            if (tag == 0) {
+                return null;
+            }
+            if (tag == 1) {
+                String value = in.readUTF();
+                dictionary.add(value);
+                return value;
+            }
+            return dictionary.get((int) (tag - 2));
+        }
+        
+        private String readInline() throws IOException {
+            return readVarLong() == 0 ? null : in.readUTF();
+        }
+        
+        private long readVarLong() throws IOException {
+            long result = 0;
+            int shift = 0;
+            while (true) {
+                int b = in.readUnsignedByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+                shift += 7;
+            }
+        }
+    }
+    
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    private static String truncate(String value) {
+        if (value == null || value.length() <= MAX_DETAIL_LENGTH) {
+            return value;
+        }
+        return value.substring(0, MAX_DETAIL_LENGTH);
+    }
+}
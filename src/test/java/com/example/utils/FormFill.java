@@ -0,0 +1,207 @@
+package com.example.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.InvalidElementStateException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+
+import java.util.*;
+
+/**
+ * Values for many form fields applied in a single executeScript round trip
+ * The field kind comes from the element: text inputs, password fields and textareas get the text,
+ * checkboxes and radio buttons are checked or unchecked, selects get the option with that visible text
+ * (or value). Each change is followed by the input and change events a user would trigger, and
+ * checkboxes and radio buttons are toggled with a click, so page scripts see the same events.
+ * verify() reads every field back in one DomQuery batch.
+ */
+public final class FormFill {
+    private static final String FILL_SCRIPT = DomQuery.FIND_ALL_SCRIPT + """
+        const notify = element => {
+            element.dispatchEvent(new Event('input', {bubbles: true}));
+            element.dispatchEvent(new Event('change', {bubbles: true}));
+        };
+        const setText = (element, text) => {
+            // The prototype setter keeps frameworks that intercept the value property in sync
+            const setter = Object.getOwnPropertyDescriptor(Object.getPrototypeOf(element), 'value')?.set;
+            if (setter) {
+                setter.call(element, text);
+            } else {
+                element.value = text;
+            }
+        };
+        const problems = [];
+        for (const field of arguments[0]) {
+            const element = findAll(field.using, field.value)[0];
+            if (!element) {
+                problems.push({label: field.label, missing: true, reason: 'not found'});
+                continue;
+            }
+            if (element.disabled || element.readOnly) {
+                problems.push({label: field.label, missing: false, reason: 'disabled or read-only'});
+                continue;
+            }
+            if (element.tagName === 'SELECT') {
+                const options = Array.from(element.options);
+                const option = options.find(candidate => candidate.text.trim() === String(field.input))
+                    || options.find(candidate => candidate.value === String(field.input));
+                if (!option) {
+                    problems.push({label: field.label, missing: false, reason: 'has no option ' + field.input});
+                } else if (!option.selected) {
+                    option.selected = true;
+                    notify(element);
+                }
+            } else if (element.type === 'checkbox' || element.type === 'radio') {
+                const checked = field.input === true;
+                if (element.checked !== checked && (checked || element.type === 'checkbox')) {
+                    element.click();
+                } else if (element.checked !== checked) {
+                    // Clicking a checked radio button does not uncheck it
+                    element.checked = false;
+                    notify(element);
+                }
+            } else {
+                element.focus();
+                setText(element, String(field.input));
+                notify(element);
+                element.blur();
+            }
+        }
+        return problems;
+        """;
+    
+    private final Map<By, Object> fields = new LinkedHashMap<>();
+    
+    private FormFill() {
+    }
+    
+    public static FormFill create() {
+        return new FormFill();
+    }
+    
+    /**
+     * Form with a value per field: a String for text fields and selects, a Boolean for checkboxes and radio buttons
+     */
+    public static FormFill of(Map<By, ?> values) {
+        FormFill form = new FormFill();
+        for (Map.Entry<By, ?> entry : values.entrySet()) {
+            if (entry.getValue() instanceof Boolean) {
+                form.field(entry.getKey(), (Boolean) entry.getValue());
+            } else {
+                form.field(entry.getKey(), String.valueOf(entry.getValue()));
+            }
+        }
+        return form;
+    }
+    
+    /**
+     * Text of an input or textarea, or the visible text (or value) of the option to select
+     */
+    public FormFill field(By locator, String value) {
+        return put(locator, value);
+    }
+    
+    /**
+     * Whether a checkbox or radio button ends up checked
+     */
+    public FormFill field(By locator, boolean checked) {
+        return put(locator, checked);
+    }
+    
+    public int size() {
+        return fields.size();
+    }
+    
+    private FormFill put(By locator, Object value) {
+        DomQuery.getRemoteParameters(locator, "Form field");
+        if (fields.containsKey(locator)) {
+            throw new IllegalArgumentException("Duplicate form field: " + locator);
+        }
+        fields.put(locator, value);
+        return this;
+    }
+    
+    /**
+     * Apply every value in the page or frame the driver is on, in one executeScript call
+     * Fields are filled in the order they were added. Fields that cannot be filled are reported together
+     * once the others are filled: NoSuchElementException when one is missing, InvalidElementStateException
+     * when one is disabled, read-only or lacks the option.
+     */
+    public void fill(WebDriver driver) {
+        List<Map<String, Object>> arguments = new ArrayList<>();
+        for (Map.Entry<By, Object> field : fields.entrySet()) {
+            By.Remotable.Parameters parameters = DomQuery.getRemoteParameters(field.getKey(), "Form field");
+            Map<String, Object> argument = new HashMap<>();
+            argument.put("label", String.valueOf(field.getKey()));
+            argument.put("using", parameters.using());
+            argument.put("value", String.valueOf(parameters.value()));
+            argument.put("input", field.getValue());
+            arguments.add(argument);
+        }
+        long start = System.nanoTime();
+        Object response = ((JavascriptExecutor) driver).executeScript(FILL_SCRIPT, arguments);
+        ExecutionJournal.span("Form fill (" + fields.size() + " fields)", "form-fill", start, 0);
+        
+        List<String> problems = new ArrayList<>();
+        boolean missing = false;
+        if (response instanceof List) {
+            for (Object entry : (List<?>) response) {
+                Map<?, ?> problem = (Map<?, ?>) entry;
+                problems.add(problem.get("label") + " " + problem.get("reason"));
+                missing |= Boolean.TRUE.equals(problem.get("missing"));
+            }
+        }
+        if (!problems.isEmpty()) {
+            String message = "Could not fill " + problems.size() + " of " + fields.size() + " form fields: " + String.join("; ", problems);
+            throw missing ? new NoSuchElementException(message) : new InvalidElementStateException(message);
+        }
+        FrameworkLog.info("📝 Filled " + fields.size() + " form fields in one command");
+    }
+    
+    /**
+     * Read every field back in one DomQuery batch and fail with all mismatches when a value did not stick
+     * e.g. because a page script reformatted or rejected it
+     */
+    public void verify(WebDriver driver) {
+        DomQuery query = DomQuery.create();
+        List<By> locators = new ArrayList<>(fields.keySet());
+        for (int i = 0; i < locators.size(); i++) {
+            By locator = locators.get(i);
+            if (fields.get(locator) instanceof Boolean) {
+                query.selected("selected" + i, locator);
+            } else {
+                query.value("value" + i, locator).selectedText("option" + i, locator);
+            }
+        }
+        DomQuery.Result result = query.run(driver);
+        
+        List<String> mismatches = new ArrayList<>();
+        for (int i = 0; i < locators.size(); i++) {
+            By locator = locators.get(i);
+            Object expected = fields.get(locator);
+            if (expected instanceof Boolean) {
+                if (!result.isFound("selected" + i)) {
+                    mismatches.add(locator + " not found");
+                } else if (result.getBoolean("selected" + i) != (Boolean) expected) {
+                    mismatches.add(locator + " is " + ((Boolean) expected ? "unchecked" : "checked"));
+                }
+                continue;
+            }
+            if (!result.isFound("value" + i)) {
+                mismatches.add(locator + " not found");
+                continue;
+            }
+            String value = result.getString("value" + i);
+            String option = result.getString("option" + i);
+            // Selects match on the option text or value, like fill() picked the option
+            if (!expected.equals(value) && !expected.equals(option)) {
+                mismatches.add(locator + " is '" + (option != null ? option : value) + "', expected '" + expected + "'");
+            }
+        }
+        if (!mismatches.isEmpty()) {
+            throw new AssertionError("Form fields do not hold the filled values: " + String.join("; ", mismatches));
+        }
+        FrameworkLog.info("📝 Verified " + fields.size() + " form fields");
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events emitted by the framework
+ * Steps, driver lifecycle, screenshots and report phases show up in JMC next to GC, I/O and thread activity.
+ * Without a running recording begin() and shouldCommit() are no-ops the JIT removes, and the event
+ * fields are only filled in when the event is actually committed, so tests pay next to nothing.
+ * Record with: mvn test -DargLine="-XX:StartFlightRecording=filename=target/framework.jfr"
+ */
+public final class FrameworkEvents {
+    private static final String CATEGORY = "Selenium Framework";
+    
+    private FrameworkEvents() {
+    }
+    
+    @Name("com.example.Step")
+    @Label("Test Step")
+    @Description("A step executed through SmartBaseTest.executeStep")
+    @Category({CATEGORY, "Steps"})
+    @StackTrace(false)
+    public static class StepEvent extends Event {
+        @Label("Test ID")
+        String testId;
+        
+        @Label("Step Name")
+        String stepName;
+        
+        @Label("Passed")
+        boolean passed;
+    }
+    
+    @Name("com.example.Driver")
+    @Label("WebDriver Lifecycle")
+    @Description("WebDriver session creation or shutdown")
+    @Category({CATEGORY, "WebDriver"})
+    @StackTrace(false)
+    public static class DriverEvent extends Event {
+        @Label("Action")
+        String action;
+        
+        @Label("Browser")
+        String browser;
+        
+        @Label("Test ID")
+        String testId;
+    }
+    
+    @Name("com.example.Screenshot")
+    @Label("Screenshot")
+    @Description("Screenshot taken from the browser (capture) or copied to the screenshots folder (write)")
+    @Category({CATEGORY, "Screenshots"})
+    @StackTrace(false)
+    public static class ScreenshotEvent extends Event {
+        @Label("Phase")
+        String phase;
+        
+        @Label("Test ID")
+        String testId;
+        
+        @Label("Step Name")
+        String stepName;
+        
+        @Label("Path")
+        String path;
+        
+        @Label("Size")
+        @DataAmount
+        long bytes;
+    }
+    
+    @Name("com.example.ReportPhase")
+    @Label("Report Phase")
+    @Description("One phase of HTML and result report generation")
+    @Category({CATEGORY, "Reports"})
+    @StackTrace(false)
+    public static class ReportPhaseEvent extends Event {
+        @Label("Phase")
+        String phase;
+        
+        @Label("Execution ID")
+        String executionId;
+        
+        @Label("Size")
+        @DataAmount
+        long bytes;
+    }
+    
+    public static StepEvent beginStep() {
+        StepEvent event = new StepEvent();
+        event.begin();
+        return event;
+    }
+    
+    public static void commitStep(StepEvent event, String stepName, boolean passed) {
+        if (event.shouldCommit()) {
+            event.testId = ExecutionJournal.getCurrentTestId();
+            event.stepName = stepName;
+            event.passed = passed;
+            event.commit();
+        }
+    }
+    
+    public static DriverEvent beginDriver() {
+        DriverEvent event = new DriverEvent();
+        event.begin();
+        return event;
+    }
+    
+    public static void commitDriver(DriverEvent event, String action, String browser) {
+        if (event.shouldCommit()) {
+            event.action = action;
+            event.browser = browser;
+            event.testId = ExecutionJournal.getCurrentTestId();
+            event.commit();
+        }
+    }
+    
+    public static ScreenshotEvent beginScreenshot() {
+        ScreenshotEvent event = new ScreenshotEvent();
+        event.begin();
+        return event;
+    }
+    
+    public static void commitScreenshot(ScreenshotEvent event, String phase, String stepName, String path, long bytes) {
+        if (event.shouldCommit()) {
+            event.phase = phase;
+            event.testId = ExecutionJournal.getCurrentTestId();
+            event.stepName = stepName;
+            event.path = path;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+    
+    public static ReportPhaseEvent beginReportPhase() {
+        ReportPhaseEvent event = new ReportPhaseEvent();
+        event.begin();
+        return event;
+    }
+    
+    public static void commitReportPhase(ReportPhaseEvent event, String phase, long bytes) {
+        if (event.shouldCommit()) {
+            event.phase = phase;
+            event.executionId = ExecutionIdManager.getCurrentExecutionId();
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.utils;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous framework log, used instead of System.out/err.println
+ * Logging threads claim a slot in a fixed-size ring with a single atomic increment and never take the
+ * console lock; one background thread drains the ring in order and hands every line to the sinks.
+ * Verbosity is set with -Dlog.level=quiet|normal|verbose (default normal): quiet keeps warnings and
+ * errors, verbose adds debug lines. Messages passed as a Supplier are only built when they will be used.
+ * Lines logged during a test are also captured into the execution journal (-Dlog.capture, default true),
+ * at normal verbosity even when the console is quiet, and the report attaches them to failed tests.
+ */
+public final class FrameworkLog {
+    private static final String LEVEL_PROPERTY = "log.level";
+    private static final String CAPTURE_PROPERTY = "log.capture";
+    private static final String BUFFER_SIZE_PROPERTY = "log.bufferSize";
+    private static final String CAPTURE_LINES_PROPERTY = "log.capture.lines";
+    
+    // Last captured lines kept per test by the report and the JUnit XML export
+    public static final int CAPTURED_LINES_PER_TEST = Integer.getInteger(CAPTURE_LINES_PROPERTY, 200);
+    
+    private static final int CAPACITY = Integer.highestOneBit(Math.max(64, Integer.getInteger(BUFFER_SIZE_PROPERTY, 8192)));
+    private static final int MASK = CAPACITY - 1;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS", Locale.ROOT)
+        .withZone(ZoneId.systemDefault());
+    
+    private static final Level consoleLevel = Level.fromProperty(System.getProperty(LEVEL_PROPERTY, "normal"));
+    private static final boolean captureEnabled = Boolean.parseBoolean(System.getProperty(CAPTURE_PROPERTY, "true"));
+    private static final Level captureLevel = consoleLevel.compareTo(Level.INFO) > 0 ? consoleLevel : Level.INFO;
+    
+    private static final AtomicReferenceArray<Entry> slots = new AtomicReferenceArray<>(CAPACITY);
+    // Next sequence to claim, and next sequence the drainer will hand to the sinks
+    private static final AtomicLong claimed = new AtomicLong();
+    private static final AtomicLong drained = new AtomicLong();
+    private static final List<Sink> sinks = new CopyOnWriteArrayList<>(List.of(new ConsoleSink(), new JournalSink()));
+    
+    private static volatile boolean drainerIdle;
+    private static volatile Thread drainerThread;
+    
+    private FrameworkLog() {
+    }
+    
+    /**
+     * Log levels, from the most to the least important
+     */
+    public enum Level {
+        ERROR,
+        WARN,
+        INFO,
+        DEBUG;
+        
+        /**
+         * Parse quiet/normal/verbose, or a level name
+         */
+        static Level fromProperty(String value) {
+            switch (value.trim().toLowerCase(Locale.ROOT)) {
+                case "quiet":
+                    return WARN;
+                case "normal":
+                    return INFO;
+                case "verbose":
+                    return DEBUG;
+                default:
+                    try {
+                        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+                    } catch (IllegalArgumentException e) {
+                        System.err.println("⚠️ Warning: Unknown log level '" + value + "', using normal");
+                        return INFO;
+                    }
+            }
+        }
+    }
+    
+    /**
+     * One log line, stamped on the logging thread
+     */
+    public static class Entry {
+        private final Level level;
+        private final long epochMillis;
+        private final long nanoTime;
+        private final String thread;
+        private final String testId;
+        private final String message;
+        
+        Entry(Level level, long epochMillis, long nanoTime, String thread, String testId, String message) {
+            this.level = level;
+            this.epochMillis = epochMillis;
+            this.nanoTime = nanoTime;
+            this.thread = thread;
+            this.testId = testId;
+            this.message = message;
+        }
+        
+        public Level getLevel() { return level; }
+        public long getEpochMillis() { return epochMillis; }
+        public long getNanoTime() { return nanoTime; }
+        public String getThread() { return thread; }
+        public String getTestId() { return testId; }
+        public String getMessage() { return message; }
+    }
+    
+    /**
+     * Destination of log lines
+     * Sinks run on the drainer thread only, one line at a time and in logging order
+     */
+    public interface Sink {
+        void write(Entry entry);
+    }
+    
+    /**
+     * Writes lines enabled by -Dlog.level to the console, warnings and errors to stderr
+     */
+    private static class ConsoleSink implements Sink {
+        @Override
+        public void write(Entry entry) {
+            if (entry.getLevel().compareTo(consoleLevel) > 0) {
+                return;
+            }
+            if (entry.getLevel().compareTo(Level.WARN) <= 0) {
+                System.err.println(entry.getMessage());
+            } else {
+                System.out.println(entry.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Captures the lines logged during a test into the execution journal
+     */
+    private static class JournalSink implements Sink {
+        @Override
+        public void write(Entry entry) {
+            if (captureEnabled && entry.getTestId() != null && entry.getLevel().compareTo(captureLevel) <= 0) {
+                ExecutionJournal.log(entry.getTestId(), entry.getThread(), entry.getEpochMillis(), entry.getNanoTime(),
+                    entry.getLevel().name(), entry.getMessage());
+            }
+        }
+    }
+    
+    public static void error(String message) { log(Level.ERROR, message); }
+    public static void warn(String message) { log(Level.WARN, message); }
+    public static void info(String message) { log(Level.INFO, message); }
+    public static void debug(String message) { log(Level.DEBUG, message); }
+    
+    public static void error(Supplier<String> message) { log(Level.ERROR, message); }
+    public static void warn(Supplier<String> message) { log(Level.WARN, message); }
+    public static void info(Supplier<String> message) { log(Level.INFO, message); }
+    public static void debug(Supplier<String> message) { log(Level.DEBUG, message); }
+    
+    public static void log(Level level, String message) {
+        if (isEnabled(level)) {
+            publish(level, message);
+        }
+    }
+    
+    /**
+     * Log a message built only when the level is enabled for the console or the test capture
+     */
+    public static void log(Level level, Supplier<String> message) {
+        if (isEnabled(level)) {
+            publish(level, message.get());
+        }
+    }
+    
+    /**
+     * Whether a line at this level would reach the console or the capture of the current test
+     */
+    public static boolean isEnabled(Level level) {
+        if (level.compareTo(consoleLevel) <= 0) {
+            return true;
+        }
+        return captureEnabled && level.compareTo(captureLevel) <= 0 && ExecutionJournal.getCurrentTestId() != null;
+    }
+    
+    public static Level getConsoleLevel() {
+        return consoleLevel;
+    }
+    
+    public static void addSink(Sink sink) {
+        sinks.add(sink);
+    }
+    
+    public static void removeSink(Sink sink) {
+        sinks.remove(sink);
+    }
+    
+    /**
+     * Format a captured line for reports, e.g. "14:03:27.512 INFO  [main] message"
+     */
+    public static String formatLine(long epochMillis, String thread, String level, String message) {
+        return String.format(Locale.ROOT, "%s %-5s [%s] %s", TIME_FORMAT.format(Instant.ofEpochMilli(epochMillis)), level, thread, message);
+    }
+    
+    private static void publish(Level level, String message) {
+        Thread current = Thread.currentThread();
+        Entry entry = new Entry(level, System.currentTimeMillis(), System.nanoTime(), current.getName(),
+            ExecutionJournal.getCurrentTestId(), message);
+        if (current == drainerThread) {
+            // A sink logging about itself must not wait for its own thread
+            deliver(entry);
+            return;
+        }
+        ensureDrainerStarted();
+        long sequence = claimed.getAndIncrement();
+        // Only waits when the drainer is CAPACITY lines behind, lines are never dropped
+        while (sequence - drained.get() >= CAPACITY) {
+            LockSupport.unpark(drainerThread);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        slots.set((int) (sequence & MASK), entry);
+        if (drainerIdle) {
+            LockSupport.unpark(drainerThread);
+        }
+    }
+    
+    // ---------------------------------------------------------------------
+    // Background drainer
+    // ---------------------------------------------------------------------
+    
+    private static void ensureDrainerStarted() {
+        if (drainerThread == null) {
+            synchronized (FrameworkLog.class) {
+                if (drainerThread == null) {
+                    Thread thread = new Thread(FrameworkLog::drainLoop, "framework-log-drainer");
+                    thread.setDaemon(true);
+                    drainerThread = thread;
+                    thread.start();
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                        flush();
+                        ExecutionJournal.flush();
+                    }, "framework-log-flush"));
+                }
+            }
+        }
+    }
+    
+    private static void drainLoop() {
+        long next = 0;
+        while (true) {
+            int index = (int) (next & MASK);
+            Entry entry = slots.get(index);
+            if (entry == null) {
+                drainerIdle = true;
+                // Checked again after raising the flag, so a line published meanwhile is not left waiting
+                if (slots.get(index) == null) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                drainerIdle = false;
+                continue;
+            }
+            deliver(entry);
+            slots.set(index, null);
+            drained.lazySet(++next);
+        }
+    }
+    
+    private static void deliver(Entry entry) {
+        for (Sink sink : sinks) {
+            try {
+                sink.write(entry);
+            } catch (RuntimeException e) {
+                System.err.println("⚠️ Warning: Log sink failed: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Block until every line logged so far has been handed to the sinks
+     * Called before the journal is replayed and when the JVM exits
+     */
+    public static void flush() {
+        Thread drainer = drainerThread;
+        if (drainer == null || Thread.currentThread() == drainer) {
+            return;
+        }
+        long target = claimed.get();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (drained.get() < target && drainer.isAlive()) {
+            if (System.nanoTime() - deadline > 0) {
+                System.err.println("⚠️ Warning: Timed out flushing framework log");
+                return;
+            }
+            LockSupport.unpark(drainer);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+    }
+}
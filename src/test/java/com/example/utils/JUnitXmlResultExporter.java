@@ -0,0 +1,158 @@
+package com.example.utils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Streams test results in JUnit XML format while the journal is replayed
+ * JUnit XML needs the totals on the testsuite element, so testcases are streamed to a
+ * temporary body file and the final document is assembled by copying it after the header.
+ * Step timings and artifact references go to system-out, artifacts use the [[ATTACHMENT|path]] convention.
+ * Failed tests also get the log captured while they ran in system-err.
+ * Retried attempts use the surefire elements: flakyFailure/flakyError in a test that passed in the end,
+ * rerunFailure/rerunError in one that kept failing.
+ */
+public class JUnitXmlResultExporter extends StreamingResultExporter {
+    private final Path outputFile;
+    private final Path bodyFile;
+    private final Writer body;
+    
+    public JUnitXmlResultExporter(Path outputFile) throws IOException {
+        this.outputFile = outputFile;
+        Files.createDirectories(outputFile.toAbsolutePath().getParent());
+        this.bodyFile = outputFile.resolveSibling(outputFile.getFileName() + ".part");
+        this.body = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(bodyFile), StandardCharsets.UTF_8), 1 << 16);
+    }
+    
+    @Override
+    protected void writeTest(CompletedTest test) {
+        try {
+            body.write("    <testcase name=\"" + escape(test.displayName) + "\" classname=\"" + escape(test.className)
+                + "\" time=\"" + formatSeconds(test.durationNanos) + "\">\n");
+            
+            FailureResult failure = test.getPrimaryFailure();
+            if ("ABORTED".equals(test.status) || "INCOMPLETE".equals(test.status)) {
+                body.write("      <skipped message=\"" + escape(test.status) + "\"/>\n");
+            } else if (test.isFailed()) {
+                String element = failure != null && !failure.isAssertion() ? "error" : "failure";
+                String type = failure != null ? failure.exceptionType : "Unknown";
+                String message = failure != null ? failure.message : "";
+                String step = failure != null ? failure.stepName : "Unknown";
+                body.write("      <" + element + " message=\"" + escape(message) + "\" type=\"" + escape(type) + "\">"
+                    + escape("Failure step: " + step + "\n" + type + ": " + message) + "</" + element + ">\n");
+            }
+            for (CompletedTest attempt : test.previousAttempts) {
+                writeRetriedAttempt(attempt, test.isFailed() ? "rerun" : "flaky");
+            }
+            
+            body.write("      <properties>\n");
+            body.write("        <property name=\"testId\" value=\"" + escape(test.id) + "\"/>\n");
+            if (test.getAttempts() > 1) {
+                body.write("        <property name=\"attempts\" value=\"" + test.getAttempts() + "\"/>\n");
+            }
+            if (test.isCached()) {
+                body.write("        <property name=\"cachedFrom\" value=\"" + escape(test.cachedFrom) + "\"/>\n");
+            }
+            if (failure != null) {
+                body.write("        <property name=\"failureStep\" value=\"" + escape(failure.stepName) + "\"/>\n");
+            }
+            body.write("      </properties>\n");
+            
+            body.write("      <system-out><![CDATA[");
+            for (StepResult step : test.steps) {
+                body.write(cdata(String.format("%s %s %s ms%n", step.passed ? "PASSED" : "FAILED", step.name, formatMillis(step.durationNanos))));
+            }
+            for (BudgetResult budget : test.budgetViolations) {
+                body.write(cdata(String.format("BUDGET %s %s%n", budget.stepName, budget.message)));
+            }
+            for (ArtifactResult artifact : test.artifacts) {
+                body.write(cdata("[[ATTACHMENT|" + artifact.path + "]]" + System.lineSeparator()));
+            }
+            body.write("]]></system-out>\n");
+            if ((test.isFailed() || !test.budgetViolations.isEmpty()) && !test.logLines.isEmpty()) {
+                body.write("      <system-err><![CDATA[");
+                for (String line : test.logLines) {
+                    body.write(cdata(line + System.lineSeparator()));
+                }
+                body.write("]]></system-err>\n");
+            }
+            body.write("    </testcase>\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write JUnit XML results to " + outputFile, e);
+        }
+    }
+    
+    private void writeRetriedAttempt(CompletedTest attempt, String prefix) throws IOException {
+        FailureResult failure = attempt.getPrimaryFailure();
+        String element = prefix + (failure != null && !failure.isAssertion() ? "Error" : "Failure");
+        String type = failure != null ? failure.exceptionType : "Unknown";
+        String message = failure != null ? failure.message : "";
+        body.write("      <" + element + " message=\"" + escape(message) + "\" type=\"" + escape(type) + "\" time=\""
+            + formatSeconds(attempt.durationNanos) + "\">" + escape("Failure step: " + (failure != null ? failure.stepName : "Unknown")
+            + "\n" + type + ": " + message) + "</" + element + ">\n");
+    }
+    
+    @Override
+    protected void writeFooter() {
+        try {
+            body.close();
+            String timestamp = DateTimeFormatter.ISO_LOCAL_DATE_TIME
+                .format(Instant.ofEpochMilli(getStartEpochMillis()).atOffset(ZoneOffset.UTC).toLocalDateTime());
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(outputFile))) {
+                String header = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                    + "<testsuites name=\"" + escape(getExecutionId()) + "\" tests=\"" + getTotalTests()
+                    + "\" failures=\"" + getFailedTests() + "\" errors=\"" + getErroredTests()
+                    + "\" skipped=\"" + getSkippedTests() + "\" time=\"" + formatSeconds(getWallClockMillis() * 1_000_000L) + "\">\n"
+                    + "  <testsuite name=\"" + escape(getExecutionId()) + "\" tests=\"" + getTotalTests()
+                    + "\" failures=\"" + getFailedTests() + "\" errors=\"" + getErroredTests()
+                    + "\" skipped=\"" + getSkippedTests() + "\" time=\"" + formatSeconds(getTotalDurationNanos())
+                    + "\" timestamp=\"" + timestamp + "\">\n";
+                out.write(header.getBytes(StandardCharsets.UTF_8));
+                Files.copy(bodyFile, out);
+                out.write("  </testsuite>\n</testsuites>\n".getBytes(StandardCharsets.UTF_8));
+            }
+            Files.deleteIfExists(bodyFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write JUnit XML results to " + outputFile, e);
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        body.close();
+        Files.deleteIfExists(bodyFile);
+    }
+    
+    /**
+     * Escape attribute and text content, dropping characters XML 1.0 does not allow
+     */
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<': escaped.append("&lt;"); break;
+                case '>': escaped.append("&gt;"); break;
+                case '&': escaped.append("&amp;"); break;
+                case '"': escaped.append("&quot;"); break;
+                case '\n': escaped.append("&#10;"); break;
+                default:
+                    if (c >= 0x20 || c == '\t' || c == '\r') {
+                        escaped.append(c);
+                    }
+            }
+        }
+        return escaped.toString();
+    }
+    
+    private static String cdata(String value) {
+        return value.replace("]]>", "]]]]><![CDATA[>");
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.utils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * Streams test results as JSON while the journal is replayed
+ * Layout: {"executionId": ..., "tests": [ ... one object per test ... ], "summary": { ... }}
+ * Tests are appended as they finish and the summary is written last, so nothing is held in memory.
+ */
+public class JsonResultExporter extends StreamingResultExporter {
+    private final Path outputFile;
+    private final Writer writer;
+    private boolean headerWritten = false;
+    private boolean firstTest = true;
+    
+    public JsonResultExporter(Path outputFile) throws IOException {
+        this.outputFile = outputFile;
+        Files.createDirectories(outputFile.toAbsolutePath().getParent());
+        this.writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(outputFile), StandardCharsets.UTF_8), 1 << 16);
+    }
+    
+    @Override
+    protected void writeTest(CompletedTest test) {
+        try {
+            writeHeaderIfNeeded();
+            writer.write(firstTest ? "\n    " : ",\n    ");
+            firstTest = false;
+            
+            writer.write("{\"id\": " + quote(test.id));
+            writer.write(", \"name\": " + quote(test.displayName));
+            writer.write(", \"className\": " + quote(test.className));
+            writer.write(", \"methodName\": " + quote(test.methodName));
+            writer.write(", \"status\": " + quote(test.status));
+            writer.write(", \"startTime\": " + test.startEpochMillis);
+            writer.write(", \"durationMs\": " + formatMillis(test.durationNanos));
+            if (test.getAttempts() > 1) {
+                writer.write(", \"attempts\": " + test.getAttempts());
+                writer.write(", \"flaky\": " + test.isFlaky());
+            }
+            if (test.isCached()) {
+                writer.write(", \"cachedFrom\": " + quote(test.cachedFrom));
+            }
+            
+            FailureResult primaryFailure = test.getPrimaryFailure();
+            if (primaryFailure != null) {
+                writer.write(", \"failureStep\": " + quote(primaryFailure.stepName));
+                writer.write(", \"exceptionType\": " + quote(primaryFailure.exceptionType));
+                writer.write(", \"failureMessage\": " + quote(primaryFailure.message));
+            }
+            
+            writer.write(",\n     \"steps\": [");
+            for (int i = 0; i < test.steps.size(); i++) {
+                StepResult step = test.steps.get(i);
+                writer.write(i == 0 ? "" : ", ");
+                writer.write("{\"name\": " + quote(step.name)
+                    + ", \"status\": " + quote(step.passed ? "PASSED" : "FAILED")
+                    + ", \"durationMs\": " + formatMillis(step.durationNanos) + "}");
+            }
+            writer.write("],\n     \"failures\": [");
+            for (int i = 0; i < test.failures.size(); i++) {
+                FailureResult failure = test.failures.get(i);
+                writer.write(i == 0 ? "" : ", ");
+                writer.write("{\"step\": " + quote(failure.stepName)
+                    + ", \"exceptionType\": " + quote(failure.exceptionType)
+                    + ", \"message\": " + quote(failure.message) + "}");
+            }
+            writer.write("],\n     \"artifacts\": [");
+            for (int i = 0; i < test.artifacts.size(); i++) {
+                ArtifactResult artifact = test.artifacts.get(i);
+                writer.write(i == 0 ? "" : ", ");
+                writer.write("{\"step\": " + quote(artifact.stepName)
+                    + ", \"path\": " + quote(artifact.path)
+                    + ", \"bytes\": " + artifact.sizeBytes + "}");
+            }
+            if (!test.previousAttempts.isEmpty()) {
+                writer.write("],\n     \"previousAttempts\": [");
+                for (int i = 0; i < test.previousAttempts.size(); i++) {
+                    CompletedTest attempt = test.previousAttempts.get(i);
+                    FailureResult failure = attempt.getPrimaryFailure();
+                    writer.write(i == 0 ? "" : ", ");
+                    writer.write("{\"durationMs\": " + formatMillis(attempt.durationNanos)
+                        + ", \"failureStep\": " + quote(failure != null ? failure.stepName : null)
+                        + ", \"exceptionType\": " + quote(failure != null ? failure.exceptionType : null)
+                        + ", \"message\": " + quote(failure != null ? failure.message : null) + "}");
+                }
+            }
+            writer.write("],\n     \"budgetViolations\": [");
+            for (int i = 0; i < test.budgetViolations.size(); i++) {
+                BudgetResult budget = test.budgetViolations.get(i);
+                writer.write(i == 0 ? "" : ", ");
+                writer.write("{\"step\": " + quote(budget.stepName)
+                    + ", \"message\": " + quote(budget.message)
+                    + ", \"measured\": " + budget.measured
+                    + ", \"limit\": " + budget.limit + "}");
+            }
+            writer.write("]}");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write JSON results to " + outputFile, e);
+        }
+    }
+    
+    @Override
+    protected void writeFooter() {
+        try {
+            writeHeaderIfNeeded();
+            writer.write("\n  ],\n  \"summary\": {");
+            writer.write("\"total\": " + getTotalTests());
+            writer.write(", \"passed\": " + (getTotalTests() - getFailedTests() - getErroredTests() - getSkippedTests()));
+            writer.write(", \"failed\": " + getFailedTests());
+            writer.write(", \"errors\": " + getErroredTests());
+            writer.write(", \"skipped\": " + getSkippedTests());
+            writer.write(", \"flaky\": " + getFlakyTests());
+            writer.write(", \"cached\": " + getCachedTests());
+            writer.write(", \"testTimeMs\": " + formatMillis(getTotalDurationNanos()));
+            writer.write(", \"wallClockMs\": " + getWallClockMillis());
+            writer.write("}\n}\n");
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write JSON results to " + outputFile, e);
+        }
+    }
+    
+    private void writeHeaderIfNeeded() throws IOException {
+        if (!headerWritten) {
+            writer.write("{\n  \"executionId\": " + quote(getExecutionId()) + ",\n  \"tests\": [");
+            headerWritten = true;
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+    
+    /**
+     * Quote and escape a JSON string value
+     */
+    static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': quoted.append("\\\""); break;
+                case '\\': quoted.append("\\\\"); break;
+                case '\n': quoted.append("\\n"); break;
+                case '\r': quoted.append("\\r"); break;
+                case '\t': quoted.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size log-linear latency histogram in the style of HdrHistogram
+ * Values below 128 get exact buckets; every power-of-two range above that is split into 64 linear
+ * sub-buckets, so any reported percentile is within 1/64 (about 1.6%) of the recorded value.
+ * Recording is a few shifts and an atomic increment: no locks and no allocation per sample,
+ * and it is safe to record from parallel test threads.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+    // Shifts 1..56 cover every positive long
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS) * SUB_BUCKET_HALF;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalValue = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+    
+    /**
+     * Record one value, negative values are recorded as zero
+     */
+    public void record(long value) {
+        long clamped = Math.max(0, value);
+        counts.incrementAndGet(bucketIndex(clamped));
+        totalCount.incrementAndGet();
+        totalValue.addAndGet(clamped);
+        long currentMax = maxValue.get();
+        while (clamped > currentMax && !maxValue.compareAndSet(currentMax, clamped)) {
+            currentMax = maxValue.get();
+        }
+    }
+    
+    public long getCount() {
+        return totalCount.get();
+    }
+    
+    public long getMax() {
+        return maxValue.get();
+    }
+    
+    public long getTotal() {
+        return totalValue.get();
+    }
+    
+    public long getMean() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : totalValue.get() / count;
+    }
+    
+    /**
+     * Value at the given percentile (0-100), reported as the upper bound of its bucket and never above the max
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long targetRank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= targetRank) {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+    
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_HALF;
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF + subBucket;
+    }
+    
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF + 1;
+        long top = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        return ((top + 1) << shift) - 1;
+    }
+}
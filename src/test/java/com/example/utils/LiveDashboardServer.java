@@ -0,0 +1,303 @@
+package com.example.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional local dashboard that streams execution journal events to a browser with server-sent events
+ * Enabled with -Ddashboard.port=8765, binds to the loopback interface only.
+ * Events are fanned out from the journal writer thread into a bounded queue per client: progress events
+ * are sampled once a client falls behind and a client whose queue fills up is disconnected, so a slow
+ * browser can never stall the writer or the tests.
+ * Every event carries a sequence number as its SSE id. A reconnecting page is sent the recent history again
+ * and skips the events it already applied, so rows and counters are not duplicated.
+ */
+public class LiveDashboardServer {
+    private static final String PORT_PROPERTY = "dashboard.port";
+    private static final String SCREENSHOT_DIR = "target/screenshots";
+    private static final int CLIENT_QUEUE_CAPACITY = 1024;
+    private static final int RECENT_EVENTS_CAPACITY = 500;
+    private static final long HEARTBEAT_SECONDS = 15;
+    
+    private static final List<Client> clients = new CopyOnWriteArrayList<>();
+    private static final Deque<String> recentEvents = new ArrayDeque<>(RECENT_EVENTS_CAPACITY);
+    private static final AtomicLong sequence = new AtomicLong();
+    private static HttpServer server;
+    
+    /**
+     * Connected browser with its own bounded event queue
+     */
+    private static class Client {
+        private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(CLIENT_QUEUE_CAPACITY);
+        private volatile boolean disconnected = false;
+    }
+    
+    /**
+     * Start the dashboard if dashboard.port is set, safe to call from every test class
+     */
+    public static synchronized void startIfEnabled() {
+        if (server != null) {
+            return;
+        }
+        String portValue = System.getProperty(PORT_PROPERTY);
+        if (portValue == null || portValue.isBlank()) {
+            return;
+        }
+        
+        try {
+            int port = Integer.parseInt(portValue.trim());
+            HttpServer httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            httpServer.createContext("/", LiveDashboardServer::handlePage);
+            httpServer.createContext("/events", LiveDashboardServer::handleEvents);
+            httpServer.createContext("/screenshots/", LiveDashboardServer::handleScreenshot);
+            httpServer.setExecutor(Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "live-dashboard");
+                thread.setDaemon(true);
+                return thread;
+            }));
+            httpServer.start();
+            server = httpServer;
+            
+            ExecutionJournal.addLiveListener(LiveDashboardServer::publish);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> httpServer.stop(0), "live-dashboard-shutdown"));
+            FrameworkLog.info("📡 Live dashboard: http://localhost:" + httpServer.getAddress().getPort() + "/");
+        } catch (NumberFormatException | IOException e) {
+            FrameworkLog.warn("⚠️ Warning: Live dashboard not started: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Fan an event out to every client, called on the journal writer thread so it never blocks
+     */
+    private static void publish(ExecutionJournal.Event event) {
+        // Per-command traces, DOM query results and captured log lines are far too chatty for the page, they are only used by the report
+        if (event.getType() == ExecutionJournal.EventType.COMMAND || event.getType() == ExecutionJournal.EventType.LOG
+            || event.getType() == ExecutionJournal.EventType.QUERY) {
+            return;
+        }
+        String message = "id: " + sequence.incrementAndGet() + "\ndata: " + toJson(event) + "\n\n";
+        boolean progressOnly = event.getType() == ExecutionJournal.EventType.STEP_START;
+        
+        synchronized (recentEvents) {
+            if (recentEvents.size() == RECENT_EVENTS_CAPACITY) {
+                recentEvents.removeFirst();
+            }
+            recentEvents.addLast(message);
+        }
+        
+        for (Client client : clients) {
+            // Behind by more than half the queue: keep results, drop step-start progress
+            if (progressOnly && client.queue.remainingCapacity() < CLIENT_QUEUE_CAPACITY / 2) {
+                continue;
+            }
+            if (!client.queue.offer(message)) {
+                client.disconnected = true;
+                clients.remove(client);
+            }
+        }
+    }
+    
+    private static void handleEvents(HttpExchange exchange) throws IOException {
+        Client client = new Client();
+        synchronized (recentEvents) {
+            // Replay recent history so a page opened mid-run is not empty
+            for (String message : recentEvents) {
+                client.queue.offer(message);
+            }
+            clients.add(client);
+        }
+        
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(("retry: 2000\n\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            while (!client.disconnected) {
+                String message = client.queue.poll(HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+                if (message == null) {
+                    out.write(": ping\n\n".getBytes(StandardCharsets.UTF_8));
+                } else {
+                    StringBuilder pending = new StringBuilder(message);
+                    // Coalesce whatever queued up meanwhile into a single write
+                    for (String next = client.queue.poll(); next != null; next = client.queue.poll()) {
+                        pending.append(next);
+                    }
+                    out.write(pending.toString().getBytes(StandardCharsets.UTF_8));
+                }
+                out.flush();
+            }
+            // Tell the page it was dropped for falling behind; EventSource reconnects and replays recent history
+            out.write("event: dropped\ndata: {}\n\n".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // Browser closed the connection
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            clients.remove(client);
+            exchange.close();
+        }
+    }
+    
+    private static void handleScreenshot(HttpExchange exchange) throws IOException {
+        String fileName = exchange.getRequestURI().getPath().substring("/screenshots/".length());
+        Path screenshot = Paths.get(SCREENSHOT_DIR).resolve(fileName).normalize();
+        // Only plain file names inside the screenshot directory are served
+        if (fileName.contains("/") || !screenshot.startsWith(Paths.get(SCREENSHOT_DIR)) || !Files.isRegularFile(screenshot)) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "image/png");
+        exchange.sendResponseHeaders(200, Files.size(screenshot));
+        try (OutputStream out = exchange.getResponseBody()) {
+            Files.copy(screenshot, out);
+        }
+    }
+    
+    private static void handlePage(HttpExchange exchange) throws IOException {
+        if (!"/".equals(exchange.getRequestURI().getPath())) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        byte[] page = PAGE.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(200, page.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(page);
+        }
+    }
+    
+    private static String toJson(ExecutionJournal.Event event) {
+        return "{\"type\": " + JsonResultExporter.quote(event.getType().name())
+            + ", \"time\": " + event.getEpochMillis()
+            + ", \"thread\": " + JsonResultExporter.quote(event.getThread())
+            + ", \"testId\": " + JsonResultExporter.quote(event.getTestId())
+            + ", \"name\": " + JsonResultExporter.quote(event.getName())
+            + ", \"detail\": " + JsonResultExporter.quote(event.getDetail())
+            + ", \"value\": " + event.getValue() + "}";
+    }
+    
+    private static final String PAGE = """
+        <!DOCTYPE html>
+        <html lang="en">
+        <head>
+            <meta charset="UTF-8">
+            <title>Live Test Dashboard</title>
+            <style>
+                body { font-family: Arial, sans-serif; margin: 20px; background: #f5f5f5; }
+                h2 { color: #333; margin-top: 24px; }
+                .summary span { display: inline-block; margin-right: 20px; font-size: 18px; }
+                table { border-collapse: collapse; width: 100%; background: white; }
+                th, td { text-align: left; padding: 6px 10px; border-bottom: 1px solid #eee; font-size: 13px; }
+                .passed { color: #28a745; } .failed { color: #dc3545; } .running { color: #007bff; }
+                .shots img { max-height: 120px; margin: 4px; border: 1px solid #ddd; }
+                #status { color: #666; font-size: 12px; }
+            </style>
+        </head>
+        <body>
+            <h1>🧪 Live Test Dashboard</h1>
+            <div id="status">Connecting...</div>
+            <div class="summary">
+                <span>Running: <b id="running">0</b></span>
+                <span class="passed">Passed: <b id="passed">0</b></span>
+                <span class="failed">Failed: <b id="failed">0</b></span>
+            </div>
+            <h2>Tests</h2>
+            <table><thead><tr><th>Test</th><th>Status</th><th>Current step</th><th>Duration</th></tr></thead><tbody id="tests"></tbody></table>
+            <h2>Failures</h2>
+            <table><tbody id="failures"></tbody></table>
+            <h2>Screenshots</h2>
+            <div class="shots" id="shots"></div>
+            <script>
+                const tests = new Map();
+                const counts = { passed: 0, failed: 0 };
+                // Sequence number of the last event applied, replayed history below it is skipped
+                let lastSequence = 0;
+                const text = value => document.createTextNode(value == null ? '' : value);
+                function row(id) {
+                    let test = tests.get(id);
+                    if (!test) {
+                        const tr = document.createElement('tr');
+                        for (let i = 0; i < 4; i++) tr.appendChild(document.createElement('td'));
+                        document.getElementById('tests').prepend(tr);
+                        test = { tr: tr, name: id, status: 'RUNNING' };
+                        tests.set(id, test);
+                    }
+                    return test;
+                }
+                function cell(test, index, value, css) {
+                    const td = test.tr.children[index];
+                    td.textContent = value;
+                    if (css) td.className = css;
+                }
+                function refresh() {
+                    let running = 0;
+                    tests.forEach(test => { if (test.status === 'RUNNING') running++; });
+                    document.getElementById('running').textContent = running;
+                    document.getElementById('passed').textContent = counts.passed;
+                    document.getElementById('failed').textContent = counts.failed;
+                }
+                const source = new EventSource('/events');
+                source.onopen = () => document.getElementById('status').textContent = 'Connected';
+                source.onerror = () => document.getElementById('status').textContent = 'Disconnected, retrying...';
+                source.addEventListener('dropped', () => {
+                    document.getElementById('status').textContent = 'Fell behind, reconnecting...';
+                });
+                source.onmessage = message => {
+                    const sequence = Number(message.lastEventId);
+                    if (sequence <= lastSequence) return;
+                    lastSequence = sequence;
+                    const e = JSON.parse(message.data);
+                    if (e.type === 'TEST_START') {
+                        const test = row(e.testId);
+                        test.name = e.name;
+                        // A retried test starts again on the same row
+                        test.status = 'RUNNING';
+                        cell(test, 0, e.name);
+                        cell(test, 1, 'RUNNING', 'running');
+                    } else if (e.type === 'STEP_START' && e.testId) {
+                        cell(row(e.testId), 2, e.name);
+                    } else if (e.type === 'STEP_END' && e.testId) {
+                        cell(row(e.testId), 2, e.name + ' (' + (e.value / 1e6).toFixed(0) + ' ms, ' + e.detail + ')');
+                    } else if (e.type === 'TEST_END') {
+                        const test = row(e.testId);
+                        test.status = e.name;
+                        // A CACHED result passed in the run it was reused from
+                        const passed = e.name === 'PASSED' || e.name === 'CACHED';
+                        cell(test, 1, e.name, passed ? 'passed' : 'failed');
+                        cell(test, 3, (e.value / 1e9).toFixed(2) + ' s');
+                        if (passed) counts.passed++; else if (e.name === 'FAILED') counts.failed++;
+                    } else if (e.type === 'FAILURE') {
+                        const tr = document.createElement('tr');
+                        const name = document.createElement('td');
+                        name.appendChild(text(row(e.testId).name + ' / ' + e.name));
+                        const detail = document.createElement('td');
+                        detail.className = 'failed';
+                        detail.appendChild(text(e.detail));
+                        tr.append(name, detail);
+                        document.getElementById('failures').prepend(tr);
+                    } else if (e.type === 'ARTIFACT' && /\\.png$/.test(e.detail)) {
+                        const img = document.createElement('img');
+                        img.src = '/screenshots/' + encodeURIComponent(e.detail.split(/[\\\\/]/).pop());
+                        img.title = e.name;
+                        document.getElementById('shots').prepend(img);
+                    }
+                    refresh();
+                };
+            </script>
+        </body>
+        </html>
+        """;
+}
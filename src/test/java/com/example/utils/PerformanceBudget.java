@@ -0,0 +1,132 @@
+package com.example.utils;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * A performance budget a step must stay within
+ * Budgets are checked after the step against its measured duration and the browser metrics collected
+ * for it, e.g. safeNavigate("Open inventory", url, PerformanceBudget.pageLoad(Duration.ofMillis(1500))).
+ * A budget whose metric the browser did not report is skipped rather than failed.
+ */
+public class PerformanceBudget {
+    private static final String STEP_DURATION = "stepDuration";
+    private static final String TOTAL_TRANSFER_SIZE = "totalTransferSize";
+    
+    private final String name;
+    private final String metricName;
+    private final double limit;
+    private final String unit;
+    
+    private PerformanceBudget(String name, String metricName, double limit, String unit) {
+        this.name = name;
+        this.metricName = metricName;
+        this.limit = limit;
+        this.unit = unit;
+    }
+    
+    /**
+     * Budget exceeded by a measured value
+     */
+    public static class Violation {
+        private final PerformanceBudget budget;
+        private final double measured;
+        
+        Violation(PerformanceBudget budget, double measured) {
+            this.budget = budget;
+            this.measured = measured;
+        }
+        
+        public PerformanceBudget getBudget() { return budget; }
+        public double getMeasured() { return measured; }
+        
+        public String getMessage() {
+            return budget.name + " " + budget.format(measured) + " exceeds budget of " + budget.format(budget.limit);
+        }
+    }
+    
+    public static PerformanceBudget stepDuration(Duration max) {
+        return new PerformanceBudget("Step duration", STEP_DURATION, max.toNanos() / 1_000_000.0, "ms");
+    }
+    
+    public static PerformanceBudget pageLoad(Duration max) {
+        return new PerformanceBudget("Page load", BrowserMetricsCollector.LOAD, max.toNanos() / 1_000_000.0, "ms");
+    }
+    
+    public static PerformanceBudget timeToFirstByte(Duration max) {
+        return new PerformanceBudget("TTFB", BrowserMetricsCollector.TTFB, max.toNanos() / 1_000_000.0, "ms");
+    }
+    
+    public static PerformanceBudget largestContentfulPaint(Duration max) {
+        return new PerformanceBudget("LCP", BrowserMetricsCollector.LCP, max.toNanos() / 1_000_000.0, "ms");
+    }
+    
+    public static PerformanceBudget interactionToNextPaint(Duration max) {
+        return new PerformanceBudget("INP", BrowserMetricsCollector.INP, max.toNanos() / 1_000_000.0, "ms");
+    }
+    
+    public static PerformanceBudget cumulativeLayoutShift(double max) {
+        return new PerformanceBudget("CLS", BrowserMetricsCollector.CLS, max, "score");
+    }
+    
+    /**
+     * Bytes transferred for the document and all its resources
+     */
+    public static PerformanceBudget transferSize(long maxBytes) {
+        return new PerformanceBudget("Page transfer", TOTAL_TRANSFER_SIZE, maxBytes, "bytes");
+    }
+    
+    /**
+     * Budget on any metric reported by BrowserMetricsCollector, in the unit of that metric
+     */
+    public static PerformanceBudget metric(String metricName, double max) {
+        return new PerformanceBudget(metricName, metricName, max, "");
+    }
+    
+    public boolean needsBrowserMetrics() {
+        return !STEP_DURATION.equals(metricName);
+    }
+    
+    /**
+     * Check the budget, returning the violation or null when within budget or not measurable
+     */
+    public Violation check(long stepDurationNanos, BrowserMetricsCollector.BrowserMetrics metrics) {
+        Double measured;
+        if (STEP_DURATION.equals(metricName)) {
+            measured = stepDurationNanos / 1_000_000.0;
+        } else if (metrics == null) {
+            measured = null;
+        } else if (TOTAL_TRANSFER_SIZE.equals(metricName)) {
+            measured = metrics.getTotalTransferSize();
+        } else {
+            measured = metrics.get(metricName);
+        }
+        if (measured == null) {
+            FrameworkLog.warn("⚠️ Budget not checked, " + name + " was not reported by the browser");
+            return null;
+        }
+        return measured > limit ? new Violation(this, measured) : null;
+    }
+    
+    public String getName() { return name; }
+    public String getMetricName() { return metricName; }
+    public double getLimit() { return limit; }
+    
+    private String format(double value) {
+        switch (unit) {
+            case "ms":
+                return value >= 1000 ? String.format(Locale.ROOT, "%.2f s", value / 1000) : String.format(Locale.ROOT, "%.0f ms", value);
+            case "bytes":
+                return value >= 1024 * 1024 ? String.format(Locale.ROOT, "%.2f MB", value / (1024 * 1024)) : String.format(Locale.ROOT, "%.0f KB", value / 1024);
+            case "score":
+                return String.format(Locale.ROOT, "%.3f", value);
+            default:
+                return String.format(Locale.ROOT, "%.2f", value);
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return name + " <= " + format(limit);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.utils;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown when a step exceeds one or more performance budgets
+ * An AssertionError so JUnit reports it as a test failure, kept as its own type so
+ * budget violations can be told apart from functional failures.
+ */
+public class PerformanceBudgetExceededError extends AssertionError {
+    private static final long serialVersionUID = 1L;
+    
+    private final String stepName;
+    private final List<PerformanceBudget.Violation> violations;
+    
+    public PerformanceBudgetExceededError(String stepName, List<PerformanceBudget.Violation> violations) {
+        super("Performance budget exceeded in step '" + stepName + "': " + describe(violations));
+        this.stepName = stepName;
+        this.violations = Collections.unmodifiableList(violations);
+    }
+    
+    public String getStepName() { return stepName; }
+    public List<PerformanceBudget.Violation> getViolations() { return violations; }
+    
+    private static String describe(List<PerformanceBudget.Violation> violations) {
+        StringBuilder description = new StringBuilder();
+        for (PerformanceBudget.Violation violation : violations) {
+            if (description.length() > 0) {
+                description.append("; ");
+            }
+            description.append(violation.getMessage());
+        }
+        return description.toString();
+    }
+}
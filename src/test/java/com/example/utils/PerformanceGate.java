@@ -0,0 +1,282 @@
+package com.example.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Performance regression gate comparing an execution against a baseline from the run history
+ * The baseline is the designated execution plus the runs recorded just before it (perf.baselineRuns),
+ * so a single noisy baseline run cannot move the threshold on its own. A test or step regresses when
+ * its duration exceeds the baseline median by more than every threshold:
+ * perf.threshold.pct percent of the median, perf.threshold.mads scaled MADs and perf.threshold.minMs.
+ * Failed and skipped tests and failed steps are not compared.
+ */
+public class PerformanceGate {
+    private static final String DIFF_REPORT_FILE = "target/reports/performance-diff.md";
+    private static final String BASELINE_PROPERTY = "perf.baseline";
+    private static final String BASELINE_RUNS_PROPERTY = "perf.baselineRuns";
+    private static final String THRESHOLD_PCT_PROPERTY = "perf.threshold.pct";
+    private static final String THRESHOLD_MADS_PROPERTY = "perf.threshold.mads";
+    private static final String THRESHOLD_MIN_MS_PROPERTY = "perf.threshold.minMs";
+    // Scales the median absolute deviation to a standard deviation estimate for normally distributed noise
+    private static final double MAD_SCALE = 1.4826;
+    
+    /**
+     * Thresholds used to decide whether a slowdown is significant
+     */
+    public static class Thresholds {
+        public final int baselineRuns;
+        public final double relativePercent;
+        public final double madMultiplier;
+        public final long minimumNanos;
+        
+        public Thresholds(int baselineRuns, double relativePercent, double madMultiplier, long minimumMillis) {
+            this.baselineRuns = Math.max(1, baselineRuns);
+            this.relativePercent = relativePercent;
+            this.madMultiplier = madMultiplier;
+            this.minimumNanos = minimumMillis * 1_000_000L;
+        }
+        
+        /**
+         * Thresholds from system properties, with defaults suited to UI flows
+         */
+        public static Thresholds fromSystemProperties() {
+            return new Thresholds(
+                Integer.getInteger(BASELINE_RUNS_PROPERTY, 5),
+                Double.parseDouble(System.getProperty(THRESHOLD_PCT_PROPERTY, "20")),
+                Double.parseDouble(System.getProperty(THRESHOLD_MADS_PROPERTY, "3")),
+                Long.getLong(THRESHOLD_MIN_MS_PROPERTY, 100));
+        }
+    }
+    
+    /**
+     * Current duration of one test or step against its baseline samples
+     */
+    public static class Comparison {
+        public final String testName;
+        public final String stepName;
+        public final long currentNanos;
+        public final long baselineMedianNanos;
+        public final long baselineMadNanos;
+        public final int baselineSamples;
+        public final long allowedNanos;
+        
+        Comparison(String testName, String stepName, long currentNanos, long[] baseline, Thresholds thresholds) {
+            this.testName = testName;
+            this.stepName = stepName;
+            this.currentNanos = currentNanos;
+            this.baselineMedianNanos = median(baseline);
+            this.baselineMadNanos = medianAbsoluteDeviation(baseline, baselineMedianNanos);
+            this.baselineSamples = baseline.length;
+            long relativeMargin = (long) (baselineMedianNanos * thresholds.relativePercent / 100.0);
+            long noiseMargin = (long) (baselineMadNanos * MAD_SCALE * thresholds.madMultiplier);
+            this.allowedNanos = baselineMedianNanos + Math.max(thresholds.minimumNanos, Math.max(relativeMargin, noiseMargin));
+        }
+        
+        public boolean isRegression() {
+            return currentNanos > allowedNanos;
+        }
+        
+        public double getChangePercent() {
+            return baselineMedianNanos == 0 ? 0 : (currentNanos - baselineMedianNanos) * 100.0 / baselineMedianNanos;
+        }
+    }
+    
+    /**
+     * Outcome of a gate evaluation
+     */
+    public static class GateResult {
+        public final String currentExecutionId;
+        public final List<String> baselineExecutionIds;
+        public final List<Comparison> comparisons = new ArrayList<>();
+        
+        GateResult(String currentExecutionId, List<String> baselineExecutionIds) {
+            this.currentExecutionId = currentExecutionId;
+            this.baselineExecutionIds = baselineExecutionIds;
+        }
+        
+        public List<Comparison> getRegressions() {
+            List<Comparison> regressions = new ArrayList<>();
+            for (Comparison comparison : comparisons) {
+                if (comparison.isRegression()) {
+                    regressions.add(comparison);
+                }
+            }
+            return regressions;
+        }
+        
+        public boolean hasRegressions() {
+            return !getRegressions().isEmpty();
+        }
+    }
+    
+    /**
+     * Compare an execution against a baseline execution
+     * When baselineExecutionId is null the runs recorded right before the current one are used
+     */
+    public static GateResult evaluate(RunHistoryStore.RunHistory history, String currentExecutionId,
+                                      String baselineExecutionId, Thresholds thresholds) {
+        List<RunHistoryStore.RunRecord> runs = history.getRuns();
+        RunHistoryStore.RunRecord current = history.getRun(currentExecutionId);
+        if (current == null) {
+            throw new IllegalArgumentException("Execution not found in run history: " + currentExecutionId);
+        }
+        
+        String anchorId = baselineExecutionId != null ? baselineExecutionId : currentExecutionId;
+        int anchorIndex = runs.indexOf(history.getRun(anchorId));
+        if (anchorIndex < 0) {
+            throw new IllegalArgumentException("Baseline execution not found in run history: " + baselineExecutionId);
+        }
+        // The designated baseline is part of its window; without one the window ends right before the current run
+        int windowEnd = baselineExecutionId != null ? anchorIndex + 1 : anchorIndex;
+        List<RunHistoryStore.RunRecord> baselineRuns = new ArrayList<>();
+        for (int i = windowEnd - 1; i >= 0 && baselineRuns.size() < thresholds.baselineRuns; i--) {
+            if (runs.get(i) != current) {
+                baselineRuns.add(runs.get(i));
+            }
+        }
+        
+        List<String> baselineIds = new ArrayList<>();
+        for (RunHistoryStore.RunRecord run : baselineRuns) {
+            baselineIds.add(run.executionId);
+        }
+        GateResult result = new GateResult(currentExecutionId, baselineIds);
+        
+        for (RunHistoryStore.TestRecord test : current.getTests()) {
+            if (!"PASSED".equals(test.status)) {
+                continue;
+            }
+            long[] testBaseline = collectBaseline(baselineRuns, test.testId, null);
+            if (testBaseline.length > 0) {
+                result.comparisons.add(new Comparison(test.displayName, null, test.durationNanos, testBaseline, thresholds));
+            }
+            for (String stepName : test.getStepNames()) {
+                long[] stepBaseline = collectBaseline(baselineRuns, test.testId, stepName);
+                if (stepBaseline.length > 0 && !test.isStepFailed(stepName)) {
+                    result.comparisons.add(new Comparison(test.displayName, stepName, test.getStepDuration(stepName), stepBaseline, thresholds));
+                }
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Baseline samples of a test (stepName null) or one of its steps, only from passing executions
+     */
+    private static long[] collectBaseline(List<RunHistoryStore.RunRecord> baselineRuns, String testId, String stepName) {
+        long[] samples = new long[baselineRuns.size()];
+        int count = 0;
+        for (RunHistoryStore.RunRecord run : baselineRuns) {
+            RunHistoryStore.TestRecord test = run.getTest(testId);
+            if (test == null || !"PASSED".equals(test.status)) {
+                continue;
+            }
+            if (stepName == null) {
+                samples[count++] = test.durationNanos;
+            } else if (test.getStepDuration(stepName) != null && !test.isStepFailed(stepName)) {
+                samples[count++] = test.getStepDuration(stepName);
+            }
+        }
+        return Arrays.copyOf(samples, count);
+    }
+    
+    static long median(long[] values) {
+        if (values.length == 0) {
+            return 0;
+        }
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+    
+    static long medianAbsoluteDeviation(long[] values, long median) {
+        long[] deviations = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            deviations[i] = Math.abs(values[i] - median);
+        }
+        return median(deviations);
+    }
+    
+    /**
+     * Write the comparison as a Markdown table, regressions first
+     */
+    public static void writeDiffReport(GateResult result, Path outputFile) throws IOException {
+        List<Comparison> sorted = new ArrayList<>(result.comparisons);
+        sorted.sort(Comparator.comparing((Comparison comparison) -> !comparison.isRegression())
+            .thenComparing(comparison -> -comparison.getChangePercent()));
+        
+        StringBuilder report = new StringBuilder();
+        report.append("# Performance Comparison\n\n");
+        report.append("- Current execution: `").append(result.currentExecutionId).append("`\n");
+        report.append("- Baseline executions: ").append(result.baselineExecutionIds.isEmpty() ? "none"
+            : "`" + String.join("`, `", result.baselineExecutionIds) + "`").append("\n");
+        report.append("- Regressions: ").append(result.getRegressions().size()).append(" of ").append(sorted.size()).append(" comparisons\n\n");
+        report.append("| | Test | Step | Current | Baseline median | MAD | Allowed | Change | Samples |\n");
+        report.append("|---|---|---|---:|---:|---:|---:|---:|---:|\n");
+        for (Comparison comparison : sorted) {
+            report.append("| ").append(comparison.isRegression() ? "❌" : "✅")
+                .append(" | ").append(escapeMarkdown(comparison.testName))
+                .append(" | ").append(comparison.stepName != null ? escapeMarkdown(comparison.stepName) : "*(whole test)*")
+                .append(" | ").append(formatMillis(comparison.currentNanos))
+                .append(" | ").append(formatMillis(comparison.baselineMedianNanos))
+                .append(" | ").append(formatMillis(comparison.baselineMadNanos))
+                .append(" | ").append(formatMillis(comparison.allowedNanos))
+                .append(" | ").append(String.format(Locale.ROOT, "%+.1f%%", comparison.getChangePercent()))
+                .append(" | ").append(comparison.baselineSamples).append(" |\n");
+        }
+        
+        Files.createDirectories(outputFile.toAbsolutePath().getParent());
+        Files.write(outputFile, report.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f ms", nanos / 1_000_000.0);
+    }
+    
+    private static String escapeMarkdown(String text) {
+        return text == null ? "" : text.replace("|", "\\|").replace("\n", " ");
+    }
+    
+    /**
+     * Command line entry point for CI, exits with status 1 on regressions and 2 when the gate cannot run
+     * Usage: PerformanceGate [currentExecutionId] [baselineExecutionId]
+     * Defaults to the latest recorded run and to -Dperf.baseline (or the preceding runs)
+     */
+    public static void main(String[] args) {
+        try {
+            RunHistoryStore.RunHistory history = RunHistoryStore.load();
+            if (history.getRuns().isEmpty()) {
+                System.err.println("❌ Run history is empty: " + RunHistoryStore.getHistoryDir().toAbsolutePath());
+                System.exit(2);
+            }
+            List<RunHistoryStore.RunRecord> runs = history.getRuns();
+            String currentId = args.length > 0 ? args[0] : runs.get(runs.size() - 1).executionId;
+            String baselineId = args.length > 1 ? args[1] : System.getProperty(BASELINE_PROPERTY);
+            
+            GateResult result = evaluate(history, currentId, baselineId, Thresholds.fromSystemProperties());
+            writeDiffReport(result, Paths.get(DIFF_REPORT_FILE));
+            
+            System.out.println("📏 Compared " + currentId + " against " + result.baselineExecutionIds.size() + " baseline run(s)");
+            System.out.println("📄 Performance diff report: " + DIFF_REPORT_FILE);
+            if (result.baselineExecutionIds.isEmpty()) {
+                System.out.println("⚠️ No baseline runs available, nothing to compare");
+            }
+            for (Comparison regression : result.getRegressions()) {
+                System.out.println(String.format(Locale.ROOT, "❌ Regression: %s%s %s -> %s (%+.1f%%, allowed %s)",
+                    regression.testName, regression.stepName != null ? " / " + regression.stepName : "",
+                    formatMillis(regression.baselineMedianNanos), formatMillis(regression.currentNanos),
+                    regression.getChangePercent(), formatMillis(regression.allowedNanos)));
+            }
+            if (result.hasRegressions()) {
+                System.exit(1);
+            }
+            System.out.println("✅ No significant performance regressions");
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("❌ Performance gate failed to run: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package com.example.utils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Merges the results of several executions or shards into one report and one summary
+ * Inputs are directories (searched for journals and screenshots), journal files, or zip archives
+ * such as downloaded CI artifacts. A first pass scans every input in parallel to find all attempts
+ * of every test. A test that ran more than once (retries, re-run shards) is reported with its latest
+ * attempt only; it counts as retried, and as flaky when an earlier attempt failed and the latest passed.
+ * The report is then streamed from a second pass where inputs are decoded in parallel ahead of the
+ * single report consumer through bounded queues, so memory does not grow with the number of steps.
+ * Usage: java -cp ... com.example.utils.ReportAggregator [-o target/aggregated-report] input...
+ */
+public class ReportAggregator {
+    private static final String DEFAULT_OUTPUT_DIR = "target/aggregated-report";
+    private static final String SUMMARY_FILE = "aggregate-summary.json";
+    private static final String SCREENSHOTS_DIR = "screenshots";
+    private static final String PARALLELISM_PROPERTY = "aggregate.parallelism";
+    private static final int MAX_PARALLELISM = 64;
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final Object END_OF_INPUT = new Object();
+    
+    private final Path outputDir;
+    private final int parallelism;
+    private final List<Path> journals = new ArrayList<>();
+    // Screenshot files by name, the journal only knows the path they had on the machine that ran the tests
+    private final Map<String, Path> screenshots = new ConcurrentHashMap<>();
+    private final List<FileSystem> archives = new ArrayList<>();
+    // Winning attempt (occurrence of the test in the journal, from 1) per test ID, per input
+    private final List<Map<String, Integer>> winners = new ArrayList<>();
+    
+    /**
+     * One run of a test as found in one input
+     */
+    private static class Attempt {
+        final int input;
+        final int occurrence;
+        final String displayName;
+        final long startEpochMillis;
+        String status = "INCOMPLETE";
+        long endEpochMillis = -1;
+        
+        Attempt(int input, int occurrence, String displayName, long startEpochMillis) {
+            this.input = input;
+            this.occurrence = occurrence;
+            this.displayName = displayName;
+            this.startEpochMillis = startEpochMillis;
+        }
+        
+        boolean isComplete() {
+            return endEpochMillis >= 0 && !"INCOMPLETE".equals(status);
+        }
+        
+        boolean isFailed() {
+            return "FAILED".equals(status) || "RETRIED".equals(status);
+        }
+        
+        long getOrderingMillis() {
+            return endEpochMillis >= 0 ? endEpochMillis : startEpochMillis;
+        }
+    }
+    
+    /**
+     * Totals printed and written to aggregate-summary.json
+     */
+    public static class Summary {
+        public int inputs;
+        public int events;
+        public final Set<String> executionIds = new TreeSet<>();
+        public int tests;
+        public int passed;
+        public int failed;
+        public int skipped;
+        public int retried;
+        public final List<String> flakyTests = new ArrayList<>();
+    }
+    
+    public ReportAggregator(Path outputDir, int parallelism) {
+        this.outputDir = outputDir;
+        this.parallelism = parallelism;
+    }
+    
+    /**
+     * Find journals and screenshots in a directory, a journal file or a zip archive
+     */
+    public void addInput(Path input) throws IOException {
+        String name = input.getFileName() != null ? input.getFileName().toString().toLowerCase(Locale.ROOT) : "";
+        if (Files.isDirectory(input)) {
+            collect(input, false);
+        } else if (name.endsWith(".zip") || name.endsWith(".jar")) {
+            FileSystem archive = FileSystems.newFileSystem(input, (ClassLoader) null);
+            archives.add(archive);
+            for (Path root : archive.getRootDirectories()) {
+                collect(root, true);
+            }
+        } else if (name.endsWith(".journal")) {
+            journals.add(input);
+        } else {
+            throw new IOException("Not a directory, journal or zip archive: " + input);
+        }
+    }
+    
+    private void collect(Path root, boolean fromArchive) throws IOException {
+        Path screenshotCopies = outputDir.resolve(SCREENSHOTS_DIR);
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = String.valueOf(file.getFileName());
+                if (name.endsWith(".journal") && Files.isRegularFile(file)) {
+                    journals.add(file);
+                } else if (name.endsWith(".png") && Files.isRegularFile(file) && !fromArchive) {
+                    if (!file.toAbsolutePath().startsWith(screenshotCopies.toAbsolutePath())) {
+                        screenshots.putIfAbsent(name, file);
+                    }
+                } else if (name.endsWith(".png") && Files.isRegularFile(file)) {
+                    // The report reads screenshots from disk, so archived ones are extracted next to it
+                    Files.createDirectories(screenshotCopies);
+                    Path copy = screenshotCopies.resolve(name);
+                    Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+                    screenshots.putIfAbsent(name, copy);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Scan, deduplicate and write the merged report into the output directory
+     */
+    public Summary aggregate() throws IOException {
+        Summary summary = new Summary();
+        summary.inputs = journals.size();
+        Map<String, List<Attempt>> attempts = scanInputs(summary);
+        selectLatestAttempts(attempts, summary);
+        ReportGenerator.generateReport(outputDir, this::replayLatestAttempts);
+        writeSummary(summary);
+        return summary;
+    }
+    
+    public void close() {
+        for (FileSystem archive : archives) {
+            try {
+                archive.close();
+            } catch (IOException e) {
+                FrameworkLog.warn("⚠️ Warning: Failed to close archive: " + e.getMessage());
+            }
+        }
+    }
+    
+    // ---------------------------------------------------------------------
+    // First pass: attempts per test
+    // ---------------------------------------------------------------------
+    
+    private Map<String, List<Attempt>> scanInputs(Summary summary) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<Map<String, List<Attempt>>>> scans = new ArrayList<>();
+            for (int i = 0; i < journals.size(); i++) {
+                int input = i;
+                scans.add(pool.submit(() -> scan(input, summary)));
+            }
+            Map<String, List<Attempt>> attempts = new HashMap<>();
+            for (Future<Map<String, List<Attempt>>> scan : scans) {
+                for (Map.Entry<String, List<Attempt>> test : await(scan).entrySet()) {
+                    attempts.computeIfAbsent(test.getKey(), id -> new ArrayList<>()).addAll(test.getValue());
+                }
+            }
+            return attempts;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    private Map<String, List<Attempt>> scan(int input, Summary summary) throws IOException {
+        Map<String, List<Attempt>> attempts = new HashMap<>();
+        Map<String, Attempt> running = new HashMap<>();
+        Set<String> executionIds = new HashSet<>();
+        int[] events = new int[1];
+        try (InputStream in = Files.newInputStream(journals.get(input))) {
+            ExecutionJournal.readEvents(in, event -> {
+                events[0]++;
+                switch (event.getType()) {
+                    case SESSION_START:
+                        executionIds.add(event.getName());
+                        break;
+                    case TEST_START:
+                        List<Attempt> previous = attempts.computeIfAbsent(event.getTestId(), id -> new ArrayList<>());
+                        Attempt attempt = new Attempt(input, previous.size() + 1, event.getName(), event.getEpochMillis());
+                        previous.add(attempt);
+                        running.put(event.getTestId(), attempt);
+                        break;
+                    case TEST_END:
+                        Attempt finished = running.remove(event.getTestId());
+                        if (finished != null) {
+                            finished.status = event.getName();
+                            finished.endEpochMillis = event.getEpochMillis();
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            });
+        }
+        synchronized (summary) {
+            summary.events += events[0];
+            summary.executionIds.addAll(executionIds);
+        }
+        return attempts;
+    }
+    
+    /**
+     * Keep the latest complete attempt of every test, and count retries and flaky tests
+     */
+    private void selectLatestAttempts(Map<String, List<Attempt>> attempts, Summary summary) {
+        for (int i = 0; i < journals.size(); i++) {
+            winners.add(new HashMap<>());
+        }
+        for (Map.Entry<String, List<Attempt>> test : attempts.entrySet()) {
+            List<Attempt> runs = test.getValue();
+            runs.sort(Comparator.comparing(Attempt::isComplete).thenComparingLong(Attempt::getOrderingMillis));
+            Attempt latest = runs.get(runs.size() - 1);
+            winners.get(latest.input).put(test.getKey(), latest.occurrence);
+            
+            summary.tests++;
+            if (!latest.isComplete() || "ABORTED".equals(latest.status)) {
+                summary.skipped++;
+            } else if (latest.isFailed()) {
+                summary.failed++;
+            } else {
+                summary.passed++;
+            }
+            if (runs.size() > 1) {
+                summary.retried++;
+                boolean failedBefore = runs.subList(0, runs.size() - 1).stream().anyMatch(Attempt::isFailed);
+                if (failedBefore && latest.isComplete() && !latest.isFailed()) {
+                    summary.flakyTests.add(latest.displayName);
+                }
+            }
+        }
+        Collections.sort(summary.flakyTests);
+    }
+    
+    // ---------------------------------------------------------------------
+    // Second pass: streamed report
+    // ---------------------------------------------------------------------
+    
+    /**
+     * Feed the report with the events of the winning attempts, input after input
+     * Later inputs are decoded in parallel while earlier ones are consumed
+     */
+    private void replayLatestAttempts(ExecutionJournal.Listener listener) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<BlockingQueue<Object>> queues = new ArrayList<>();
+            for (int i = 0; i < journals.size(); i++) {
+                BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+                queues.add(queue);
+                int input = i;
+                // Submitted in input order, so the input being consumed is always decoding
+                pool.submit(() -> decode(input, queue));
+            }
+            for (int i = 0; i < queues.size(); i++) {
+                BlockingQueue<Object> queue = queues.get(i);
+                for (Object item = queue.take(); item != END_OF_INPUT; item = queue.take()) {
+                    if (item instanceof IOException) {
+                        throw new IOException("Failed to read " + journals.get(i) + ": " + ((IOException) item).getMessage(), (IOException) item);
+                    }
+                    listener.onEvent((ExecutionJournal.Event) item);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while merging journals");
+        } finally {
+            // Stops decoders still blocked on a full queue after a failure
+            pool.shutdownNow();
+        }
+        listener.onComplete();
+    }
+    
+    private Void decode(int input, BlockingQueue<Object> queue) throws InterruptedException {
+        Map<String, Integer> inputWinners = winners.get(input);
+        Map<String, Integer> occurrences = new HashMap<>();
+        Set<String> droppedTests = new HashSet<>();
+        try (InputStream in = Files.newInputStream(journals.get(input))) {
+            ExecutionJournal.readEvents(in, event -> {
+                String testId = event.getTestId();
+                if (event.getType() == ExecutionJournal.EventType.TEST_START) {
+                    int occurrence = occurrences.merge(testId, 1, Integer::sum);
+                    if (Integer.valueOf(occurrence).equals(inputWinners.get(testId))) {
+                        droppedTests.remove(testId);
+                    } else {
+                        droppedTests.add(testId);
+                    }
+                }
+                if (testId != null && droppedTests.contains(testId)) {
+                    return;
+                }
+                put(queue, relocateArtifact(event));
+            });
+        } catch (IOException e) {
+            queue.put(e);
+        } catch (UncheckedIOException e) {
+            queue.put(e.getCause());
+        }
+        queue.put(END_OF_INPUT);
+        return null;
+    }
+    
+    private static void put(BlockingQueue<Object> queue, Object item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Merge cancelled"));
+        }
+    }
+    
+    /**
+     * Point a screenshot artifact at the file found in the inputs
+     */
+    private ExecutionJournal.Event relocateArtifact(ExecutionJournal.Event event) {
+        if (event.getType() != ExecutionJournal.EventType.ARTIFACT || event.getDetail() == null) {
+            return event;
+        }
+        Path found = screenshots.get(Paths.get(event.getDetail()).getFileName().toString());
+        if (found == null) {
+            return event;
+        }
+        return new ExecutionJournal.Event(event.getType(), event.getEpochMillis(), event.getNanoTime(), event.getThread(),
+            event.getTestId(), event.getName(), found.toString(), event.getValue(), event.getSize());
+    }
+    
+    // ---------------------------------------------------------------------
+    // Summary
+    // ---------------------------------------------------------------------
+    
+    private void writeSummary(Summary summary) throws IOException {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"inputs\": ").append(summary.inputs).append(",\n");
+        json.append("  \"events\": ").append(summary.events).append(",\n");
+        json.append("  \"executionIds\": [");
+        int index = 0;
+        for (String executionId : summary.executionIds) {
+            json.append(index++ > 0 ? ", " : "").append(JsonResultExporter.quote(executionId));
+        }
+        json.append("],\n");
+        json.append("  \"tests\": ").append(summary.tests).append(",\n");
+        json.append("  \"passed\": ").append(summary.passed).append(",\n");
+        json.append("  \"failed\": ").append(summary.failed).append(",\n");
+        json.append("  \"skipped\": ").append(summary.skipped).append(",\n");
+        json.append("  \"retried\": ").append(summary.retried).append(",\n");
+        json.append("  \"flakyTests\": [");
+        for (int i = 0; i < summary.flakyTests.size(); i++) {
+            json.append(i > 0 ? ", " : "").append(JsonResultExporter.quote(summary.flakyTests.get(i)));
+        }
+        json.append("]\n}\n");
+        Files.write(outputDir.resolve(SUMMARY_FILE), json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static void printSummary(Summary summary, Path outputDir) {
+        System.out.println("=".repeat(60));
+        System.out.println("🧮 Aggregated " + summary.inputs + " journal(s) from " + summary.executionIds.size()
+            + " execution(s), " + summary.events + " events");
+        System.out.println("🧪 Tests: " + summary.tests + " | ✅ Passed: " + summary.passed + " | ❌ Failed: " + summary.failed
+            + " | ⏭️ Skipped: " + summary.skipped);
+        System.out.println("🔁 Retried: " + summary.retried + " (latest attempt reported) | 🎲 Flaky: " + summary.flakyTests.size());
+        for (String flakyTest : summary.flakyTests) {
+            System.out.println("   🎲 " + flakyTest);
+        }
+        System.out.println("📄 Merged report: " + outputDir.resolve(ReportGenerator.REPORT_FILE));
+        System.out.println("=".repeat(60));
+    }
+    
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while scanning journals");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IOException("Failed to scan journal: " + e.getCause(), e.getCause());
+        }
+    }
+    
+    /**
+     * Number of inputs read at the same time
+     * Defaults to the available processors, override with -Daggregate.parallelism=N
+     */
+    private static int getParallelism() {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        try {
+            parallelism = Integer.parseInt(System.getProperty(PARALLELISM_PROPERTY, String.valueOf(parallelism)));
+        } catch (NumberFormatException e) {
+            // Fall back to the available processors, still clamped below
+        }
+        return Math.max(1, Math.min(parallelism, MAX_PARALLELISM));
+    }
+    
+    public static void main(String[] args) {
+        Path outputDir = Paths.get(DEFAULT_OUTPUT_DIR);
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (("-o".equals(args[i]) || "--output".equals(args[i])) && i + 1 < args.length) {
+                outputDir = Paths.get(args[++i]);
+            } else {
+                inputs.add(Paths.get(args[i]));
+            }
+        }
+        if (inputs.isEmpty()) {
+            System.err.println("Usage: ReportAggregator [-o " + DEFAULT_OUTPUT_DIR + "] <directory|journal|zip>...");
+            System.exit(2);
+        }
+        
+        ReportAggregator aggregator = new ReportAggregator(outputDir, getParallelism());
+        try {
+            Files.createDirectories(outputDir);
+            for (Path input : inputs) {
+                aggregator.addInput(input);
+            }
+            if (aggregator.journals.isEmpty()) {
+                System.err.println("❌ No execution journal found in " + inputs);
+                System.exit(1);
+            }
+            Summary summary = aggregator.aggregate();
+            FrameworkLog.flush();
+            printSummary(summary, outputDir);
+        } catch (IOException | UncheckedIOException e) {
+            FrameworkLog.flush();
+            System.err.println("❌ Aggregation failed: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            aggregator.close();
+        }
+    }
+}
@@ -1,38 +1,194 @@
 package com.example.utils;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
 import java.nio.file.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.Base64;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
 
 public class ReportGenerator {
     private static final String SCREENSHOT_DIR = "target/screenshots";
     private static final String REPORT_DIR = "target/reports";
-    private static final String REPORT_FILE = "target/reports/test-report-with-screenshots.html";
+    // File names inside the report directory
+    static final String REPORT_FILE = "test-report-with-screenshots.html";
+    private static final String REPORT_LOCK_FILE = "report.lock";
+    private static final String JSON_RESULTS_FILE = "test-results.json";
+    private static final String JUNIT_RESULTS_FILE = "junit-results.xml";
+    private static final String TRACE_FILE = "execution-trace.json";
+    private static final String PARALLELISM_PROPERTY = "report.parallelism";
+    private static final int MAX_PARALLELISM = 64;
+    private static final String TREND_RUNS_PROPERTY = "history.trendRuns";
+    private static final int DEFAULT_TREND_RUNS = 20;
     
     public static void generateReport() {
+        // Make sure every event recorded so far is on disk before replaying it
+        // Captured log lines reach the journal through the log drainer, so that one goes first
+        FrameworkLog.flush();
+        ExecutionJournal.flush();
+        // Forks sharing the execution ID each have a journal, the report covers all of them
+        generateReport(ExecutionJournal.getJournalFiles(ExecutionIdManager.getCurrentExecutionId()));
+    }
+    
+    /**
+     * Generate the report from an execution journal
+     * Falls back to the screenshots folder when the journal does not exist
+     */
+    public static void generateReport(Path journalFile) {
+        generateReport(journalFile != null && Files.exists(journalFile)
+            ? Collections.singletonList(journalFile) : Collections.emptyList());
+    }
+    
+    /**
+     * Generate the report from the journals of one execution
+     * Holds a file lock while writing, so parallel forks never interleave their report files
+     */
+    public static synchronized void generateReport(List<Path> journalFiles) {
+        try {
+            writeLocked(Paths.get(REPORT_DIR), journalFiles.isEmpty() ? null : new JournalFiles(journalFiles), true);
+        } catch (IOException e) {
+            FrameworkLog.error("❌ Failed to generate report: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Generate the report and exports into reportDir from events supplied by the caller
+     * Used by ReportAggregator to merge runs: no screenshot cleanup and nothing recorded in the run history
+     */
+    public static synchronized void generateReport(Path reportDir, JournalSource source) throws IOException {
+        writeLocked(reportDir, source, false);
+    }
+    
+    /**
+     * Events a report is built from, replayed exactly once
+     */
+    public interface JournalSource {
+        void replay(ExecutionJournal.Listener listener) throws IOException;
+        
+        /**
+         * Bytes read by the replay, for the report phase events
+         */
+        default long getSizeBytes() throws IOException {
+            return 0;
+        }
+    }
+    
+    /**
+     * Journal files of one execution, replayed one after the other
+     */
+    private static class JournalFiles implements JournalSource {
+        private final List<Path> files;
+        
+        JournalFiles(List<Path> files) {
+            this.files = files;
+        }
+        
+        @Override
+        public void replay(ExecutionJournal.Listener listener) throws IOException {
+            ExecutionJournal.replay(files, listener);
+        }
+        
+        @Override
+        public long getSizeBytes() throws IOException {
+            long bytes = 0;
+            for (Path file : files) {
+                bytes += Files.size(file);
+            }
+            return bytes;
+        }
+    }
+    
+    @SuppressWarnings("try") // the lock is only held, never read
+    private static void writeLocked(Path reportDir, JournalSource source, boolean currentRun) throws IOException {
+        Files.createDirectories(reportDir);
+        try (FileChannel lockChannel = FileChannel.open(reportDir.resolve(REPORT_LOCK_FILE),
+                 StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = lockChannel.lock()) {
+            writeReports(reportDir, source, currentRun);
+        }
+    }
+    
+    /**
+     * Write the HTML report and every export, called with the report lock held
+     * @param currentRun whether the source is the run in progress, which owns screenshot cleanup and the run history
+     */
+    private static void writeReports(Path reportDir, JournalSource source, boolean currentRun) throws IOException {
+        long reportStart = System.nanoTime();
+        TraceEventExporter traceExporter = null;
+        Path reportFile = reportDir.resolve(REPORT_FILE);
+        Path jsonResultsFile = reportDir.resolve(JSON_RESULTS_FILE);
+        Path junitResultsFile = reportDir.resolve(JUNIT_RESULTS_FILE);
+        Path traceFile = reportDir.resolve(TRACE_FILE);
         try {
-            // Create reports directory
-            Files.createDirectories(Paths.get(REPORT_DIR));
-            
             // Only clean up old screenshots at the very beginning of execution
             // Don't clean up during the execution to preserve screenshots from the same run
-            if (shouldCleanupScreenshots()) {
+            if (currentRun && shouldCleanupScreenshots()) {
+                FrameworkEvents.ReportPhaseEvent cleanupEvent = FrameworkEvents.beginReportPhase();
                 organizeScreenshotsByExecution();
+                FrameworkEvents.commitReportPhase(cleanupEvent, "cleanup", 0);
+            }
+            
+            // Build the report model from the journal, or from the screenshots folder as a fallback
+            ReportData reportData;
+            FrameworkEvents.ReportPhaseEvent loadEvent = FrameworkEvents.beginReportPhase();
+            if (source != null) {
+                // JSON and JUnit XML exports are streamed from the same replay as the HTML model
+                // The timeline stays open until the end so it can include this report generation
+                traceExporter = new TraceEventExporter(traceFile);
+                try (JsonResultExporter jsonExporter = new JsonResultExporter(jsonResultsFile);
+                     JUnitXmlResultExporter junitExporter = new JUnitXmlResultExporter(junitResultsFile);
+                     RunHistoryStore.Recorder historyRecorder = currentRun ? new RunHistoryStore.Recorder() : null) {
+                    reportData = historyRecorder != null
+                        ? loadJournalData(source, jsonExporter, junitExporter, historyRecorder, traceExporter)
+                        : loadJournalData(source, jsonExporter, junitExporter, traceExporter);
+                }
+                FrameworkEvents.commitReportPhase(loadEvent, "replay", source.getSizeBytes());
+                FrameworkLog.info("📄 Machine-readable results exported: " + jsonResultsFile + ", " + junitResultsFile + ", " + traceFile);
+                if (currentRun) {
+                    FrameworkEvents.ReportPhaseEvent historyEvent = FrameworkEvents.beginReportPhase();
+                    reportData.history = loadHistory();
+                    FrameworkEvents.commitReportPhase(historyEvent, "history", 0);
+                }
+            } else {
+                FrameworkLog.warn("⚠️ No execution journal found, building report from screenshots folder");
+                reportData = loadScreenshotFolderData();
+                FrameworkEvents.commitReportPhase(loadEvent, "screenshot-scan", 0);
             }
             
             // Generate HTML report
-            String htmlContent = generateHtmlContent();
+            FrameworkEvents.ReportPhaseEvent renderEvent = FrameworkEvents.beginReportPhase();
+            String htmlContent = generateHtmlContent(reportData);
+            FrameworkEvents.commitReportPhase(renderEvent, "render", 0);
             
             // Write HTML file
-            Files.write(Paths.get(REPORT_FILE), htmlContent.getBytes());
+            FrameworkEvents.ReportPhaseEvent writeEvent = FrameworkEvents.beginReportPhase();
+            byte[] htmlBytes = htmlContent.getBytes();
+            Files.write(reportFile, htmlBytes);
+            FrameworkEvents.commitReportPhase(writeEvent, "write", htmlBytes.length);
             
-            System.out.println("📊 Beautiful HTML report with screenshots generated: " + REPORT_FILE);
+            FrameworkLog.info("📊 Beautiful HTML report with screenshots generated: " + reportFile);
             
+            if (traceExporter != null) {
+                traceExporter.writeExternalSpan("Report generation", "report", reportStart, System.nanoTime() - reportStart);
+            }
+        } finally {
+            closeQuietly(traceExporter);
+        }
+    }
+    
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
         } catch (IOException e) {
-            System.err.println("❌ Failed to generate report: " + e.getMessage());
+            FrameworkLog.warn("⚠️ Warning: Failed to close " + closeable.getClass().getSimpleName() + ": " + e.getMessage());
         }
     }
     
@@ -50,7 +206,7 @@ public class ReportGenerator {
      * Check if a report has already been generated in this execution
      */
     private static boolean hasGeneratedReport() {
-        return Files.exists(Paths.get(REPORT_FILE));
+        return Files.exists(Paths.get(REPORT_DIR, REPORT_FILE));
     }
     
     /**
@@ -69,17 +225,19 @@ public class ReportGenerator {
                 return;
             }
             
+            // Screenshots of runs still in progress (parallel forks, other builds) are never removed
+            Set<String> liveExecutionIds = ExecutionIdManager.getLiveExecutionIds();
             int deletedCount = 0;
             for (File screenshot : allScreenshots) {
-                if (screenshot.delete()) {
+                if (ExecutionIdManager.isFromFinishedExecution(screenshot.getName(), liveExecutionIds) && screenshot.delete()) {
                     deletedCount++;
                 }
             }
             
-            System.out.println("🧹 Cleaned up " + deletedCount + " old screenshots before new test execution");
+            FrameworkLog.info("🧹 Cleaned up " + deletedCount + " old screenshots before new test execution");
             
         } catch (Exception e) {
-            System.err.println("⚠️ Warning: Failed to clean old screenshots: " + e.getMessage());
+            FrameworkLog.warn("⚠️ Warning: Failed to clean old screenshots: " + e.getMessage());
         }
     }
     
@@ -98,39 +256,23 @@ public class ReportGenerator {
             return;
         }
         
-        // Group screenshots by test execution (based on execution ID in filename)
-        Map<String, List<File>> executionGroups = new HashMap<>();
-        
-        for (File screenshot : allScreenshots) {
-            String filename = screenshot.getName();
-            String executionId = ExecutionIdManager.extractExecutionIdFromFilename(filename);
-            executionGroups.computeIfAbsent(executionId, k -> new ArrayList<>()).add(screenshot);
-        }
-        
         // Get current execution ID
         String currentExecutionId = ExecutionIdManager.getCurrentExecutionId();
+        Set<String> liveExecutionIds = ExecutionIdManager.getLiveExecutionIds();
         
-        // Only keep screenshots from the current execution
-        // Delete all screenshots from previous test runs (different execution IDs)
+        // Only delete screenshots from execution IDs that are no longer running
+        // Keep all screenshots from the current execution and from parallel forks or builds
         int deletedCount = 0;
-        for (Map.Entry<String, List<File>> entry : executionGroups.entrySet()) {
-            String executionId = entry.getKey();
-            
-            // Only delete screenshots from different execution IDs
-            // Keep all screenshots from the current execution (same execution ID)
-            if (!currentExecutionId.equals(executionId)) {
-                for (File oldScreenshot : entry.getValue()) {
-                    if (oldScreenshot.delete()) {
-                        deletedCount++;
-                    }
-                }
+        for (File screenshot : allScreenshots) {
+            if (ExecutionIdManager.isFromFinishedExecution(screenshot.getName(), liveExecutionIds) && screenshot.delete()) {
+                deletedCount++;
             }
         }
         
         if (deletedCount > 0) {
-            System.out.println("🧹 Cleaned up " + deletedCount + " old screenshots from previous test runs");
+            FrameworkLog.info("🧹 Cleaned up " + deletedCount + " old screenshots from previous test runs");
         } else {
-            System.out.println("📸 Keeping all screenshots from current execution: " + currentExecutionId);
+            FrameworkLog.info("📸 Keeping all screenshots from current execution: " + currentExecutionId);
         }
     }
     
@@ -143,6 +285,9 @@ public class ReportGenerator {
         int failures;
         int errors;
         int totalScreenshots;
+        int budgetViolations;
+        int flakyTests;
+        int cachedTests;
         boolean hasFailures;
         
         TestExecutionData(int totalTests, int failures, int errors, int totalScreenshots) {
@@ -154,6 +299,376 @@ public class ReportGenerator {
         }
     }
     
+    /**
+     * Everything the HTML renderer needs: summary statistics and one entry per scenario
+     */
+    private static class ReportData {
+        final TestExecutionData executionData;
+        final List<ScenarioData> scenarios;
+        final Map<String, LatencyHistogram> stepLatencies = new TreeMap<>();
+        final Map<String, LatencyHistogram> commandLatencies = new TreeMap<>();
+        final Map<String, Long> commandPayloadBytes = new HashMap<>();
+        final Map<String, LatencyHistogram> waitLatencies = new HashMap<>();
+        RunHistoryStore.RunHistory history;
+        
+        ReportData(TestExecutionData executionData, List<ScenarioData> scenarios) {
+            this.executionData = executionData;
+            this.scenarios = scenarios;
+        }
+    }
+    
+    /**
+     * A rendered scenario: one test (journal) or one screenshot group (screenshots folder)
+     */
+    private static class ScenarioData {
+        final String name;
+        final boolean failed;
+        final TestContextInfo testContext;
+        String testId;
+        final List<StepTiming> steps = new ArrayList<>();
+        final List<ScreenshotEntry> screenshots = new ArrayList<>();
+        // Browser metrics by step name, in collection order
+        final Map<String, Map<String, Double>> browserMetrics = new LinkedHashMap<>();
+        // Performance budget violations by step name
+        final Map<String, List<String>> budgetViolations = new LinkedHashMap<>();
+        // CPU and memory of the browser processes, see BrowserProcessSampler
+        final Map<String, Double> processUsage = new HashMap<>();
+        // Time spent per kind of activity over the whole test in ms, see WaitAccounting
+        final Map<String, Double> timeBreakdown = new HashMap<>();
+        // Last log lines captured during the test, see FrameworkLog
+        final List<String> logLines = new ArrayList<>();
+        // First failure of each earlier attempt, when the test was retried
+        final List<String> retriedFailures = new ArrayList<>();
+        // Execution the result was reused from, when the test was not executed, see ResultCache
+        String cachedFrom;
+        long durationNanos;
+        
+        ScenarioData(String name, boolean failed, TestContextInfo testContext) {
+            this.name = name;
+            this.failed = failed;
+            this.testContext = testContext;
+        }
+    }
+    
+    /**
+     * Step name, outcome and duration as recorded in the journal
+     */
+    private static class StepTiming {
+        final String name;
+        final boolean passed;
+        final long durationNanos;
+        int commandCount;
+        long commandNanos;
+        Map<String, Double> timeBreakdown = Collections.emptyMap();
+        
+        StepTiming(String name, boolean passed, long durationNanos) {
+            this.name = name;
+            this.passed = passed;
+            this.durationNanos = durationNanos;
+        }
+    }
+    
+    /**
+     * Screenshot file together with the step it was captured for
+     */
+    private static class ScreenshotEntry {
+        final File file;
+        final String stepName;
+        
+        ScreenshotEntry(File file, String stepName) {
+            this.file = file;
+            this.stepName = stepName;
+        }
+    }
+    
+    /**
+     * Replay an execution journal into the report model
+     * Additional listeners (exporters) receive the same events in the same pass
+     */
+    private static ReportData loadJournalData(JournalSource source, ExecutionJournal.Listener... exporters) throws IOException {
+        JournalReportBuilder builder = new JournalReportBuilder();
+        ExecutionJournal.Listener[] listeners = new ExecutionJournal.Listener[exporters.length + 1];
+        listeners[0] = builder;
+        System.arraycopy(exporters, 0, listeners, 1, exporters.length);
+        try {
+            source.replay(ExecutionJournal.compose(listeners));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Collects journal events per test, in test start order
+     */
+    private static class JournalReportBuilder implements ExecutionJournal.Listener {
+        private final Map<String, JournalTest> tests = new LinkedHashMap<>();
+        private final Map<String, LatencyHistogram> stepLatencies = new TreeMap<>();
+        private final Map<String, LatencyHistogram> commandLatencies = new TreeMap<>();
+        private final Map<String, Long> commandPayloadBytes = new HashMap<>();
+        private final Map<String, LatencyHistogram> waitLatencies = new HashMap<>();
+        private final JournalTest unattributed = new JournalTest(null, "Unattributed Screenshots", null);
+        
+        @Override
+        public void onEvent(ExecutionJournal.Event event) {
+            switch (event.getType()) {
+                case TEST_START:
+                    JournalTest started = new JournalTest(event.getTestId(), event.getName(), event.getDetail());
+                    JournalTest previous = tests.get(event.getTestId());
+                    if (previous != null && "RETRIED".equals(previous.status)) {
+                        started.retriedFailures.addAll(previous.retriedFailures);
+                        started.retriedFailures.add(previous.firstFailureDetail != null ? previous.firstFailureDetail : "Unknown failure");
+                    }
+                    tests.put(event.getTestId(), started);
+                    break;
+                case TEST_END:
+                    JournalTest finished = tests.get(event.getTestId());
+                    if (finished != null) {
+                        finished.status = event.getName();
+                        finished.durationNanos = event.getValue();
+                        finished.cachedFrom = "CACHED".equals(event.getName()) ? event.getDetail() : null;
+                    }
+                    break;
+                case STEP_END:
+                    JournalTest stepOwner = tests.get(event.getTestId());
+                    if (stepOwner != null) {
+                        StepTiming step = new StepTiming(event.getName(), "PASSED".equals(event.getDetail()), event.getValue());
+                        long[] commands = stepOwner.pendingCommands.remove(event.getName());
+                        if (commands != null) {
+                            step.commandCount = (int) commands[0];
+                            step.commandNanos = commands[1];
+                        }
+                        Map<String, Double> breakdown = stepOwner.pendingBreakdowns.remove(event.getName());
+                        if (breakdown != null) {
+                            step.timeBreakdown = breakdown;
+                        }
+                        stepOwner.steps.add(step);
+                    }
+                    stepLatencies.computeIfAbsent(event.getName(), name -> new LatencyHistogram()).record(event.getValue());
+                    break;
+                case FAILURE:
+                    JournalTest failed = tests.get(event.getTestId());
+                    if (failed != null && failed.firstFailureDetail == null) {
+                        failed.firstFailureDetail = event.getDetail();
+                    }
+                    break;
+                case ARTIFACT:
+                    JournalTest artifactOwner = event.getTestId() != null ? tests.get(event.getTestId()) : null;
+                    if (artifactOwner == null) {
+                        artifactOwner = unattributed;
+                    }
+                    // Screenshots removed by the execution cleanup are skipped
+                    if (event.getDetail() != null && event.getDetail().endsWith(".png") && new File(event.getDetail()).exists()) {
+                        artifactOwner.screenshots.add(new ScreenshotEntry(new File(event.getDetail()), event.getName()));
+                    }
+                    break;
+                case COMMAND:
+                    commandLatencies.computeIfAbsent(event.getName(), name -> new LatencyHistogram()).record(event.getValue());
+                    commandPayloadBytes.merge(event.getName(), event.getSize(), Long::sum);
+                    JournalTest commandOwner = event.getTestId() != null ? tests.get(event.getTestId()) : null;
+                    if (commandOwner != null && event.getDetail() != null) {
+                        // Attributed to the step when its STEP_END arrives
+                        long[] commands = commandOwner.pendingCommands.computeIfAbsent(event.getDetail(), step -> new long[2]);
+                        commands[0]++;
+                        commands[1] += event.getValue();
+                    }
+                    break;
+                case METRIC:
+                    JournalTest metricOwner = event.getTestId() != null ? tests.get(event.getTestId()) : null;
+                    if (metricOwner != null && event.getName().startsWith(WaitAccounting.METRIC_PREFIX)) {
+                        // Steps get theirs when their STEP_END arrives
+                        Map<String, Double> breakdown = WaitAccounting.TEST_TOTAL.equals(event.getDetail()) ? metricOwner.timeBreakdown
+                            : metricOwner.pendingBreakdowns.computeIfAbsent(String.valueOf(event.getDetail()), step -> new HashMap<>());
+                        breakdown.put(event.getName(), event.getMetricValue());
+                    } else if (metricOwner != null && BrowserProcessSampler.METRICS_STEP.equals(event.getDetail())) {
+                        metricOwner.processUsage.put(event.getName(), event.getMetricValue());
+                    } else if (metricOwner != null) {
+                        metricOwner.browserMetrics.computeIfAbsent(String.valueOf(event.getDetail()), step -> new LinkedHashMap<>())
+                            .put(event.getName(), event.getMetricValue());
+                    }
+                    break;
+                case SPAN:
+                    if (WaitAccounting.WAIT_CATEGORY.equals(event.getDetail())) {
+                        waitLatencies.computeIfAbsent(event.getName(), condition -> new LatencyHistogram()).record(event.getValue());
+                    }
+                    break;
+                case BUDGET:
+                    JournalTest budgetOwner = event.getTestId() != null ? tests.get(event.getTestId()) : null;
+                    if (budgetOwner != null) {
+                        budgetOwner.budgetViolations.computeIfAbsent(event.getName(), step -> new ArrayList<>()).add(event.getDetail());
+                    }
+                    break;
+                case LOG:
+                    JournalTest logOwner = event.getTestId() != null ? tests.get(event.getTestId()) : null;
+                    if (logOwner != null) {
+                        if (logOwner.logLines.size() >= FrameworkLog.CAPTURED_LINES_PER_TEST) {
+                            logOwner.logLines.removeFirst();
+                        }
+                        logOwner.logLines.addLast(FrameworkLog.formatLine(event.getEpochMillis(), event.getThread(), event.getName(), event.getDetail()));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        
+        ReportData build() {
+            List<ScenarioData> scenarios = new ArrayList<>();
+            int failures = 0;
+            int errors = 0;
+            int totalScreenshots = unattributed.screenshots.size();
+            int budgetViolations = 0;
+            int flakyTests = 0;
+            int cachedTests = 0;
+            
+            for (JournalTest test : tests.values()) {
+                // Status comes from TEST_END, the FAILURE event only names the exception
+                boolean failed = "FAILED".equals(test.status) || "RETRIED".equals(test.status);
+                if (!failed && !test.retriedFailures.isEmpty()) {
+                    flakyTests++;
+                }
+                if (test.cachedFrom != null) {
+                    cachedTests++;
+                }
+                if (failed) {
+                    // Assertion failures count as failures, anything else as errors (JUnit semantics)
+                    // A budget violation is an assertion on performance, so it is a failure too
+                    if (test.getExceptionClass().contains("AssertionFailedError") || test.getExceptionClass().contains("AssertionError")
+                            || test.getExceptionClass().endsWith("PerformanceBudgetExceededError")) {
+                        failures++;
+                    } else {
+                        errors++;
+                    }
+                }
+                totalScreenshots += test.screenshots.size();
+                budgetViolations += test.budgetViolations.values().stream().mapToInt(List::size).sum();
+                scenarios.add(test.toScenario(failed));
+            }
+            
+            if (!unattributed.screenshots.isEmpty()) {
+                boolean failed = unattributed.screenshots.stream()
+                    .anyMatch(screenshot -> screenshot.stepName.toLowerCase().contains("failure"));
+                scenarios.add(unattributed.toScenario(failed));
+            }
+            
+            TestExecutionData executionData = new TestExecutionData(tests.size(), failures, errors, totalScreenshots);
+            executionData.budgetViolations = budgetViolations;
+            executionData.flakyTests = flakyTests;
+            executionData.cachedTests = cachedTests;
+            ReportData reportData = new ReportData(executionData, scenarios);
+            reportData.stepLatencies.putAll(stepLatencies);
+            reportData.commandLatencies.putAll(commandLatencies);
+            reportData.commandPayloadBytes.putAll(commandPayloadBytes);
+            reportData.waitLatencies.putAll(waitLatencies);
+            return reportData;
+        }
+    }
+    
+    /**
+     * Journal data of a single test
+     */
+    private static class JournalTest {
+        final String testId;
+        final String displayName;
+        final String testClass;
+        final String testMethod;
+        String status;
+        String firstFailureDetail;
+        final List<StepTiming> steps = new ArrayList<>();
+        final List<ScreenshotEntry> screenshots = new ArrayList<>();
+        // Command count and time per step name, for steps still running
+        final Map<String, long[]> pendingCommands = new HashMap<>();
+        final Map<String, Map<String, Double>> browserMetrics = new LinkedHashMap<>();
+        final Map<String, List<String>> budgetViolations = new LinkedHashMap<>();
+        final Map<String, Double> processUsage = new HashMap<>();
+        final Map<String, Double> timeBreakdown = new HashMap<>();
+        // Time breakdown per step name, for steps still running
+        final Map<String, Map<String, Double>> pendingBreakdowns = new HashMap<>();
+        final Deque<String> logLines = new ArrayDeque<>();
+        // First failure of each earlier attempt, oldest first
+        final List<String> retriedFailures = new ArrayList<>();
+        String cachedFrom;
+        long durationNanos;
+        
+        JournalTest(String testId, String displayName, String classAndMethod) {
+            this.testId = testId;
+            this.displayName = displayName;
+            String className = "Unknown";
+            String methodName = "Unknown";
+            if (classAndMethod != null && classAndMethod.contains("#")) {
+                className = classAndMethod.substring(0, classAndMethod.indexOf('#'));
+                methodName = classAndMethod.substring(classAndMethod.indexOf('#') + 1);
+            }
+            this.testClass = className.substring(className.lastIndexOf('.') + 1);
+            this.testMethod = methodName;
+        }
+        
+        String getExceptionClass() {
+            if (firstFailureDetail == null) {
+                return "Unknown";
+            }
+            int separator = firstFailureDetail.indexOf(':');
+            return separator > 0 ? firstFailureDetail.substring(0, separator) : firstFailureDetail;
+        }
+        
+        ScenarioData toScenario(boolean failed) {
+            TestContextInfo context = null;
+            if (failed && testId != null) {
+                context = new TestContextInfo();
+                context.testClass = testClass;
+                context.testMethod = testMethod;
+                String exceptionClass = getExceptionClass();
+                context.exceptionType = exceptionClass.substring(exceptionClass.lastIndexOf('.') + 1);
+                context.isDetailedFailure = true;
+            }
+            ScenarioData scenario = new ScenarioData(displayName, failed, context);
+            scenario.testId = testId;
+            scenario.steps.addAll(steps);
+            scenario.screenshots.addAll(screenshots);
+            scenario.browserMetrics.putAll(browserMetrics);
+            scenario.budgetViolations.putAll(budgetViolations);
+            scenario.processUsage.putAll(processUsage);
+            scenario.timeBreakdown.putAll(timeBreakdown);
+            scenario.retriedFailures.addAll(retriedFailures);
+            scenario.cachedFrom = cachedFrom;
+            // The log only matters when something went wrong
+            if (failed || !budgetViolations.isEmpty()) {
+                scenario.logLines.addAll(logLines);
+            }
+            scenario.durationNanos = durationNanos;
+            return scenario;
+        }
+    }
+    
+    /**
+     * Build the report model from the screenshots folder
+     * Used when no journal is available, e.g. for screenshots left by an older run
+     */
+    private static ReportData loadScreenshotFolderData() {
+        List<ScenarioData> scenarios = new ArrayList<>();
+        for (Map.Entry<String, List<File>> group : groupScreenshotsByScenario().entrySet()) {
+            List<File> screenshots = group.getValue();
+            
+            // Extract test context information from failure screenshots
+            TestContextInfo testContext = null;
+            for (File screenshot : screenshots) {
+                String stepName = getStepName(screenshot.getName());
+                TestContextInfo context = getTestContextInfo(stepName);
+                if (context.isDetailedFailure) {
+                    testContext = context;
+                    break; // Use the first detailed failure context found
+                }
+            }
+            
+            ScenarioData scenario = new ScenarioData(group.getKey(), hasFailureInScenario(screenshots), testContext);
+            for (File screenshot : screenshots) {
+                scenario.screenshots.add(new ScreenshotEntry(screenshot, getStepName(screenshot.getName())));
+            }
+            scenarios.add(scenario);
+        }
+        return new ReportData(getTestExecutionData(), scenarios);
+    }
+    
     /**
      * Get test execution data from screenshots
      */
@@ -245,7 +760,7 @@ public class ReportGenerator {
             .anyMatch(file -> file.getName().toLowerCase().contains("failure"));
     }
     
-    private static String generateHtmlContent() {
+    private static String generateHtmlContent(ReportData reportData) {
         StringBuilder html = new StringBuilder();
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
         
@@ -262,7 +777,7 @@ public class ReportGenerator {
         html.append("<body>\n");
         
         // Get test execution data
-        TestExecutionData executionData = getTestExecutionData();
+        TestExecutionData executionData = reportData.executionData;
         
         // Header
         html.append("    <div class=\"header\">\n");
@@ -280,97 +795,597 @@ public class ReportGenerator {
         html.append("            <div class=\"stat\"><span class=\"number\">").append(executionData.failures).append("</span><span class=\"label\">Failures</span></div>\n");
         html.append("            <div class=\"stat\"><span class=\"number\">").append(executionData.errors).append("</span><span class=\"label\">Errors</span></div>\n");
         html.append("            <div class=\"stat\"><span class=\"number\">").append(executionData.totalScreenshots).append("</span><span class=\"label\">Screenshots</span></div>\n");
+        if (executionData.flakyTests > 0) {
+            html.append("            <div class=\"stat flaky\"><span class=\"number\">").append(executionData.flakyTests).append("</span><span class=\"label\">Flaky (passed on retry)</span></div>\n");
+        }
+        if (executionData.cachedTests > 0) {
+            html.append("            <div class=\"stat cached\"><span class=\"number\">").append(executionData.cachedTests).append("</span><span class=\"label\">Cached (inputs unchanged)</span></div>\n");
+        }
+        if (executionData.budgetViolations > 0) {
+            html.append("            <div class=\"stat budget\"><span class=\"number\">").append(executionData.budgetViolations).append("</span><span class=\"label\">Budget Violations</span></div>\n");
+        }
         html.append("        </div>\n");
         html.append("    </div>\n");
         
+        // Step latency distribution of this run
+        if (!reportData.stepLatencies.isEmpty()) {
+            html.append(renderStepLatencies(reportData.stepLatencies));
+        }
+        
+        // WebDriver commands, when command tracing was enabled
+        if (!reportData.commandLatencies.isEmpty()) {
+            html.append(renderCommandLatencies(reportData.commandLatencies, reportData.commandPayloadBytes));
+        }
+        
+        // Time spent waiting versus doing, per test and per wait condition
+        if (!reportData.waitLatencies.isEmpty() || reportData.scenarios.stream().anyMatch(scenario -> !scenario.timeBreakdown.isEmpty())) {
+            html.append(renderWaitTime(reportData.scenarios, reportData.waitLatencies));
+        }
+        
+        // Browser process CPU and memory per test
+        if (reportData.scenarios.stream().anyMatch(scenario -> !scenario.processUsage.isEmpty())) {
+            html.append(renderProcessUsage(reportData.scenarios));
+        }
+        
+        // Latency trends over previous runs
+        if (reportData.history != null && !reportData.history.getRuns().isEmpty()) {
+            html.append(renderTrends(reportData.history));
+        }
+        
         // Test Scenarios
         html.append("    <div class=\"test-scenarios\">\n");
         html.append("        <h2>🔍 Test Scenarios</h2>\n");
         
-        // Group screenshots by test scenario
-        Map<String, List<File>> scenarioGroups = groupScreenshotsByScenario();
+        // Render each scenario section in parallel
+        for (String section : renderScenarioSections(reportData.scenarios, reportData.history)) {
+            html.append(section);
+        }
+        
+        html.append("    </div>\n");
         
-        int scenarioNumber = 1;
-        for (Map.Entry<String, List<File>> scenario : scenarioGroups.entrySet()) {
-            String scenarioName = scenario.getKey();
-            List<File> screenshots = scenario.getValue();
+        // Footer
+        html.append("    <div class=\"footer\">\n");
+        html.append("        <p>Generated by Selenium WebDriver Test Automation</p>\n");
+        String browser = System.getProperty("browser", "chrome").toLowerCase();
+        String browserVersion = ResultCache.getBrowserVersion(browser);
+        String browserLabel = Character.toUpperCase(browser.charAt(0)) + browser.substring(1) + (browserVersion != null ? " " + browserVersion : "");
+        html.append("        <p>Browser: ").append(escapeHtml(browserLabel)).append(" | Framework: JUnit 5 | Build Tool: Maven</p>\n");
+        html.append("    </div>\n");
+        
+        html.append("</body>\n");
+        html.append("</html>");
+        
+        return html.toString();
+    }
+    
+    /**
+     * Render all scenario sections on a bounded ForkJoinPool
+     * Sections are joined back in scenario order, so the output is identical to sequential generation
+     */
+    private static List<String> renderScenarioSections(List<ScenarioData> scenarios, RunHistoryStore.RunHistory history) {
+        ForkJoinPool pool = new ForkJoinPool(getReportParallelism());
+        try {
+            List<ForkJoinTask<String>> tasks = new ArrayList<>(scenarios.size());
+            for (int i = 0; i < scenarios.size(); i++) {
+                int scenarioNumber = i + 1;
+                ScenarioData scenario = scenarios.get(i);
+                tasks.add(pool.submit(() -> renderScenario(scenarioNumber, scenario, history)));
+            }
             
-            // Extract test context information from failure screenshots
-            TestContextInfo testContext = null;
-            for (File screenshot : screenshots) {
-                String stepName = getStepName(screenshot.getName());
-                TestContextInfo context = getTestContextInfo(stepName);
-                if (context.isDetailedFailure) {
-                    testContext = context;
-                    break; // Use the first detailed failure context found
+            List<String> sections = new ArrayList<>(tasks.size());
+            for (ForkJoinTask<String> task : tasks) {
+                sections.add(task.join());
+            }
+            return sections;
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * Number of worker threads used for report rendering
+     * Defaults to the available processors, override with -Dreport.parallelism=N
+     */
+    private static int getReportParallelism() {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        try {
+            parallelism = Integer.parseInt(System.getProperty(PARALLELISM_PROPERTY, String.valueOf(parallelism)));
+        } catch (NumberFormatException e) {
+            // Fall back to the available processors, still clamped below
+        }
+        return Math.max(1, Math.min(parallelism, MAX_PARALLELISM));
+    }
+    
+    /**
+     * Render a single scenario section
+     * Runs inside the report pool, so the screenshot encoding below is split across the same workers
+     */
+    private static String renderScenario(int scenarioNumber, ScenarioData scenario, RunHistoryStore.RunHistory history) {
+        StringBuilder html = new StringBuilder();
+        String scenarioName = escapeHtml(scenario.name);
+        List<ScreenshotEntry> screenshots = scenario.screenshots;
+        TestContextInfo testContext = scenario.testContext;
+        
+        // Read and encode every screenshot of the scenario in parallel, keeping step order
+        List<String> encodedImages = screenshots.parallelStream()
+            .map(screenshot -> encodeImageToBase64(screenshot.file))
+            .collect(Collectors.toList());
+        
+        html.append("        <div class=\"scenario\">\n");
+        html.append("            <div class=\"scenario-header\">\n");
+        html.append("                <div class=\"scenario-title-row\">\n");
+        html.append("                    <h3>Scenario ").append(scenarioNumber).append(": ").append(scenarioName).append("</h3>\n");
+        html.append("                    <span class=\"scenario-status ").append(scenario.failed ? "failure" : "success").append("\">")
+             .append(scenario.failed ? "❌ FAILED" : "✅ PASSED").append("</span>\n");
+        if (!scenario.retriedFailures.isEmpty()) {
+            int attempts = scenario.retriedFailures.size() + 1;
+            html.append("                    <span class=\"scenario-status flaky\">")
+                 .append(scenario.failed ? "🔁 " + attempts + " ATTEMPTS" : "🎲 FLAKY, PASSED ON ATTEMPT " + attempts).append("</span>\n");
+        }
+        if (scenario.cachedFrom != null) {
+            html.append("                    <span class=\"scenario-status cached\" title=\"Not executed, inputs unchanged since execution ")
+                 .append(escapeHtml(scenario.cachedFrom)).append("\">💾 CACHED FROM ").append(escapeHtml(scenario.cachedFrom)).append("</span>\n");
+        }
+        html.append("                </div>\n");
+        
+        // Add test context information if available
+        if (testContext != null && testContext.isDetailedFailure) {
+            html.append("                <div class=\"test-context\">\n");
+            html.append("                    <div class=\"test-info\">\n");
+            html.append("                        <span class=\"test-class\">📁 Test Class: <strong>").append(escapeHtml(testContext.testClass)).append("</strong></span>\n");
+            html.append("                        <span class=\"test-method\">🔧 Test Method: <strong>").append(escapeHtml(testContext.testMethod)).append("()</strong></span>\n");
+            html.append("                        <span class=\"exception-type\">⚠️ Exception: <strong>").append(escapeHtml(testContext.exceptionType)).append("</strong></span>\n");
+            html.append("                    </div>\n");
+            html.append("                </div>\n");
+        }
+        
+        // Performance budgets exceeded, kept apart from functional failures
+        if (!scenario.budgetViolations.isEmpty()) {
+            html.append("                <div class=\"budget-violations\">\n");
+            html.append("                    <strong>🐢 Performance budget exceeded</strong>\n");
+            html.append("                    <ul>\n");
+            for (Map.Entry<String, List<String>> step : scenario.budgetViolations.entrySet()) {
+                for (String violation : step.getValue()) {
+                    html.append("                        <li>").append(escapeHtml(step.getKey())).append(": ").append(escapeHtml(violation)).append("</li>\n");
                 }
             }
-            
-            html.append("        <div class=\"scenario\">\n");
-            html.append("            <div class=\"scenario-header\">\n");
-            html.append("                <div class=\"scenario-title-row\">\n");
-            html.append("                    <h3>Scenario ").append(scenarioNumber).append(": ").append(scenarioName).append("</h3>\n");
-            html.append("                    <span class=\"scenario-status ").append(hasFailureInScenario(screenshots) ? "failure" : "success").append("\">")
-                 .append(hasFailureInScenario(screenshots) ? "❌ FAILED" : "✅ PASSED").append("</span>\n");
+            html.append("                    </ul>\n");
             html.append("                </div>\n");
-            
-            // Add test context information if available
-            if (testContext != null && testContext.isDetailedFailure) {
-                html.append("                <div class=\"test-context\">\n");
-                html.append("                    <div class=\"test-info\">\n");
-                html.append("                        <span class=\"test-class\">📁 Test Class: <strong>").append(testContext.testClass).append("</strong></span>\n");
-                html.append("                        <span class=\"test-method\">🔧 Test Method: <strong>").append(testContext.testMethod).append("()</strong></span>\n");
-                html.append("                        <span class=\"exception-type\">⚠️ Exception: <strong>").append(testContext.exceptionType).append("</strong></span>\n");
-                html.append("                    </div>\n");
-                html.append("                </div>\n");
+        }
+        
+        // Failures of the attempts that were retried
+        if (!scenario.retriedFailures.isEmpty()) {
+            html.append("                <div class=\"retried-attempts\">\n");
+            html.append("                    <strong>🔁 Earlier attempts</strong>\n");
+            html.append("                    <ul>\n");
+            for (int i = 0; i < scenario.retriedFailures.size(); i++) {
+                html.append("                        <li>Attempt ").append(i + 1).append(": ").append(escapeHtml(scenario.retriedFailures.get(i))).append("</li>\n");
             }
-            
-            html.append("            </div>\n");
-            html.append("            <div class=\"scenario-steps\">\n");
-            
-            for (int i = 0; i < screenshots.size(); i++) {
-                File screenshot = screenshots.get(i);
-                String stepNumber = String.format("%02d", i + 1);
-                String stepName = getStepName(screenshot.getName());
-                String base64Image = encodeImageToBase64(screenshot);
-                boolean isFailure = stepName.toLowerCase().contains("failure");
-                
-                html.append("                <div class=\"step ").append(isFailure ? "failure-step" : "").append("\">\n");
-                html.append("                    <div class=\"step-header\">\n");
-                html.append("                        <h4>Step ").append(stepNumber).append(": ").append(stepName).append("</h4>\n");
-                html.append("                        <span class=\"step-status ").append(isFailure ? "failure" : "success").append("\">")
-                     .append(isFailure ? "❌ FAILED" : "✅ PASSED").append("</span>\n");
-                html.append("                    </div>\n");
-                html.append("                    <div class=\"step-content\">\n");
-                html.append("                        <div class=\"screenshot-container\">\n");
-                html.append("                            <img src=\"data:image/png;base64,").append(base64Image).append("\" alt=\"Step ").append(stepNumber).append(" Screenshot\" class=\"screenshot\">\n");
-                html.append("                        </div>\n");
-                html.append("                        <div class=\"step-description\">\n");
-                html.append("                            <p>").append(getStepDescription(stepName, scenarioName)).append("</p>\n");
-                html.append("                        </div>\n");
-                html.append("                    </div>\n");
-                html.append("                </div>\n");
+            html.append("                    </ul>\n");
+            html.append("                </div>\n");
+        }
+        
+        // Log captured while the test ran, collapsed to keep the report readable
+        if (!scenario.logLines.isEmpty()) {
+            html.append("                <details class=\"test-log\">\n");
+            html.append("                    <summary>📜 Test log (last ").append(scenario.logLines.size()).append(" lines)</summary>\n");
+            html.append("                    <pre>");
+            for (String line : scenario.logLines) {
+                html.append(escapeHtml(line)).append("\n");
             }
-            
+            html.append("</pre>\n");
+            html.append("                </details>\n");
+        }
+        
+        html.append("            </div>\n");
+        
+        // Step timings recorded in the journal
+        if (!scenario.steps.isEmpty()) {
+            boolean hasCommands = scenario.steps.stream().anyMatch(step -> step.commandCount > 0);
+            boolean hasBreakdown = scenario.steps.stream().anyMatch(step -> !step.timeBreakdown.isEmpty());
+            html.append("            <div class=\"step-timings\">\n");
+            html.append("                <table>\n");
+            html.append("                    <tr><th>#</th><th>Step</th><th>Duration</th>")
+                 .append(hasCommands ? "<th>Commands</th><th>Browser time</th>" : "")
+                 .append(hasBreakdown ? "<th>Waiting</th>" : "")
+                 .append("<th>Trend</th><th>p50 / p95</th><th>Status</th></tr>\n");
+            for (int i = 0; i < scenario.steps.size(); i++) {
+                StepTiming step = scenario.steps.get(i);
+                long[] stepHistory = history != null && scenario.testId != null
+                    ? history.getStepDurations(scenario.testId, step.name, getTrendRuns()) : new long[0];
+                html.append("                    <tr class=\"").append(step.passed ? "" : "failure-row").append("\">")
+                     .append("<td>").append(i + 1).append("</td>")
+                     .append("<td>").append(escapeHtml(step.name)).append("</td>")
+                     .append("<td>").append(formatDuration(step.durationNanos)).append("</td>");
+                if (hasCommands) {
+                    html.append("<td>").append(step.commandCount).append("</td>")
+                         .append("<td>").append(step.commandCount > 0 ? formatDuration(step.commandNanos) : "-").append("</td>");
+                }
+                if (hasBreakdown) {
+                    long waiting = toNanos(step.timeBreakdown.get(WaitAccounting.EXPLICIT_WAITS))
+                        + toNanos(step.timeBreakdown.get(WaitAccounting.IMPLICIT_WAITS))
+                        + toNanos(step.timeBreakdown.get(WaitAccounting.SLEEPS));
+                    html.append("<td>").append(step.timeBreakdown.isEmpty() ? "-" : formatShare(waiting, step.durationNanos)).append("</td>");
+                }
+                html.append("<td>").append(renderSparkline(stepHistory)).append("</td>")
+                     .append("<td>").append(formatPercentiles(stepHistory)).append("</td>")
+                     .append("<td>").append(!step.passed ? "❌" : scenario.budgetViolations.containsKey(step.name) ? "🐢" : "✅").append("</td></tr>\n");
+            }
+            html.append("                </table>\n");
             html.append("            </div>\n");
-            html.append("        </div>\n");
-            scenarioNumber++;
         }
         
+        // Front-end metrics collected after navigations
+        if (!scenario.browserMetrics.isEmpty()) {
+            html.append(renderBrowserMetrics(scenario.browserMetrics));
+        }
+        
+        html.append("            <div class=\"scenario-steps\">\n");
+        
+        for (int i = 0; i < screenshots.size(); i++) {
+            String stepNumber = String.format("%02d", i + 1);
+            String stepName = screenshots.get(i).stepName;
+            String base64Image = encodedImages.get(i);
+            boolean isFailure = stepName.toLowerCase().contains("failure");
+            
+            html.append("                <div class=\"step ").append(isFailure ? "failure-step" : "").append("\">\n");
+            html.append("                    <div class=\"step-header\">\n");
+            html.append("                        <h4>Step ").append(stepNumber).append(": ").append(escapeHtml(stepName)).append("</h4>\n");
+            html.append("                        <span class=\"step-status ").append(isFailure ? "failure" : "success").append("\">")
+                 .append(isFailure ? "❌ FAILED" : "✅ PASSED").append("</span>\n");
+            html.append("                    </div>\n");
+            html.append("                    <div class=\"step-content\">\n");
+            html.append("                        <div class=\"screenshot-container\">\n");
+            html.append("                            <img src=\"data:image/png;base64,").append(base64Image).append("\" alt=\"Step ").append(stepNumber).append(" Screenshot\" class=\"screenshot\">\n");
+            html.append("                        </div>\n");
+            html.append("                        <div class=\"step-description\">\n");
+            html.append("                            <p>").append(escapeHtml(getStepDescription(stepName, scenario.name))).append("</p>\n");
+            html.append("                        </div>\n");
+            html.append("                    </div>\n");
+            html.append("                </div>\n");
+        }
+        
+        html.append("            </div>\n");
+        html.append("        </div>\n");
+        
+        return html.toString();
+    }
+    
+    /**
+     * Load the run history for the trend section, the report is still generated without it
+     */
+    private static RunHistoryStore.RunHistory loadHistory() {
+        try {
+            return RunHistoryStore.load();
+        } catch (IOException e) {
+            FrameworkLog.warn("⚠️ Warning: Failed to load run history: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Number of most recent runs used for sparklines and percentiles
+     * Override with -Dhistory.trendRuns=N
+     */
+    private static int getTrendRuns() {
+        try {
+            return Math.max(2, Integer.parseInt(System.getProperty(TREND_RUNS_PROPERTY, String.valueOf(DEFAULT_TREND_RUNS))));
+        } catch (NumberFormatException e) {
+            return DEFAULT_TREND_RUNS;
+        }
+    }
+    
+    /**
+     * Render the per-test latency trend table over the last runs
+     */
+    private static String renderTrends(RunHistoryStore.RunHistory history) {
+        int trendRuns = getTrendRuns();
+        List<RunHistoryStore.RunRecord> runs = history.getRuns();
+        StringBuilder html = new StringBuilder();
+        html.append("    <div class=\"trends\">\n");
+        html.append("        <h2>📈 Performance Trends</h2>\n");
+        html.append("        <p class=\"trend-note\">Last ").append(Math.min(trendRuns, runs.size()))
+             .append(" of ").append(runs.size()).append(" recorded runs</p>\n");
+        html.append("        <table>\n");
+        html.append("            <tr><th>Test</th><th>Trend</th><th>Latest</th><th>p50</th><th>p95</th><th>Runs</th></tr>\n");
+        for (Map.Entry<String, String> test : history.getRecentTests(trendRuns).entrySet()) {
+            long[] durations = history.getTestDurations(test.getKey(), trendRuns);
+            if (durations.length == 0) {
+                continue;
+            }
+            html.append("            <tr>")
+                 .append("<td>").append(escapeHtml(test.getValue())).append("</td>")
+                 .append("<td>").append(renderSparkline(durations)).append("</td>")
+                 .append("<td>").append(formatDuration(durations[durations.length - 1])).append("</td>")
+                 .append("<td>").append(formatDuration(RunHistoryStore.percentile(durations, 50))).append("</td>")
+                 .append("<td>").append(formatDuration(RunHistoryStore.percentile(durations, 95))).append("</td>")
+                 .append("<td>").append(durations.length).append("</td></tr>\n");
+        }
+        html.append("        </table>\n");
         html.append("    </div>\n");
+        return html.toString();
+    }
+    
+    /**
+     * Render p50/p99/max per step name, aggregated over every execution of the step in this run
+     */
+    private static String renderStepLatencies(Map<String, LatencyHistogram> stepLatencies) {
+        StringBuilder html = new StringBuilder();
+        html.append("    <div class=\"trends\">\n");
+        html.append("        <h2>⏱️ Step Latency</h2>\n");
+        html.append("        <table>\n");
+        html.append("            <tr><th>Step</th><th>Count</th><th>p50</th><th>p99</th><th>Max</th></tr>\n");
+        for (Map.Entry<String, LatencyHistogram> step : stepLatencies.entrySet()) {
+            LatencyHistogram histogram = step.getValue();
+            html.append("            <tr>")
+                 .append("<td>").append(escapeHtml(step.getKey())).append("</td>")
+                 .append("<td>").append(histogram.getCount()).append("</td>")
+                 .append("<td>").append(formatDuration(histogram.getValueAtPercentile(50))).append("</td>")
+                 .append("<td>").append(formatDuration(histogram.getValueAtPercentile(99))).append("</td>")
+                 .append("<td>").append(formatDuration(histogram.getMax())).append("</td></tr>\n");
+        }
+        html.append("        </table>\n");
+        html.append("    </div>\n");
+        return html.toString();
+    }
+    
+    /**
+     * Render where each test's time went, and explicit waits by condition type, slowest total first
+     */
+    private static String renderWaitTime(List<ScenarioData> scenarios, Map<String, LatencyHistogram> waitLatencies) {
+        StringBuilder html = new StringBuilder();
+        html.append("    <div class=\"trends\">\n");
+        html.append("        <h2>⏳ Wait Time</h2>\n");
+        html.append("        <table>\n");
+        html.append("            <tr><th>Test</th><th>Duration</th><th>Commands</th><th>Explicit waits</th><th>Implicit waits</th><th>Sleeps</th><th>Other</th></tr>\n");
+        for (ScenarioData scenario : scenarios) {
+            Map<String, Double> breakdown = scenario.timeBreakdown;
+            if (breakdown.isEmpty()) {
+                continue;
+            }
+            long commands = toNanos(breakdown.get(WaitAccounting.COMMANDS));
+            long explicitWaits = toNanos(breakdown.get(WaitAccounting.EXPLICIT_WAITS));
+            long implicitWaits = toNanos(breakdown.get(WaitAccounting.IMPLICIT_WAITS));
+            long sleeps = toNanos(breakdown.get(WaitAccounting.SLEEPS));
+            long other = Math.max(0, scenario.durationNanos - commands - explicitWaits - implicitWaits - sleeps);
+            html.append("            <tr>")
+                 .append("<td>").append(escapeHtml(scenario.name)).append("</td>")
+                 .append("<td>").append(formatDuration(scenario.durationNanos)).append("</td>")
+                 .append("<td>").append(formatShare(commands, scenario.durationNanos)).append("</td>")
+                 .append("<td>").append(formatShare(explicitWaits, scenario.durationNanos)).append("</td>")
+                 .append("<td>").append(formatShare(implicitWaits, scenario.durationNanos)).append("</td>")
+                 .append("<td>").append(formatShare(sleeps, scenario.durationNanos)).append("</td>")
+                 .append("<td>").append(formatShare(other, scenario.durationNanos)).append("</td></tr>\n");
+        }
+        html.append("        </table>\n");
         
-        // Footer
-        html.append("    <div class=\"footer\">\n");
-        html.append("        <p>Generated by Selenium WebDriver Test Automation</p>\n");
-        html.append("        <p>Browser: Chrome | Framework: JUnit 5 | Build Tool: Maven</p>\n");
+        if (!waitLatencies.isEmpty()) {
+            List<Map.Entry<String, LatencyHistogram>> conditions = new ArrayList<>(waitLatencies.entrySet());
+            conditions.sort(Comparator.comparingLong((Map.Entry<String, LatencyHistogram> condition) -> condition.getValue().getTotal()).reversed());
+            html.append("        <table>\n");
+            html.append("            <tr><th>Wait condition</th><th>Count</th><th>Total</th><th>p50</th><th>p99</th><th>Max</th></tr>\n");
+            for (Map.Entry<String, LatencyHistogram> condition : conditions) {
+                LatencyHistogram histogram = condition.getValue();
+                html.append("            <tr>")
+                     .append("<td>").append(escapeHtml(condition.getKey())).append("</td>")
+                     .append("<td>").append(histogram.getCount()).append("</td>")
+                     .append("<td>").append(formatDuration(histogram.getTotal())).append("</td>")
+                     .append("<td>").append(formatDuration(histogram.getValueAtPercentile(50))).append("</td>")
+                     .append("<td>").append(formatDuration(histogram.getValueAtPercentile(99))).append("</td>")
+                     .append("<td>").append(formatDuration(histogram.getMax())).append("</td></tr>\n");
+            }
+            html.append("        </table>\n");
+        }
         html.append("    </div>\n");
+        return html.toString();
+    }
+    
+    private static long toNanos(Double millis) {
+        return millis != null ? (long) (millis * 1_000_000) : 0;
+    }
+    
+    private static String formatShare(long nanos, long totalNanos) {
+        if (totalNanos <= 0) {
+            return formatDuration(nanos);
+        }
+        return formatDuration(nanos) + String.format(Locale.ROOT, " (%.0f%%)", nanos * 100.0 / totalNanos);
+    }
+    
+    /**
+     * Render CPU and memory of each test's driver and browser processes, to size parallelism
+     */
+    private static String renderProcessUsage(List<ScenarioData> scenarios) {
+        StringBuilder html = new StringBuilder();
+        html.append("    <div class=\"trends\">\n");
+        html.append("        <h2>🖥️ Browser Processes</h2>\n");
+        html.append("        <table>\n");
+        html.append("            <tr><th>Test</th><th>Peak RSS</th><th>Average RSS</th><th>CPU time</th><th>Average CPU</th><th>Processes</th></tr>\n");
+        double maxPeakRss = 0;
+        double maxCores = 0;
+        for (ScenarioData scenario : scenarios) {
+            Map<String, Double> usage = scenario.processUsage;
+            if (usage.isEmpty()) {
+                continue;
+            }
+            Double peakRss = usage.get(BrowserProcessSampler.PEAK_RSS);
+            Double averageRss = usage.get(BrowserProcessSampler.AVERAGE_RSS);
+            double cores = usage.getOrDefault(BrowserProcessSampler.AVERAGE_CPU_CORES, 0.0);
+            maxPeakRss = Math.max(maxPeakRss, peakRss != null ? peakRss : 0);
+            maxCores = Math.max(maxCores, cores);
+            html.append("            <tr>")
+                 .append("<td>").append(escapeHtml(scenario.name)).append("</td>")
+                 .append("<td>").append(peakRss != null ? formatBytes(peakRss.longValue()) : "-").append("</td>")
+                 .append("<td>").append(averageRss != null ? formatBytes(averageRss.longValue()) : "-").append("</td>")
+                 .append("<td>").append(formatDuration((long) (usage.getOrDefault(BrowserProcessSampler.CPU_TIME, 0.0) * 1_000_000))).append("</td>")
+                 .append("<td>").append(String.format(Locale.ROOT, "%.2f cores", cores)).append("</td>")
+                 .append("<td>").append(usage.getOrDefault(BrowserProcessSampler.PEAK_PROCESS_COUNT, 0.0).intValue()).append("</td></tr>\n");
+        }
+        html.append("            <tr><th>Worst case</th><th>").append(maxPeakRss > 0 ? formatBytes((long) maxPeakRss) : "-")
+             .append("</th><th></th><th></th><th>").append(String.format(Locale.ROOT, "%.2f cores", maxCores)).append("</th><th></th></tr>\n");
+        html.append("        </table>\n");
+        html.append("    </div>\n");
+        return html.toString();
+    }
+    
+    /**
+     * Render WebDriver command statistics, hottest commands (by total time) first
+     */
+    private static String renderCommandLatencies(Map<String, LatencyHistogram> commandLatencies, Map<String, Long> commandPayloadBytes) {
+        List<Map.Entry<String, LatencyHistogram>> commands = new ArrayList<>(commandLatencies.entrySet());
+        commands.sort(Comparator.comparingLong((Map.Entry<String, LatencyHistogram> command) -> command.getValue().getTotal()).reversed());
         
-        html.append("</body>\n");
-        html.append("</html>");
+        StringBuilder html = new StringBuilder();
+        html.append("    <div class=\"trends\">\n");
+        html.append("        <h2>🌐 WebDriver Commands</h2>\n");
+        html.append("        <table>\n");
+        html.append("            <tr><th>Command</th><th>Count</th><th>Total</th><th>p50</th><th>p99</th><th>Max</th><th>Payload</th></tr>\n");
+        for (Map.Entry<String, LatencyHistogram> command : commands) {
+            LatencyHistogram histogram = command.getValue();
+            html.append("            <tr>")
+                 .append("<td>").append(escapeHtml(command.getKey())).append("</td>")
+                 .append("<td>").append(histogram.getCount()).append("</td>")
+                 .append("<td>").append(formatDuration(histogram.getTotal())).append("</td>")
+                 .append("<td>").append(formatDuration(histogram.getValueAtPercentile(50))).append("</td>")
+                 .append("<td>").append(formatDuration(histogram.getValueAtPercentile(99))).append("</td>")
+                 .append("<td>").append(formatDuration(histogram.getMax())).append("</td>")
+                 .append("<td>").append(formatBytes(commandPayloadBytes.getOrDefault(command.getKey(), 0L))).append("</td></tr>\n");
+        }
+        html.append("        </table>\n");
+        html.append("    </div>\n");
+        return html.toString();
+    }
+    
+    /**
+     * Render the browser metrics of a scenario, one row per step and only the columns that were reported
+     */
+    private static String renderBrowserMetrics(Map<String, Map<String, Double>> browserMetrics) {
+        String[][] columns = {
+            {BrowserMetricsCollector.TTFB, "TTFB", "ms"},
+            {BrowserMetricsCollector.DOM_CONTENT_LOADED, "DOM Ready", "ms"},
+            {BrowserMetricsCollector.LOAD, "Load", "ms"},
+            {BrowserMetricsCollector.LCP, "LCP", "ms"},
+            {BrowserMetricsCollector.CLS, "CLS", "score"},
+            {BrowserMetricsCollector.INP, "INP", "ms"},
+            {BrowserMetricsCollector.RESOURCE_COUNT, "Requests", "count"},
+            {BrowserMetricsCollector.RESOURCE_TRANSFER_SIZE, "Transfer", "bytes"},
+            {BrowserMetricsCollector.SLOWEST_RESOURCE, "Slowest Resource", "ms"},
+            {BrowserMetricsCollector.CDP_PREFIX + "JSHeapUsedSize", "JS Heap", "bytes"},
+            {BrowserMetricsCollector.CDP_PREFIX + "Nodes", "DOM Nodes", "count"},
+            {BrowserMetricsCollector.CDP_PREFIX + "ScriptDuration", "Script Time", "ms"}
+        };
+        List<String[]> shown = new ArrayList<>();
+        for (String[] column : columns) {
+            if (browserMetrics.values().stream().anyMatch(metrics -> metrics.containsKey(column[0]))) {
+                shown.add(column);
+            }
+        }
         
+        StringBuilder html = new StringBuilder();
+        html.append("            <div class=\"step-timings\">\n");
+        html.append("                <h4>🌐 Browser Metrics</h4>\n");
+        html.append("                <table>\n");
+        html.append("                    <tr><th>Step</th>");
+        for (String[] column : shown) {
+            html.append("<th>").append(column[1]).append("</th>");
+        }
+        html.append("</tr>\n");
+        for (Map.Entry<String, Map<String, Double>> step : browserMetrics.entrySet()) {
+            html.append("                    <tr><td>").append(escapeHtml(step.getKey())).append("</td>");
+            for (String[] column : shown) {
+                Double value = step.getValue().get(column[0]);
+                html.append("<td>").append(value == null ? "-" : formatMetric(value, column[2])).append("</td>");
+            }
+            html.append("</tr>\n");
+        }
+        html.append("                </table>\n");
+        html.append("            </div>\n");
         return html.toString();
     }
     
+    private static String formatMetric(double value, String unit) {
+        switch (unit) {
+            case "ms": return formatDuration((long) (value * 1_000_000));
+            case "bytes": return formatBytes((long) value);
+            case "score": return String.format(Locale.ROOT, "%.3f", value);
+            default: return String.valueOf((long) value);
+        }
+    }
+    
+    private static String formatBytes(long bytes) {
+        if (bytes >= 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024));
+        }
+        if (bytes >= 1024) {
+            return String.format(Locale.ROOT, "%.1f KB", bytes / 1024.0);
+        }
+        return bytes + " B";
+    }
+    
+    /**
+     * Inline SVG sparkline of durations, oldest first, with the latest value marked
+     */
+    private static String renderSparkline(long[] values) {
+        if (values.length < 2) {
+            return "";
+        }
+        int width = 120;
+        int height = 24;
+        long min = Arrays.stream(values).min().getAsLong();
+        long max = Arrays.stream(values).max().getAsLong();
+        double range = Math.max(1, max - min);
+        StringBuilder points = new StringBuilder();
+        double x = 0;
+        double y = 0;
+        for (int i = 0; i < values.length; i++) {
+            x = 2 + i * (width - 4.0) / (values.length - 1);
+            y = height - 2 - (values[i] - min) / range * (height - 4);
+            points.append(String.format(Locale.ROOT, "%.1f,%.1f ", x, y));
+        }
+        return String.format(Locale.ROOT,
+            "<svg class=\"sparkline\" width=\"%d\" height=\"%d\" viewBox=\"0 0 %d %d\">"
+                + "<polyline points=\"%s\"/><circle cx=\"%.1f\" cy=\"%.1f\" r=\"2\"/></svg>",
+            width, height, width, height, points.toString().trim(), x, y);
+    }
+    
+    private static String formatPercentiles(long[] values) {
+        if (values.length == 0) {
+            return "-";
+        }
+        return formatDuration(RunHistoryStore.percentile(values, 50)) + " / " + formatDuration(RunHistoryStore.percentile(values, 95));
+    }
+    
+    /**
+     * Format a nanosecond duration for display
+     */
+    private static String formatDuration(long nanos) {
+        double millis = nanos / 1_000_000.0;
+        if (millis >= 1000) {
+            return String.format(Locale.ROOT, "%.2f s", millis / 1000);
+        }
+        return String.format(Locale.ROOT, "%.1f ms", millis);
+    }
+    
+    /**
+     * Escape text coming from test names and exception messages
+     */
+    private static String escapeHtml(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<': escaped.append("&lt;"); break;
+                case '>': escaped.append("&gt;"); break;
+                case '&': escaped.append("&amp;"); break;
+                case '"': escaped.append("&quot;"); break;
+                default: escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+    
     private static String getCssStyles() {
         return """
             * {
@@ -483,6 +1498,68 @@ public class ReportGenerator {
                 width: 100%;
             }
             
+            .scenario-status.flaky {
+                background: rgba(243, 156, 18, 0.2);
+                color: #f39c12;
+                border: 1px solid #f39c12;
+            }
+            
+            .scenario-status.cached {
+                background: rgba(52, 152, 219, 0.2);
+                color: #2980b9;
+                border: 1px solid #2980b9;
+            }
+            
+            .retried-attempts {
+                margin-top: 10px;
+                padding: 8px 12px;
+                background: #fef9e7;
+                border-left: 4px solid #f39c12;
+                border-radius: 4px;
+                color: #333;
+                font-size: 0.9rem;
+            }
+            
+            .retried-attempts ul {
+                margin: 4px 0 0 0;
+                padding-left: 20px;
+            }
+            
+            .budget-violations {
+                margin-top: 10px;
+                padding: 8px 12px;
+                background: #fdf2e9;
+                border-left: 4px solid #e67e22;
+                border-radius: 4px;
+                font-size: 0.9rem;
+            }
+            
+            .budget-violations ul {
+                margin: 4px 0 0 0;
+                padding-left: 20px;
+            }
+            
+            .test-log {
+                margin-top: 10px;
+                font-size: 0.85rem;
+            }
+            
+            .test-log summary {
+                cursor: pointer;
+                color: #555;
+            }
+            
+            .test-log pre {
+                max-height: 300px;
+                overflow: auto;
+                margin: 6px 0 0 0;
+                padding: 8px 12px;
+                background: #2c3e50;
+                color: #ecf0f1;
+                border-radius: 4px;
+                white-space: pre-wrap;
+            }
+            
             .test-info {
                 display: flex;
                 flex-wrap: wrap;
@@ -565,6 +1642,30 @@ public class ReportGenerator {
                 font-size: 0.9rem;
             }
             
+            .stat.budget {
+                border-left-color: #e67e22;
+            }
+            
+            .stat.budget .number {
+                color: #e67e22;
+            }
+            
+            .stat.flaky {
+                border-left-color: #f39c12;
+            }
+            
+            .stat.flaky .number {
+                color: #f39c12;
+            }
+            
+            .stat.cached {
+                border-left-color: #2980b9;
+            }
+            
+            .stat.cached .number {
+                color: #2980b9;
+            }
+            
             .test-steps {
                 background: rgba(255, 255, 255, 0.95);
                 margin: 0 2rem 2rem 2rem;
@@ -613,6 +1714,74 @@ public class ReportGenerator {
                 color: #155724;
             }
             
+            .step-timings {
+                padding: 1rem 1.5rem;
+                background: #fff;
+                border-bottom: 1px solid #e0e0e0;
+            }
+            
+            .step-timings table {
+                width: 100%;
+                border-collapse: collapse;
+                font-size: 0.9rem;
+            }
+            
+            .step-timings th, .step-timings td {
+                text-align: left;
+                padding: 0.4rem 0.6rem;
+                border-bottom: 1px solid #f0f0f0;
+            }
+            
+            .step-timings th {
+                color: #7f8c8d;
+                font-weight: 600;
+            }
+            
+            .step-timings .failure-row {
+                background: #fdf2f2;
+                color: #e74c3c;
+            }
+            
+            .trends {
+                background: rgba(255, 255, 255, 0.95);
+                margin: 0 2rem 2rem 2rem;
+                padding: 2rem;
+                border-radius: 10px;
+                box-shadow: 0 4px 6px rgba(0, 0, 0, 0.1);
+            }
+            
+            .trends h2 {
+                color: #2c3e50;
+                margin-bottom: 0.5rem;
+            }
+            
+            .trend-note {
+                color: #7f8c8d;
+                margin-bottom: 1rem;
+            }
+            
+            .trends table {
+                width: 100%;
+                border-collapse: collapse;
+                font-size: 0.9rem;
+            }
+            
+            .trends th, .trends td {
+                text-align: left;
+                padding: 0.4rem 0.6rem;
+                border-bottom: 1px solid #f0f0f0;
+            }
+            
+            .sparkline polyline {
+                fill: none;
+                stroke: #3498db;
+                stroke-width: 1.5;
+            }
+            
+            .sparkline circle {
+                fill: #e74c3c;
+            }
+            
             .step-content {
                 padding: 1.5rem;
             }
@@ -828,7 +1997,7 @@ public class ReportGenerator {
             byte[] imageBytes = Files.readAllBytes(imageFile.toPath());
             return Base64.getEncoder().encodeToString(imageBytes);
         } catch (IOException e) {
-            System.err.println("Failed to encode image: " + e.getMessage());
+            FrameworkLog.warn("⚠️ Warning: Failed to encode image: " + e.getMessage());
             return "";
         }
     }
@@ -837,8 +2006,15 @@ public class ReportGenerator {
      * Main method to generate report from command line
      */
     public static void main(String[] args) {
-        System.out.println("🚀 Starting report generation...");
-        generateReport();
-        System.out.println("✅ Report generation completed!");
+        FrameworkLog.info("🚀 Starting report generation...");
+        // Use the journal given as argument, otherwise the journals of the latest execution in target/journal
+        if (args.length > 0) {
+            generateReport(Paths.get(args[0]));
+        } else {
+            generateReport(ExecutionJournal.findLatestJournal()
+                .map(latest -> ExecutionJournal.getJournalFiles(ExecutionJournal.getExecutionId(latest)))
+                .orElse(Collections.emptyList()));
+        }
+        FrameworkLog.info("✅ Report generation completed!");
     }
 }
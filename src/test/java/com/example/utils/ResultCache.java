@@ -0,0 +1,535 @@
+package com.example.utils;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Result cache that skips tests whose inputs did not change since they last passed
+ * Meant for tests against replayed or static pages: a test opts in with @ResultCache.Cacheable and lists the
+ * fixtures it loads. Its input hash covers the bytecode of the test class and of every framework class it
+ * reaches, the browser name, version and headless mode, and the content of the fixtures. A test whose hash
+ * matches its last passing run is not executed and is reported as CACHED, with the screenshots of that run.
+ * -Dcache.force=true runs every test and refreshes the cache, -Dcache.enabled=false turns it off.
+ * Entries live under test-history/result-cache, so they survive mvn clean. No browser runs yet when a test
+ * is looked up, so the browser version is -Dbrowser.version or else the one of the last session started,
+ * unless the installed browser binary is newer than that record.
+ */
+public class ResultCache implements ExecutionJournal.Listener {
+    private static final String ENABLED_PROPERTY = "cache.enabled";
+    private static final String FORCE_PROPERTY = "cache.force";
+    private static final String BROWSER_VERSION_PROPERTY = "browser.version";
+    private static final String CACHE_DIR = "result-cache";
+    private static final String ENTRY_EXTENSION = ".properties";
+    private static final String VERSION_EXTENSION = ".version";
+    private static final int CLASS_MAGIC = 0xCAFEBABE;
+    // Classes under the framework root package (com/example/) are part of the input hash, libraries are not
+    private static final String FRAMEWORK_PREFIX = ResultCache.class.getPackageName()
+        .substring(0, ResultCache.class.getPackageName().lastIndexOf('.')).replace('.', '/') + "/";
+    
+    // Hash of a test class and the framework classes it reaches, by test class
+    private static final Map<Class<?>, String> codeHashes = new ConcurrentHashMap<>();
+    // Browser versions seen by this JVM, by browser name
+    private static final Map<String, String> browserVersions = new ConcurrentHashMap<>();
+    // Inputs of the cacheable tests about to run, without the browser, by test ID
+    private static final Map<String, String> pendingInputs = new ConcurrentHashMap<>();
+    private static volatile boolean started;
+    
+    // Cacheable tests in progress, only touched by the journal writer thread
+    private final Map<String, Recording> recordings = new HashMap<>();
+    private final Set<String> retriedTests = new HashSet<>();
+    
+    /**
+     * Marks a test, or every test of a class, whose result may be reused while its inputs are unchanged
+     * Only for tests whose pages come from fixtures: a live site can change without the hash noticing.
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.TYPE, ElementType.METHOD})
+    public @interface Cacheable {
+        /**
+         * Fixture files or directories the test loads, relative to the working directory or on the classpath
+         */
+        String[] fixtures() default {};
+    }
+    
+    /**
+     * Cached result of a test, from the last run that passed with the same inputs
+     */
+    public static class Hit {
+        private final String executionId;
+        private final long durationNanos;
+        private final List<Map.Entry<String, Path>> screenshots;
+        
+        Hit(String executionId, long durationNanos, List<Map.Entry<String, Path>> screenshots) {
+            this.executionId = executionId;
+            this.durationNanos = durationNanos;
+            this.screenshots = screenshots;
+        }
+        
+        public String getExecutionId() { return executionId; }
+        // Duration of the run the result comes from
+        public long getDurationNanos() { return durationNanos; }
+        // Step name and file of each screenshot, in capture order
+        public List<Map.Entry<String, Path>> getScreenshots() { return Collections.unmodifiableList(screenshots); }
+    }
+    
+    /**
+     * Screenshots and failures of a running cacheable test
+     */
+    private static class Recording {
+        private final List<Map.Entry<String, Path>> screenshots = new ArrayList<>();
+        private boolean failed;
+    }
+    
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+    }
+    
+    public static boolean isForced() {
+        return Boolean.parseBoolean(System.getProperty(FORCE_PROPERTY, "false"));
+    }
+    
+    /**
+     * Start recording the results of cacheable tests, once per JVM
+     */
+    public static synchronized void startIfEnabled() {
+        if (started || !isEnabled()) {
+            return;
+        }
+        started = true;
+        ExecutionJournal.addLiveListener(new ResultCache());
+    }
+    
+    /**
+     * Cached result of a test whose inputs are unchanged since it last passed, if any
+     * A cacheable test without one is recorded when it passes, and so is every cacheable test with -Dcache.force=true
+     */
+    public static Optional<Hit> lookup(String testId, Class<?> testClass, Method testMethod) {
+        Cacheable cacheable = testMethod.isAnnotationPresent(Cacheable.class)
+            ? testMethod.getAnnotation(Cacheable.class) : testClass.getAnnotation(Cacheable.class);
+        if (!started || cacheable == null) {
+            return Optional.empty();
+        }
+        String inputs;
+        try {
+            inputs = hash(testId, getCodeHash(testClass), getFixturesHash(testClass, cacheable.fixtures()));
+        } catch (IOException e) {
+            FrameworkLog.warn("⚠️ Warning: Could not hash the inputs of " + testId + ", running it: " + e.getMessage());
+            return Optional.empty();
+        }
+        pendingInputs.put(testId, inputs);
+        if (isForced()) {
+            return Optional.empty();
+        }
+        Optional<Hit> hit = load(testId, hash(inputs, getBrowserKey()));
+        if (hit.isPresent()) {
+            pendingInputs.remove(testId);
+        }
+        return hit;
+    }
+    
+    /**
+     * Record a cached result in the journal as the test's outcome, with copies of its screenshots
+     * @return Number of screenshots attached
+     */
+    public static int replay(Hit hit, String testId, String displayName, String className, String methodName) {
+        ExecutionJournal.testStarted(testId, displayName, className, methodName);
+        int screenshots = 0;
+        for (Map.Entry<String, Path> screenshot : hit.screenshots) {
+            if (ScreenshotUtil.copyScreenshot(screenshot.getValue(), screenshot.getKey()) != null) {
+                screenshots++;
+            }
+        }
+        ExecutionJournal.testFinished(testId, "CACHED", 0, hit.executionId);
+        return screenshots;
+    }
+    
+    /**
+     * Remember the version of a browser session that was just started, for the cache keys of later runs
+     * Called with the undecorated driver, which exposes its capabilities
+     */
+    public static void recordBrowserVersion(String browser, WebDriver driver) {
+        if (!(driver instanceof HasCapabilities)) {
+            return;
+        }
+        String version = ((HasCapabilities) driver).getCapabilities().getBrowserVersion();
+        // Remembered even with the cache disabled, the report footer shows it
+        if (version == null || version.isEmpty() || version.equals(browserVersions.put(browser, version)) || !isEnabled()) {
+            return;
+        }
+        Path versionFile = getCacheDir().resolve(browser + VERSION_EXTENSION);
+        try {
+            Files.createDirectories(versionFile.getParent());
+            Path tempFile = versionFile.resolveSibling(versionFile.getFileName() + ".tmp" + ProcessHandle.current().pid());
+            Files.write(tempFile, version.getBytes(StandardCharsets.UTF_8));
+            Files.move(tempFile, versionFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            FrameworkLog.warn("⚠️ Warning: Could not record the " + browser + " version: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Version of a browser from -Dbrowser.version or the sessions this JVM started, null when not known
+     */
+    public static String getBrowserVersion(String browser) {
+        String version = System.getProperty(BROWSER_VERSION_PROPERTY, browserVersions.get(browser));
+        return "unknown".equals(version) ? null : version;
+    }
+    
+    public static Path getCacheDir() {
+        return RunHistoryStore.getHistoryDir().resolve(CACHE_DIR);
+    }
+    
+    // ---------------------------------------------------------------------
+    // Input hashing
+    // ---------------------------------------------------------------------
+    
+    /**
+     * Browser name, version and headless mode the tests of this run use
+     */
+    private static String getBrowserKey() {
+        String browser = System.getProperty("browser", "chrome").toLowerCase();
+        String version = System.getProperty(BROWSER_VERSION_PROPERTY);
+        if (version == null) {
+            version = browserVersions.computeIfAbsent(browser, ResultCache::readRecordedVersion);
+        }
+        return browser + "/" + version + "/headless=" + Boolean.parseBoolean(System.getProperty("headless", "false"));
+    }
+    
+    /**
+     * Version recorded by the last session of a browser, "unknown" when there is none or when the installed
+     * browser binary is newer than the record, e.g. after an update; cacheable tests then run and record it again
+     */
+    private static String readRecordedVersion(String browser) {
+        Path versionFile = getCacheDir().resolve(browser + VERSION_EXTENSION);
+        try {
+            String version = new String(Files.readAllBytes(versionFile), StandardCharsets.UTF_8).trim();
+            Optional<Path> binary = findBrowserBinary(browser);
+            if (binary.isPresent() && Files.getLastModifiedTime(binary.get()).compareTo(Files.getLastModifiedTime(versionFile)) > 0) {
+                FrameworkLog.info("💾 " + browser + " changed since version " + version + " was recorded, cacheable tests will run");
+                return "unknown";
+            }
+            return version;
+        } catch (IOException e) {
+            return "unknown";
+        }
+    }
+    
+    private static Optional<Path> findBrowserBinary(String browser) {
+        try {
+            switch (browser) {
+                case "firefox":
+                    return WebDriverManager.firefoxdriver().getBrowserPath();
+                case "edge":
+                    return WebDriverManager.edgedriver().getBrowserPath();
+                default:
+                    return WebDriverManager.chromedriver().getBrowserPath();
+            }
+        } catch (RuntimeException e) {
+            FrameworkLog.debug(() -> "💾 Could not locate the " + browser + " binary: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * Hash of the bytecode of a test class and of every framework class reachable from its constant pool
+     */
+    private static String getCodeHash(Class<?> testClass) throws IOException {
+        String cached = codeHashes.get(testClass);
+        if (cached != null) {
+            return cached;
+        }
+        ClassLoader loader = testClass.getClassLoader() != null ? testClass.getClassLoader() : ClassLoader.getSystemClassLoader();
+        Map<String, byte[]> classes = new TreeMap<>();
+        Deque<String> pending = new ArrayDeque<>();
+        pending.add(testClass.getName().replace('.', '/'));
+        while (!pending.isEmpty()) {
+            String name = pending.poll();
+            if (classes.containsKey(name)) {
+                continue;
+            }
+            byte[] bytecode = readClass(loader, name);
+            classes.put(name, bytecode);
+            for (String referenced : getReferencedClasses(bytecode)) {
+                if (!classes.containsKey(referenced)) {
+                    pending.add(referenced);
+                }
+            }
+        }
+        MessageDigest digest = newDigest();
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(entry.getValue());
+        }
+        String hash = toHex(digest.digest());
+        FrameworkLog.debug(() -> "💾 " + testClass.getSimpleName() + " depends on " + classes.size() + " framework classes");
+        codeHashes.put(testClass, hash);
+        return hash;
+    }
+    
+    // Empty for a name that is not a class, e.g. a string constant that happens to look like one
+    private static byte[] readClass(ClassLoader loader, String internalName) throws IOException {
+        try (InputStream in = loader.getResourceAsStream(internalName + ".class")) {
+            return in != null ? in.readAllBytes() : new byte[0];
+        }
+    }
+    
+    /**
+     * Framework classes named in a class file's constant pool, as class entries or inside descriptors
+     */
+    private static Set<String> getReferencedClasses(byte[] bytecode) throws IOException {
+        Set<String> referenced = new HashSet<>();
+        if (bytecode.length == 0) {
+            return referenced;
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytecode));
+        if (in.readInt() != CLASS_MAGIC) {
+            return referenced;
+        }
+        in.skipBytes(4);
+        int count = in.readUnsignedShort();
+        for (int index = 1; index < count; index++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    collectFrameworkNames(in.readUTF(), referenced);
+                    break;
+                case 5:
+                case 6:
+                    // Long and double take two slots
+                    in.skipBytes(8);
+                    index++;
+                    break;
+                case 3:
+                case 4:
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                case 17:
+                case 18:
+                    in.skipBytes(4);
+                    break;
+                case 15:
+                    in.skipBytes(3);
+                    break;
+                case 7:
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    in.skipBytes(2);
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+        return referenced;
+    }
+    
+    private static void collectFrameworkNames(String value, Set<String> names) {
+        int start = value.indexOf(FRAMEWORK_PREFIX);
+        while (start >= 0) {
+            int end = start + FRAMEWORK_PREFIX.length();
+            while (end < value.length() && (Character.isJavaIdentifierPart(value.charAt(end)) || value.charAt(end) == '/')) {
+                end++;
+            }
+            names.add(value.substring(start, end));
+            start = value.indexOf(FRAMEWORK_PREFIX, end);
+        }
+    }
+    
+    /**
+     * Hash of the fixture files, directories being walked in path order
+     */
+    private static String getFixturesHash(Class<?> testClass, String[] fixtures) throws IOException {
+        MessageDigest digest = newDigest();
+        for (String fixture : fixtures) {
+            digest.update(fixture.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            Path path = Paths.get(fixture);
+            if (Files.isDirectory(path)) {
+                List<Path> files;
+                try (Stream<Path> walk = Files.walk(path)) {
+                    files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+                }
+                for (Path file : files) {
+                    digest.update(path.relativize(file).toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0);
+                    digest.update(Files.readAllBytes(file));
+                }
+            } else if (Files.isRegularFile(path)) {
+                digest.update(Files.readAllBytes(path));
+            } else {
+                try (InputStream in = testClass.getClassLoader().getResourceAsStream(fixture.replaceFirst("^/", ""))) {
+                    if (in == null) {
+                        throw new IOException("Fixture not found: " + fixture);
+                    }
+                    digest.update(in.readAllBytes());
+                }
+            }
+        }
+        return toHex(digest.digest());
+    }
+    
+    private static String hash(String... parts) {
+        MessageDigest digest = newDigest();
+        for (String part : parts) {
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return toHex(digest.digest());
+    }
+    
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+    
+    // ---------------------------------------------------------------------
+    // Entries, one per test: TEST_HASH.properties and its screenshots in TEST_HASH/
+    // ---------------------------------------------------------------------
+    
+    private static Optional<Hit> load(String testId, String key) {
+        Path entryFile = getCacheDir().resolve(hash(testId) + ENTRY_EXTENSION);
+        if (!Files.isRegularFile(entryFile)) {
+            return Optional.empty();
+        }
+        Properties entry = new Properties();
+        try (InputStream in = Files.newInputStream(entryFile)) {
+            entry.load(in);
+        } catch (IOException e) {
+            FrameworkLog.warn("⚠️ Warning: Could not read cache entry " + entryFile + ": " + e.getMessage());
+            return Optional.empty();
+        }
+        if (!key.equals(entry.getProperty("key"))) {
+            return Optional.empty();
+        }
+        List<Map.Entry<String, Path>> screenshots = new ArrayList<>();
+        int count = Integer.parseInt(entry.getProperty("screenshots", "0"));
+        for (int i = 0; i < count; i++) {
+            Path file = entryFile.resolveSibling(entry.getProperty("screenshot." + i + ".file", ""));
+            if (!Files.isRegularFile(file)) {
+                // Screenshots were removed by hand, the result cannot be shown as it was
+                return Optional.empty();
+            }
+            screenshots.add(Map.entry(entry.getProperty("screenshot." + i + ".step", "Cached"), file));
+        }
+        return Optional.of(new Hit(entry.getProperty("executionId"), Long.parseLong(entry.getProperty("durationNanos", "0")), screenshots));
+    }
+    
+    @Override
+    public void onEvent(ExecutionJournal.Event event) {
+        switch (event.getType()) {
+            case TEST_START:
+                if (pendingInputs.containsKey(event.getTestId())) {
+                    recordings.put(event.getTestId(), new Recording());
+                }
+                break;
+            case FAILURE:
+                Recording failed = event.getTestId() != null ? recordings.get(event.getTestId()) : null;
+                if (failed != null) {
+                    failed.failed = true;
+                }
+                break;
+            case ARTIFACT:
+                Recording artifactOwner = event.getTestId() != null ? recordings.get(event.getTestId()) : null;
+                if (artifactOwner != null && event.getDetail() != null && event.getDetail().endsWith(".png")) {
+                    artifactOwner.screenshots.add(Map.entry(event.getName() != null ? event.getName() : "Screenshot", Paths.get(event.getDetail())));
+                }
+                break;
+            case TEST_END:
+                Recording finished = recordings.remove(event.getTestId());
+                if (finished == null) {
+                    break;
+                }
+                if ("RETRIED".equals(event.getName())) {
+                    // A flaky pass is no result to reuse
+                    retriedTests.add(event.getTestId());
+                    break;
+                }
+                String inputs = pendingInputs.remove(event.getTestId());
+                boolean retried = retriedTests.remove(event.getTestId());
+                if (inputs != null && !retried && !finished.failed && "PASSED".equals(event.getName())) {
+                    // The browser version is read now that the test has started its browser
+                    store(event.getTestId(), hash(inputs, getBrowserKey()), finished, event.getValue());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Write the entry of a passed test, replacing the previous one
+     */
+    private static void store(String testId, String key, Recording recording, long durationNanos) {
+        String testHash = hash(testId);
+        Path entryFile = getCacheDir().resolve(testHash + ENTRY_EXTENSION);
+        Path screenshotDir = getCacheDir().resolve(testHash);
+        String executionId = ExecutionIdManager.getCurrentExecutionId();
+        try {
+            Files.createDirectories(screenshotDir);
+            Properties entry = new Properties();
+            entry.setProperty("testId", testId);
+            entry.setProperty("key", key);
+            entry.setProperty("executionId", executionId);
+            entry.setProperty("durationNanos", String.valueOf(durationNanos));
+            Set<String> files = new HashSet<>();
+            int count = 0;
+            for (Map.Entry<String, Path> screenshot : recording.screenshots) {
+                // Named after the execution, so a run reading the previous entry never sees a half-copied file
+                String file = String.format("%02d_%s%s.png", count + 1, executionId, ExecutionIdManager.getForkSuffix());
+                Files.copy(screenshot.getValue(), screenshotDir.resolve(file), StandardCopyOption.REPLACE_EXISTING);
+                entry.setProperty("screenshot." + count + ".step", screenshot.getKey());
+                entry.setProperty("screenshot." + count + ".file", testHash + "/" + file);
+                files.add(file);
+                count++;
+            }
+            entry.setProperty("screenshots", String.valueOf(count));
+            Path tempFile = entryFile.resolveSibling(entryFile.getFileName() + ".tmp" + ProcessHandle.current().pid());
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                entry.store(out, "Cached result of " + testId);
+            }
+            Files.move(tempFile, entryFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            try (Stream<Path> previous = Files.list(screenshotDir)) {
+                for (Path stale : previous.filter(path -> !files.contains(path.getFileName().toString())).collect(Collectors.toList())) {
+                    Files.deleteIfExists(stale);
+                }
+            }
+        } catch (IOException e) {
+            FrameworkLog.warn("⚠️ Warning: Could not cache the result of " + testId + ": " + e.getMessage());
+        }
+    }
+}
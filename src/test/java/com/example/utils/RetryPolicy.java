@@ -0,0 +1,76 @@
+package com.example.utils;
+
+import org.opentest4j.TestAbortedException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * When a failed test is attempted again within the same run
+ * Off by default; -Dretry.count=N allows up to N more attempts of a failed test. -Dretry.on takes a
+ * comma-separated list of exception names (simple or fully qualified, e.g. TimeoutException,
+ * StaleElementReferenceException) and limits retries to failures caused by one of them, anywhere in
+ * the cause chain and including subclasses. Aborted tests and exceeded performance budgets are never retried.
+ */
+public final class RetryPolicy {
+    private static final String COUNT_PROPERTY = "retry.count";
+    private static final String ON_PROPERTY = "retry.on";
+    private static final int MAX_CAUSE_DEPTH = 16;
+    
+    private static final int maxRetries = Math.max(0, Integer.getInteger(COUNT_PROPERTY, 0));
+    private static final Set<String> retryOn = parseNames(System.getProperty(ON_PROPERTY, ""));
+    
+    private RetryPolicy() {
+    }
+    
+    public static boolean isEnabled() {
+        return maxRetries > 0;
+    }
+    
+    /**
+     * Attempts a test may get in total, the first one included
+     */
+    public static int getMaxAttempts() {
+        return maxRetries + 1;
+    }
+    
+    /**
+     * Whether a test that failed on the given attempt (from 1) should run again
+     */
+    public static boolean shouldRetry(Throwable failure, int attempt) {
+        if (attempt >= getMaxAttempts() || isNeverRetried(failure)) {
+            return false;
+        }
+        return retryOn.isEmpty() || matches(failure);
+    }
+    
+    private static boolean isNeverRetried(Throwable failure) {
+        // Skipped tests are not failures, a slow page is not flaky, and a broken JVM will not recover
+        return failure instanceof TestAbortedException || failure instanceof PerformanceBudgetExceededError
+            || failure instanceof VirtualMachineError;
+    }
+    
+    private static boolean matches(Throwable failure) {
+        Throwable cause = failure;
+        for (int depth = 0; cause != null && depth < MAX_CAUSE_DEPTH; depth++, cause = cause.getCause()) {
+            for (Class<?> type = cause.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+                if (retryOn.contains(type.getName()) || retryOn.contains(type.getSimpleName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private static Set<String> parseNames(String value) {
+        if (value.isBlank()) {
+            return Collections.emptySet();
+        }
+        return Arrays.stream(value.split(","))
+            .map(String::trim)
+            .filter(name -> !name.isEmpty())
+            .collect(Collectors.toSet());
+    }
+}
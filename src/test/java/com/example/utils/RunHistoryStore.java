@@ -0,0 +1,352 @@
+package com.example.utils;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Embedded, file-based history of past runs used for latency trends
+ * Every run is appended as one block of tab-separated lines (RUN, TEST..., STEP..., END) to
+ * run-history.log, so a crashed write only loses its own incomplete block. Regenerating the report
+ * for the same execution appends a newer block that supersedes the older one. Compaction rewrites
+ * the file with only the latest block of the newest history.maxRuns runs.
+ * The store lives outside target/ by default (history.dir) so it survives mvn clean and can be cached in CI.
+ */
+public class RunHistoryStore {
+    private static final String HISTORY_DIR_PROPERTY = "history.dir";
+    private static final String MAX_RUNS_PROPERTY = "history.maxRuns";
+    private static final String DEFAULT_HISTORY_DIR = "test-history";
+    private static final int DEFAULT_MAX_RUNS = 100;
+    private static final int COMPACTION_SLACK = 20;
+    private static final String HISTORY_FILE = "run-history.log";
+    private static final String LOCK_FILE = "run-history.lock";
+    
+    /**
+     * Summary of one past run
+     */
+    public static class RunRecord {
+        public final String executionId;
+        public final long startEpochMillis;
+        public final long wallClockMillis;
+        public final int totalTests;
+        public final int failedTests;
+        public final int erroredTests;
+        public final int skippedTests;
+        final Map<String, TestRecord> tests = new LinkedHashMap<>();
+        
+        RunRecord(String executionId, long startEpochMillis, long wallClockMillis,
+                  int totalTests, int failedTests, int erroredTests, int skippedTests) {
+            this.executionId = executionId;
+            this.startEpochMillis = startEpochMillis;
+            this.wallClockMillis = wallClockMillis;
+            this.totalTests = totalTests;
+            this.failedTests = failedTests;
+            this.erroredTests = erroredTests;
+            this.skippedTests = skippedTests;
+        }
+        
+        public Collection<TestRecord> getTests() { return tests.values(); }
+        public TestRecord getTest(String testId) { return tests.get(testId); }
+    }
+    
+    /**
+     * One test of a past run, steps with the same name are summed
+     */
+    public static class TestRecord {
+        public final String testId;
+        public final String displayName;
+        public final String status;
+        public final long durationNanos;
+        public final int artifactCount;
+        final Map<String, Long> stepDurations = new LinkedHashMap<>();
+        final Set<String> failedSteps = new HashSet<>();
+        
+        TestRecord(String testId, String displayName, String status, long durationNanos, int artifactCount) {
+            this.testId = testId;
+            this.displayName = displayName;
+            this.status = status;
+            this.durationNanos = durationNanos;
+            this.artifactCount = artifactCount;
+        }
+        
+        public Set<String> getStepNames() { return Collections.unmodifiableSet(stepDurations.keySet()); }
+        public Long getStepDuration(String stepName) { return stepDurations.get(stepName); }
+        public boolean isStepFailed(String stepName) { return failedSteps.contains(stepName); }
+    }
+    
+    /**
+     * Loaded history, oldest run first, indexed by execution ID
+     */
+    public static class RunHistory {
+        private final List<RunRecord> runs;
+        private final Map<String, RunRecord> runsById = new HashMap<>();
+        
+        RunHistory(List<RunRecord> runs) {
+            this.runs = runs;
+            for (RunRecord run : runs) {
+                runsById.put(run.executionId, run);
+            }
+        }
+        
+        public List<RunRecord> getRuns() { return Collections.unmodifiableList(runs); }
+        public RunRecord getRun(String executionId) { return runsById.get(executionId); }
+        
+        /**
+         * Durations of a test over the last runs it took part in, oldest first
+         */
+        public long[] getTestDurations(String testId, int lastRuns) {
+            List<Long> durations = new ArrayList<>();
+            for (int i = runs.size() - 1; i >= 0 && durations.size() < lastRuns; i--) {
+                TestRecord test = runs.get(i).getTest(testId);
+                // A cached result took no time, it would drag the baseline down
+                if (test != null && !"ABORTED".equals(test.status) && !"INCOMPLETE".equals(test.status) && !"CACHED".equals(test.status)) {
+                    durations.add(test.durationNanos);
+                }
+            }
+            return toOldestFirst(durations);
+        }
+        
+        /**
+         * Durations of a step of a test over the last runs that executed it, oldest first
+         */
+        public long[] getStepDurations(String testId, String stepName, int lastRuns) {
+            List<Long> durations = new ArrayList<>();
+            for (int i = runs.size() - 1; i >= 0 && durations.size() < lastRuns; i--) {
+                TestRecord test = runs.get(i).getTest(testId);
+                Long duration = test != null ? test.getStepDuration(stepName) : null;
+                if (duration != null) {
+                    durations.add(duration);
+                }
+            }
+            return toOldestFirst(durations);
+        }
+        
+        /**
+         * Test IDs seen in the last runs with the most recent display name, most recent run first
+         */
+        public Map<String, String> getRecentTests(int lastRuns) {
+            Map<String, String> names = new LinkedHashMap<>();
+            for (int i = runs.size() - 1; i >= 0 && i >= runs.size() - lastRuns; i--) {
+                for (TestRecord test : runs.get(i).getTests()) {
+                    names.putIfAbsent(test.testId, test.displayName);
+                }
+            }
+            return names;
+        }
+        
+        private static long[] toOldestFirst(List<Long> newestFirst) {
+            long[] values = new long[newestFirst.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = newestFirst.get(values.length - 1 - i);
+            }
+            return values;
+        }
+    }
+    
+    /**
+     * Nearest-rank percentile, percentile in the range 0-100
+     */
+    public static long percentile(long[] values, double percentile) {
+        if (values.length == 0) {
+            return 0;
+        }
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(rank, sorted.length) - 1)];
+    }
+    
+    /**
+     * Journal listener that records the replayed run into the store once the replay completes
+     */
+    public static class Recorder extends StreamingResultExporter {
+        private final StringBuilder testLines = new StringBuilder();
+        
+        @Override
+        protected void writeTest(CompletedTest test) {
+            appendLine(testLines, "TEST", getExecutionId(), test.id, test.displayName, test.status,
+                String.valueOf(test.durationNanos), String.valueOf(test.artifacts.size()));
+            Map<String, Boolean> stepPassed = new LinkedHashMap<>();
+            Map<String, Long> stepDurations = new LinkedHashMap<>();
+            for (StepResult step : test.steps) {
+                stepDurations.merge(step.name, step.durationNanos, Long::sum);
+                stepPassed.merge(step.name, step.passed, Boolean::logicalAnd);
+            }
+            for (Map.Entry<String, Long> step : stepDurations.entrySet()) {
+                appendLine(testLines, "STEP", getExecutionId(), test.id, step.getKey(),
+                    stepPassed.get(step.getKey()) ? "PASSED" : "FAILED", String.valueOf(step.getValue()));
+            }
+        }
+        
+        @Override
+        protected void writeFooter() {
+            if (getTotalTests() == 0) {
+                return;
+            }
+            String executionId = getExecutionId();
+            StringBuilder block = new StringBuilder(testLines.length() + 256);
+            appendLine(block, "RUN", executionId, String.valueOf(getStartEpochMillis()), String.valueOf(getWallClockMillis()),
+                String.valueOf(getTotalTests()), String.valueOf(getFailedTests()),
+                String.valueOf(getErroredTests()), String.valueOf(getSkippedTests()));
+            block.append(testLines);
+            appendLine(block, "END", executionId);
+            try {
+                append(block.toString());
+            } catch (IOException e) {
+                FrameworkLog.warn("⚠️ Warning: Failed to record run history: " + e.getMessage());
+            }
+        }
+        
+        @Override
+        public void close() {
+        }
+    }
+    
+    /**
+     * Load the history, compacting the file when it has accumulated superseded or expired blocks
+     */
+    public static RunHistory load() throws IOException {
+        Path historyFile = getHistoryDir().resolve(HISTORY_FILE);
+        return withLock(() -> {
+            if (!Files.exists(historyFile)) {
+                return new RunHistory(new ArrayList<>());
+            }
+            
+            // Later blocks of the same execution replace earlier ones
+            Map<String, RunRecord> latestRuns = new LinkedHashMap<>();
+            int blocksRead = 0;
+            try (BufferedReader reader = Files.newBufferedReader(historyFile, StandardCharsets.UTF_8)) {
+                RunRecord pending = null;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = TsvUtil.split(line);
+                    try {
+                        switch (fields[0]) {
+                            case "RUN":
+                                pending = new RunRecord(fields[1], Long.parseLong(fields[2]), Long.parseLong(fields[3]),
+                                    Integer.parseInt(fields[4]), Integer.parseInt(fields[5]),
+                                    Integer.parseInt(fields[6]), Integer.parseInt(fields[7]));
+                                break;
+                            case "TEST":
+                                if (pending != null && pending.executionId.equals(fields[1])) {
+                                    pending.tests.put(fields[2], new TestRecord(fields[2], fields[3], fields[4],
+                                        Long.parseLong(fields[5]), Integer.parseInt(fields[6])));
+                                }
+                                break;
+                            case "STEP":
+                                TestRecord test = pending != null && pending.executionId.equals(fields[1]) ? pending.getTest(fields[2]) : null;
+                                if (test != null) {
+                                    test.stepDurations.put(fields[3], Long.parseLong(fields[5]));
+                                    if ("FAILED".equals(fields[4])) {
+                                        test.failedSteps.add(fields[3]);
+                                    }
+                                }
+                                break;
+                            case "END":
+                                if (pending != null && pending.executionId.equals(fields[1])) {
+                                    latestRuns.remove(pending.executionId);
+                                    latestRuns.put(pending.executionId, pending);
+                                    blocksRead++;
+                                }
+                                pending = null;
+                                break;
+                            default:
+                                break;
+                        }
+                    } catch (RuntimeException e) {
+                        // Torn or corrupt line: drop the block it belongs to
+                        pending = null;
+                    }
+                }
+            }
+            
+            List<RunRecord> runs = new ArrayList<>(latestRuns.values());
+            runs.sort(Comparator.comparingLong(run -> run.startEpochMillis));
+            int maxRuns = getMaxRuns();
+            if (runs.size() > maxRuns) {
+                runs = new ArrayList<>(runs.subList(runs.size() - maxRuns, runs.size()));
+            }
+            if (blocksRead - runs.size() >= COMPACTION_SLACK) {
+                compact(historyFile, runs);
+            }
+            return new RunHistory(runs);
+        });
+    }
+    
+    private static void append(String block) throws IOException {
+        Path historyFile = getHistoryDir().resolve(HISTORY_FILE);
+        withLock(() -> {
+            Files.write(historyFile, block.getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            return null;
+        });
+    }
+    
+    /**
+     * Rewrite the history with only the given runs, replacing the file atomically
+     */
+    private static void compact(Path historyFile, List<RunRecord> runs) throws IOException {
+        Path compacted = historyFile.resolveSibling(HISTORY_FILE + ".compact");
+        try (Writer writer = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+            StringBuilder block = new StringBuilder();
+            for (RunRecord run : runs) {
+                block.setLength(0);
+                appendLine(block, "RUN", run.executionId, String.valueOf(run.startEpochMillis), String.valueOf(run.wallClockMillis),
+                    String.valueOf(run.totalTests), String.valueOf(run.failedTests),
+                    String.valueOf(run.erroredTests), String.valueOf(run.skippedTests));
+                for (TestRecord test : run.getTests()) {
+                    appendLine(block, "TEST", run.executionId, test.testId, test.displayName, test.status,
+                        String.valueOf(test.durationNanos), String.valueOf(test.artifactCount));
+                    for (Map.Entry<String, Long> step : test.stepDurations.entrySet()) {
+                        appendLine(block, "STEP", run.executionId, test.testId, step.getKey(),
+                            test.isStepFailed(step.getKey()) ? "FAILED" : "PASSED", String.valueOf(step.getValue()));
+                    }
+                }
+                appendLine(block, "END", run.executionId);
+                writer.write(block.toString());
+            }
+        }
+        Files.move(compacted, historyFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private interface LockedOperation<T> {
+        T run() throws IOException;
+    }
+    
+    /**
+     * Run an operation holding both the JVM monitor and a file lock, parallel forks share the store
+     */
+    @SuppressWarnings("try") // the lock is only held, never read
+    private static synchronized <T> T withLock(LockedOperation<T> operation) throws IOException {
+        Path historyDir = getHistoryDir();
+        Files.createDirectories(historyDir);
+        try (FileChannel channel = FileChannel.open(historyDir.resolve(LOCK_FILE),
+                 StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = channel.lock()) {
+            return operation.run();
+        }
+    }
+    
+    public static Path getHistoryDir() {
+        return Paths.get(System.getProperty(HISTORY_DIR_PROPERTY, DEFAULT_HISTORY_DIR));
+    }
+    
+    private static int getMaxRuns() {
+        try {
+            return Math.max(1, Integer.parseInt(System.getProperty(MAX_RUNS_PROPERTY, String.valueOf(DEFAULT_MAX_RUNS))));
+        } catch (NumberFormatException e) {
+            return DEFAULT_MAX_RUNS;
+        }
+    }
+    
+    private static void appendLine(StringBuilder out, String type, String executionId, String... fields) {
+        out.append(type).append('\t').append(TsvUtil.escape(executionId));
+        for (String field : fields) {
+            out.append('\t').append(TsvUtil.escape(field));
+        }
+        out.append('\n');
+    }
+}
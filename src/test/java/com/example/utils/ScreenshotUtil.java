@@ -58,23 +58,33 @@ public class ScreenshotUtil {
             }
             
             // Generate filename with execution ID and step name
+            // Forks sharing the execution ID add their PID so their step counters do not collide
             String executionId = ExecutionIdManager.getCurrentExecutionId();
-            String filename = String.format("step_%02d_%s_%s.png", stepCounter++, stepName.replaceAll("[^a-zA-Z0-9]", "_"), executionId);
+            String filename = String.format("step_%02d_%s%s_%s.png", stepCounter++, stepName.replaceAll("[^a-zA-Z0-9]", "_"),
+                ExecutionIdManager.getForkSuffix(), executionId);
             String filepath = SCREENSHOT_DIR + "/" + filename;
             
             // Capture screenshot
+            FrameworkEvents.ScreenshotEvent captureEvent = FrameworkEvents.beginScreenshot();
+            long captureStart = System.nanoTime();
             TakesScreenshot takesScreenshot = (TakesScreenshot) driver;
             File sourceFile = takesScreenshot.getScreenshotAs(OutputType.FILE);
             File destFile = new File(filepath);
+            FrameworkEvents.commitScreenshot(captureEvent, "capture", stepName, sourceFile.getPath(), sourceFile.length());
             
             // Copy file to destination
+            FrameworkEvents.ScreenshotEvent writeEvent = FrameworkEvents.beginScreenshot();
             Files.copy(sourceFile.toPath(), destFile.toPath());
+            long size = Files.size(destFile.toPath());
+            FrameworkEvents.commitScreenshot(writeEvent, "write", stepName, filepath, size);
+            ExecutionJournal.span("Screenshot " + stepName, "screenshot", captureStart, size);
+            ExecutionJournal.artifact(stepName, filepath, size);
             
-            System.out.println("📸 Screenshot captured: " + filepath);
+            FrameworkLog.info("📸 Screenshot captured: " + filepath);
             return filepath;
             
         } catch (IOException e) {
-            System.err.println("❌ Failed to capture screenshot: " + e.getMessage());
+            FrameworkLog.error("❌ Failed to capture screenshot: " + e.getMessage());
             return null;
         }
     }
@@ -91,6 +101,27 @@ public class ScreenshotUtil {
         return captureScreenshot(driver, "FAILURE_" + stepName);
     }
     
+    /**
+     * Copy a screenshot of an earlier run into this run's screenshots, e.g. for a cached test result
+     * @param source Screenshot file to copy
+     * @param stepName Name of the step it was captured for
+     * @return File path of the copy, or null if failed
+     */
+    public static String copyScreenshot(Path source, String stepName) {
+        try {
+            Files.createDirectories(Paths.get(SCREENSHOT_DIR));
+            String filename = String.format("step_%02d_%s%s_%s.png", stepCounter++, stepName.replaceAll("[^a-zA-Z0-9]", "_"),
+                ExecutionIdManager.getForkSuffix(), ExecutionIdManager.getCurrentExecutionId());
+            String filepath = SCREENSHOT_DIR + "/" + filename;
+            Files.copy(source, Paths.get(filepath));
+            ExecutionJournal.artifact(stepName, filepath, Files.size(source));
+            return filepath;
+        } catch (IOException e) {
+            FrameworkLog.error("❌ Failed to copy screenshot " + source + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
     /**
      * Reset both step counter and failure state
      */
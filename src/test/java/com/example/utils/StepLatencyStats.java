@@ -0,0 +1,60 @@
+package com.example.utils;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-step-name latency histograms for every step executed in this JVM
+ * Fed with nanoTime durations by SmartBaseTest.executeStep, which also backs safeNavigate,
+ * safeWait, safeAssert and safeElementInteraction. The histogram for a step name is created
+ * on its first sample; later samples only touch the existing histogram.
+ */
+public class StepLatencyStats {
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    
+    /**
+     * Record a step duration in nanoseconds
+     */
+    public static void record(String stepName, long durationNanos) {
+        LatencyHistogram histogram = histograms.get(stepName);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(stepName, name -> new LatencyHistogram());
+        }
+        histogram.record(durationNanos);
+    }
+    
+    /**
+     * Histograms by step name, sorted by name
+     */
+    public static Map<String, LatencyHistogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+    
+    /**
+     * Plain text table with count, p50, p99 and max per step name
+     */
+    public static String formatSummary(Map<String, LatencyHistogram> histograms) {
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("%-40s | %6s | %10s | %10s | %10s\n", "Step", "Count", "p50", "p99", "Max"));
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            summary.append(String.format("%-40s | %6d | %10s | %10s | %10s\n",
+                entry.getKey(),
+                histogram.getCount(),
+                formatNanos(histogram.getValueAtPercentile(50)),
+                formatNanos(histogram.getValueAtPercentile(99)),
+                formatNanos(histogram.getMax())));
+        }
+        return summary.toString();
+    }
+    
+    private static String formatNanos(long nanos) {
+        return String.format(Locale.ROOT, "%.1f ms", nanos / 1_000_000.0);
+    }
+    
+    public static void clear() {
+        histograms.clear();
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.utils;
+
+import java.io.Closeable;
+import java.util.*;
+
+/**
+ * Base class for result exporters fed by an execution journal replay
+ * Only tests that are still running are buffered; each test is handed to writeTest as soon as
+ * its TEST_END event arrives, so memory stays proportional to concurrency rather than suite size.
+ * A test ended as RETRIED is held until its next attempt, which carries it in previousAttempts.
+ */
+public abstract class StreamingResultExporter implements ExecutionJournal.Listener, Closeable {
+    private final Map<String, CompletedTest> runningTests = new LinkedHashMap<>();
+    private final Map<String, CompletedTest> retriedTests = new HashMap<>();
+    private String executionId = "unknown";
+    private long firstEventMillis = -1;
+    private long lastEventMillis = -1;
+    private int totalTests;
+    private int failedTests;
+    private int erroredTests;
+    private int skippedTests;
+    private int flakyTests;
+    private int cachedTests;
+    private long totalDurationNanos;
+    
+    /**
+     * Step outcome and duration
+     */
+    public static class StepResult {
+        public final String name;
+        public final boolean passed;
+        public final long durationNanos;
+        
+        StepResult(String name, boolean passed, long durationNanos) {
+            this.name = name;
+            this.passed = passed;
+            this.durationNanos = durationNanos;
+        }
+    }
+    
+    /**
+     * Failure recorded for a step or for the whole test
+     */
+    public static class FailureResult {
+        public final String stepName;
+        public final String exceptionType;
+        public final String message;
+        
+        FailureResult(String stepName, String detail) {
+            this.stepName = stepName;
+            int separator = detail != null ? detail.indexOf(": ") : -1;
+            this.exceptionType = separator > 0 ? detail.substring(0, separator) : String.valueOf(detail);
+            this.message = separator > 0 ? detail.substring(separator + 2) : "";
+        }
+        
+        public boolean isAssertion() {
+            return exceptionType.endsWith("AssertionFailedError") || exceptionType.endsWith("AssertionError")
+                || exceptionType.endsWith("PerformanceBudgetExceededError");
+        }
+    }
+    
+    /**
+     * Performance budget exceeded by a step
+     */
+    public static class BudgetResult {
+        public final String stepName;
+        public final String message;
+        public final double measured;
+        public final double limit;
+        
+        BudgetResult(String stepName, String message, double measured, double limit) {
+            this.stepName = stepName;
+            this.message = message;
+            this.measured = measured;
+            this.limit = limit;
+        }
+    }
+    
+    /**
+     * Artifact produced by a test
+     */
+    public static class ArtifactResult {
+        public final String stepName;
+        public final String path;
+        public final long sizeBytes;
+        
+        ArtifactResult(String stepName, String path, long sizeBytes) {
+            this.stepName = stepName;
+            this.path = path;
+            this.sizeBytes = sizeBytes;
+        }
+    }
+    
+    /**
+     * Everything recorded for one test
+     */
+    public static class CompletedTest {
+        public final String id;
+        public final String displayName;
+        public final String className;
+        public final String methodName;
+        public final long startEpochMillis;
+        public String status = "INCOMPLETE";
+        public long durationNanos;
+        // Execution a CACHED result comes from, see ResultCache
+        public String cachedFrom;
+        public final List<StepResult> steps = new ArrayList<>();
+        public final List<FailureResult> failures = new ArrayList<>();
+        public final List<ArtifactResult> artifacts = new ArrayList<>();
+        public final List<BudgetResult> budgetViolations = new ArrayList<>();
+        // Last lines logged during the test, see FrameworkLog
+        public final Deque<String> logLines = new ArrayDeque<>();
+        // Earlier attempts that failed and were retried, oldest first
+        public final List<CompletedTest> previousAttempts = new ArrayList<>();
+        
+        CompletedTest(String id, String displayName, String classAndMethod, long startEpochMillis) {
+            this.id = id;
+            this.displayName = displayName;
+            int separator = classAndMethod != null ? classAndMethod.indexOf('#') : -1;
+            this.className = separator > 0 ? classAndMethod.substring(0, separator) : "Unknown";
+            this.methodName = separator > 0 ? classAndMethod.substring(separator + 1) : "Unknown";
+            this.startEpochMillis = startEpochMillis;
+        }
+        
+        /**
+         * First recorded failure, which points at the step that actually broke
+         */
+        public FailureResult getPrimaryFailure() {
+            return failures.isEmpty() ? null : failures.get(0);
+        }
+        
+        /**
+         * Status comes from TEST_END, failure events only say where and why
+         */
+        public boolean isFailed() {
+            return "FAILED".equals(status) || "RETRIED".equals(status);
+        }
+        
+        public int getAttempts() {
+            return previousAttempts.size() + 1;
+        }
+        
+        /**
+         * Passed after failing on earlier attempts
+         */
+        public boolean isFlaky() {
+            return !previousAttempts.isEmpty() && "PASSED".equals(status);
+        }
+        
+        /**
+         * Not executed, its result was reused from an earlier run with the same inputs
+         */
+        public boolean isCached() {
+            return "CACHED".equals(status);
+        }
+    }
+    
+    @Override
+    public final void onEvent(ExecutionJournal.Event event) {
+        // Events are stamped on the recording threads, so they are only roughly ordered in the file
+        if (firstEventMillis < 0 || event.getEpochMillis() < firstEventMillis) {
+            firstEventMillis = event.getEpochMillis();
+        }
+        lastEventMillis = Math.max(lastEventMillis, event.getEpochMillis());
+        
+        switch (event.getType()) {
+            case SESSION_START:
+                executionId = event.getName();
+                break;
+            case TEST_START:
+                CompletedTest started = new CompletedTest(event.getTestId(), event.getName(), event.getDetail(), event.getEpochMillis());
+                CompletedTest retried = retriedTests.remove(event.getTestId());
+                if (retried != null) {
+                    started.previousAttempts.addAll(retried.previousAttempts);
+                    retried.previousAttempts.clear();
+                    started.previousAttempts.add(retried);
+                }
+                runningTests.put(event.getTestId(), started);
+                break;
+            case STEP_END:
+                CompletedTest stepOwner = runningTests.get(event.getTestId());
+                if (stepOwner != null) {
+                    stepOwner.steps.add(new StepResult(event.getName(), "PASSED".equals(event.getDetail()), event.getValue()));
+                }
+                break;
+            case FAILURE:
+                CompletedTest failed = runningTests.get(event.getTestId());
+                if (failed != null) {
+                    failed.failures.add(new FailureResult(event.getName(), event.getDetail()));
+                }
+                break;
+            case ARTIFACT:
+                CompletedTest artifactOwner = runningTests.get(event.getTestId());
+                if (artifactOwner != null) {
+                    artifactOwner.artifacts.add(new ArtifactResult(event.getName(), event.getDetail(), event.getValue()));
+                }
+                break;
+            case BUDGET:
+                CompletedTest budgetOwner = runningTests.get(event.getTestId());
+                if (budgetOwner != null) {
+                    budgetOwner.budgetViolations.add(new BudgetResult(event.getName(), event.getDetail(),
+                        event.getMetricValue(), event.getBudgetLimit()));
+                }
+                break;
+            case LOG:
+                CompletedTest logOwner = runningTests.get(event.getTestId());
+                if (logOwner != null) {
+                    if (logOwner.logLines.size() >= FrameworkLog.CAPTURED_LINES_PER_TEST) {
+                        logOwner.logLines.removeFirst();
+                    }
+                    logOwner.logLines.addLast(FrameworkLog.formatLine(event.getEpochMillis(), event.getThread(), event.getName(), event.getDetail()));
+                }
+                break;
+            case TEST_END:
+                CompletedTest finished = runningTests.remove(event.getTestId());
+                if (finished != null) {
+                    finished.status = event.getName();
+                    finished.durationNanos = event.getValue();
+                    finished.cachedFrom = finished.isCached() ? event.getDetail() : null;
+                    if ("RETRIED".equals(finished.status)) {
+                        retriedTests.put(finished.id, finished);
+                    } else {
+                        complete(finished);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+    
+    @Override
+    public final void onComplete() {
+        // Tests without TEST_END (killed JVM) are still exported, as INCOMPLETE
+        for (CompletedTest incomplete : runningTests.values()) {
+            complete(incomplete);
+        }
+        runningTests.clear();
+        // So are retried attempts whose next attempt never started, as failed
+        for (CompletedTest retried : retriedTests.values()) {
+            complete(retried);
+        }
+        retriedTests.clear();
+        writeFooter();
+    }
+    
+    private void complete(CompletedTest test) {
+        totalTests++;
+        totalDurationNanos += test.durationNanos;
+        if ("ABORTED".equals(test.status) || "INCOMPLETE".equals(test.status)) {
+            skippedTests++;
+        } else if (test.isFailed()) {
+            FailureResult failure = test.getPrimaryFailure();
+            if (failure != null && !failure.isAssertion()) {
+                erroredTests++;
+            } else {
+                failedTests++;
+            }
+        } else if (test.isFlaky()) {
+            flakyTests++;
+        } else if (test.isCached()) {
+            cachedTests++;
+        }
+        writeTest(test);
+    }
+    
+    /**
+     * Write one finished test to the output
+     */
+    protected abstract void writeTest(CompletedTest test);
+    
+    /**
+     * Write trailing totals once the replay is complete
+     */
+    protected abstract void writeFooter();
+    
+    protected String getExecutionId() { return executionId; }
+    protected int getTotalTests() { return totalTests; }
+    protected int getFailedTests() { return failedTests; }
+    protected int getErroredTests() { return erroredTests; }
+    protected int getSkippedTests() { return skippedTests; }
+    protected int getFlakyTests() { return flakyTests; }
+    protected int getCachedTests() { return cachedTests; }
+    protected long getTotalDurationNanos() { return totalDurationNanos; }
+    
+    /**
+     * Wall-clock span between the earliest and latest replayed event
+     */
+    protected long getWallClockMillis() {
+        return firstEventMillis < 0 ? 0 : lastEventMillis - firstEventMillis;
+    }
+    
+    protected long getStartEpochMillis() {
+        return Math.max(firstEventMillis, 0);
+    }
+    
+    protected static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+    
+    protected static String formatSeconds(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000_000.0);
+    }
+}
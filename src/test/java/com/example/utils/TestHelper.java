@@ -29,8 +29,8 @@ public class TestHelper {
      * @return File path of the failure screenshot
      */
     public static String handleTestFailure(WebDriver driver, String stepName, Exception exception) {
-        System.err.println("❌ Test failure in step: " + stepName);
-        System.err.println("❌ Exception: " + exception.getMessage());
+        FrameworkLog.error("❌ Test failure in step: " + stepName);
+        FrameworkLog.error("❌ Exception: " + exception.getMessage());
         
         // Mark failure and capture screenshot
         return ScreenshotUtil.captureFailureScreenshot(driver, stepName);
@@ -46,8 +46,8 @@ public class TestHelper {
      * @return File path of the failure screenshot
      */
     public static String handleAssertionFailure(WebDriver driver, String stepName, String assertionMessage) {
-        System.err.println("❌ Assertion failed in step: " + stepName);
-        System.err.println("❌ Message: " + assertionMessage);
+        FrameworkLog.error("❌ Assertion failed in step: " + stepName);
+        FrameworkLog.error("❌ Message: " + assertionMessage);
         
         // Mark failure and capture screenshot
         return ScreenshotUtil.captureFailureScreenshot(driver, stepName);
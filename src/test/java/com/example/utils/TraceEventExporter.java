@@ -0,0 +1,205 @@
+package com.example.utils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Streams the execution as a Trace Event Format timeline while the journal is replayed
+ * Open the file in https://ui.perfetto.dev or chrome://tracing: every thread gets its own track
+ * with spans for tests, steps, waits, WebDriver commands, DOM queries with their results, form fills,
+ * DOM snapshots, driver startup, screenshots and report generation, so idle gaps and parallel utilization are visible at a glance.
+ * Uses the JSON array format, written one event per line; the closing bracket is optional
+ * for trace viewers, so even a partially written file loads.
+ */
+public class TraceEventExporter implements ExecutionJournal.Listener, Closeable {
+    private final Path outputFile;
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder(256);
+    // Track IDs by process and thread name, forks reuse thread names such as "main"
+    private final Map<String, Integer> threadIds = new HashMap<>();
+    private final Map<String, String> testNames = new HashMap<>();
+    // Description of the steps in progress per process and thread, to tell waits apart from other steps
+    private final Map<String, Deque<String>> runningSteps = new HashMap<>();
+    // Timestamps are the monotonic clock of the test JVM, viewers show them relative to the first event
+    // Journals of parallel forks are replayed one after the other, each fork becomes a process in the viewer
+    private final Set<Long> processIds = new HashSet<>();
+    private long processId = -1;
+    private boolean firstEvent = true;
+    
+    public TraceEventExporter(Path outputFile) throws IOException {
+        this.outputFile = outputFile;
+        Files.createDirectories(outputFile.toAbsolutePath().getParent());
+        this.writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(outputFile), StandardCharsets.UTF_8), 1 << 16);
+        writer.write("[");
+    }
+    
+    @Override
+    public void onEvent(ExecutionJournal.Event event) {
+        if (event.getType() == ExecutionJournal.EventType.SESSION_START) {
+            // Recorded by the journal writer thread, which gets no track of its own
+            processId = event.getValue();
+            processIds.add(processId);
+            writeMetadata("process_name", 0, "Test run " + event.getName());
+            return;
+        }
+        int tid = getThreadId(event.getThread());
+        switch (event.getType()) {
+            case TEST_START:
+                testNames.put(event.getTestId(), event.getName());
+                break;
+            case TEST_END:
+                String testName = testNames.remove(event.getTestId());
+                writeSpan(testName != null ? testName : String.valueOf(event.getTestId()), "test", tid,
+                    event.getNanoTime() - event.getValue(), event.getValue(), "status", event.getName(), "testId", event.getTestId());
+                break;
+            case STEP_START:
+                runningSteps.computeIfAbsent(getTrackKey(event.getThread()), key -> new ArrayDeque<>()).push(String.valueOf(event.getDetail()));
+                break;
+            case STEP_END:
+                Deque<String> steps = runningSteps.get(getTrackKey(event.getThread()));
+                String description = steps != null && !steps.isEmpty() ? steps.pop() : "";
+                writeSpan(event.getName(), description.startsWith("Waiting for") ? "wait" : "step", tid,
+                    event.getNanoTime() - event.getValue(), event.getValue(), "status", event.getDetail(), "description", description);
+                break;
+            case COMMAND:
+                writeSpan(event.getName(), "command", tid, event.getNanoTime() - event.getValue(), event.getValue(),
+                    "step", event.getDetail(), "bytes", String.valueOf(event.getSize()));
+                break;
+            case SPAN:
+                writeSpan(event.getName(), event.getDetail(), tid, event.getNanoTime() - event.getValue(), event.getValue(),
+                    "testId", event.getTestId(), "bytes", String.valueOf(event.getSize()));
+                break;
+            case QUERY:
+                writeSpan("DOM query (" + event.getSize() + " values)", "dom-query", tid, event.getNanoTime() - event.getValue(),
+                    event.getValue(), "step", event.getName(), "results", event.getDetail());
+                break;
+            case FAILURE:
+                writeInstant("Failure: " + event.getName(), "failure", tid, event.getNanoTime(), event.getDetail());
+                break;
+            case BUDGET:
+                writeInstant("Budget exceeded: " + event.getName(), "budget", tid, event.getNanoTime(), event.getDetail());
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Add a span measured outside of the journal, such as the report generation running this export
+     * Ignored when the journal comes from another JVM, whose clock the span cannot be placed on
+     */
+    public void writeExternalSpan(String name, String category, long startNanos, long durationNanos) {
+        if (!processIds.contains(ProcessHandle.current().pid())) {
+            return;
+        }
+        processId = ProcessHandle.current().pid();
+        writeSpan(name, category, getThreadId(Thread.currentThread().getName()), startNanos, durationNanos, null, null, null, null);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        writer.write("\n]\n");
+        writer.close();
+    }
+    
+    public Path getOutputFile() {
+        return outputFile;
+    }
+    
+    /**
+     * Track ID of a thread, announcing the track name the first time the thread is seen
+     */
+    private int getThreadId(String thread) {
+        String key = getTrackKey(thread);
+        Integer tid = threadIds.get(key);
+        if (tid == null) {
+            tid = threadIds.size() + 1;
+            threadIds.put(key, tid);
+            writeMetadata("thread_name", tid, thread);
+        }
+        return tid;
+    }
+    
+    /**
+     * Thread of the process whose session is being replayed, the pid comes from its SESSION_START
+     */
+    private String getTrackKey(String thread) {
+        return processId + "/" + thread;
+    }
+    
+    private void writeMetadata(String kind, int tid, String value) {
+        line.setLength(0);
+        line.append("{\"name\":\"").append(kind).append("\",\"ph\":\"M\",\"pid\":").append(processId)
+            .append(",\"tid\":").append(tid).append(",\"args\":{\"name\":").append(JsonResultExporter.quote(value)).append("}}");
+        writeLine();
+    }
+    
+    private void writeSpan(String name, String category, int tid, long startNanos, long durationNanos,
+                           String arg1, String value1, String arg2, String value2) {
+        line.setLength(0);
+        line.append("{\"name\":").append(JsonResultExporter.quote(name))
+            .append(",\"cat\":").append(JsonResultExporter.quote(category))
+            .append(",\"ph\":\"X\",\"ts\":");
+        appendMicros(startNanos);
+        line.append(",\"dur\":");
+        appendMicros(Math.max(0, durationNanos));
+        line.append(",\"pid\":").append(processId).append(",\"tid\":").append(tid);
+        appendArgs(arg1, value1, arg2, value2);
+        line.append('}');
+        writeLine();
+    }
+    
+    private void writeInstant(String name, String category, int tid, long nanoTime, String detail) {
+        line.setLength(0);
+        line.append("{\"name\":").append(JsonResultExporter.quote(name))
+            .append(",\"cat\":").append(JsonResultExporter.quote(category))
+            .append(",\"ph\":\"i\",\"s\":\"t\",\"ts\":");
+        appendMicros(nanoTime);
+        line.append(",\"pid\":").append(processId).append(",\"tid\":").append(tid);
+        appendArgs("detail", detail, null, null);
+        line.append('}');
+        writeLine();
+    }
+    
+    private void appendArgs(String arg1, String value1, String arg2, String value2) {
+        if (arg1 == null && arg2 == null) {
+            return;
+        }
+        line.append(",\"args\":{");
+        if (arg1 != null) {
+            line.append(JsonResultExporter.quote(arg1)).append(':').append(JsonResultExporter.quote(value1));
+        }
+        if (arg2 != null) {
+            line.append(arg1 != null ? "," : "").append(JsonResultExporter.quote(arg2)).append(':').append(JsonResultExporter.quote(value2));
+        }
+        line.append('}');
+    }
+    
+    /**
+     * Microseconds with three decimals, without going through String.format for every event
+     */
+    private void appendMicros(long nanos) {
+        if (nanos < 0) {
+            line.append('-');
+            nanos = -nanos;
+        }
+        long fraction = nanos % 1000;
+        line.append(nanos / 1000).append('.');
+        if (fraction < 100) {
+            line.append(fraction < 10 ? "00" : "0");
+        }
+        line.append(fraction);
+    }
+    
+    private void writeLine() {
+        try {
+            writer.write(firstEvent ? "\n" : ",\n");
+            firstEvent = false;
+            writer.append(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write trace events to " + outputFile, e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tab separated lines used by the run history and the execution checkpoint
+ * Backslash, tab and line breaks inside a field are escaped, so every line is one record
+ */
+class TsvUtil {
+    
+    private TsvUtil() {
+    }
+    
+    /**
+     * Escape a field, null is written as an empty field
+     */
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': escaped.append("\\\\"); break;
+                case '\t': escaped.append("\\t"); break;
+                case '\n': escaped.append("\\n"); break;
+                case '\r': escaped.append("\\r"); break;
+                default: escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+    
+    static String unescape(String value) {
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                result.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+    
+    /**
+     * Split a line into its unescaped fields
+     */
+    static String[] split(String line) {
+        String[] rawFields = line.split("\t", -1);
+        List<String> fields = new ArrayList<>(rawFields.length);
+        for (String rawField : rawFields) {
+            fields.add(unescape(rawField));
+        }
+        return fields.toArray(new String[0]);
+    }
+}
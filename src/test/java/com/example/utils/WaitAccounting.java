@@ -0,0 +1,184 @@
+package com.example.utils;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Supplier;
+
+/**
+ * Splits the time of each step and test into command round trips, explicit waits,
+ * implicit-wait stalls, sleeps and everything else (framework and test code)
+ * Explicit waits are timed by AccountingWebDriverWait, sleeps by pause(), commands by
+ * CommandTracingListener (-Dtrace.commands=true). A findElement slower than -Dwait.implicitStallMs
+ * (default 250ms) is counted as an implicit-wait stall, as a plain round trip is far quicker.
+ * Commands issued while an explicit wait polls are part of that wait and not counted twice.
+ * Breakdowns are recorded in the journal as metrics before each STEP_END and TEST_END.
+ */
+public class WaitAccounting {
+    private static final String IMPLICIT_STALL_PROPERTY = "wait.implicitStallMs";
+    private static final long DEFAULT_IMPLICIT_STALL_MS = 250;
+    
+    // Breakdown metrics, in milliseconds, recorded for a step or for TEST_TOTAL
+    public static final String METRIC_PREFIX = "time.";
+    public static final String COMMANDS = "time.commands";
+    public static final String EXPLICIT_WAITS = "time.explicitWaits";
+    public static final String IMPLICIT_WAITS = "time.implicitWaits";
+    public static final String SLEEPS = "time.sleeps";
+    public static final String TEST_TOTAL = "Whole test";
+    
+    // Journal SPAN categories
+    public static final String WAIT_CATEGORY = "wait";
+    public static final String SLEEP_CATEGORY = "sleep";
+    
+    private static final long IMPLICIT_STALL_NANOS = getImplicitStallNanos();
+    
+    private static final ThreadLocal<Deque<Breakdown>> breakdowns = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final ThreadLocal<int[]> waitDepth = ThreadLocal.withInitial(() -> new int[1]);
+    
+    /**
+     * Time accumulated by one step or test
+     */
+    private static class Breakdown {
+        long commandNanos;
+        long explicitWaitNanos;
+        long implicitWaitNanos;
+        long sleepNanos;
+        
+        void add(Breakdown other) {
+            commandNanos += other.commandNanos;
+            explicitWaitNanos += other.explicitWaitNanos;
+            implicitWaitNanos += other.implicitWaitNanos;
+            sleepNanos += other.sleepNanos;
+        }
+        
+        void record(String stepName) {
+            ExecutionJournal.metric(stepName, COMMANDS, commandNanos / 1_000_000.0);
+            ExecutionJournal.metric(stepName, EXPLICIT_WAITS, explicitWaitNanos / 1_000_000.0);
+            ExecutionJournal.metric(stepName, IMPLICIT_WAITS, implicitWaitNanos / 1_000_000.0);
+            ExecutionJournal.metric(stepName, SLEEPS, sleepNanos / 1_000_000.0);
+        }
+    }
+    
+    public static void testStarted() {
+        breakdowns.get().clear();
+        breakdowns.get().push(new Breakdown());
+        waitDepth.get()[0] = 0;
+    }
+    
+    /**
+     * Record the breakdown of the whole test, call before the TEST_END event
+     */
+    public static void testFinished() {
+        Deque<Breakdown> stack = breakdowns.get();
+        Breakdown test = stack.pollLast();
+        stack.clear();
+        if (test != null) {
+            test.record(TEST_TOTAL);
+        }
+    }
+    
+    public static void stepStarted() {
+        breakdowns.get().push(new Breakdown());
+    }
+    
+    /**
+     * Record the breakdown of the step, call before the STEP_END event
+     * The step's time also counts for the enclosing step and the test
+     */
+    public static void stepFinished(String stepName) {
+        Deque<Breakdown> stack = breakdowns.get();
+        Breakdown step = stack.poll();
+        if (step == null) {
+            return;
+        }
+        Breakdown parent = stack.peek();
+        if (parent != null) {
+            parent.add(step);
+        }
+        step.record(stepName);
+    }
+    
+    /**
+     * Account a WebDriver command round trip
+     */
+    public static void command(String command, long durationNanos) {
+        Breakdown current = breakdowns.get().peek();
+        if (current == null || waitDepth.get()[0] > 0) {
+            return;
+        }
+        boolean find = command.endsWith(".findElement") || command.endsWith(".findElements");
+        if (find && durationNanos > IMPLICIT_STALL_NANOS) {
+            current.implicitWaitNanos += durationNanos;
+        } else {
+            current.commandNanos += durationNanos;
+        }
+    }
+    
+    /**
+     * Run an explicit wait, accounting its time under the condition's type
+     */
+    public static <T> T explicitWait(Object condition, Supplier<T> wait) {
+        int[] depth = waitDepth.get();
+        long start = System.nanoTime();
+        depth[0]++;
+        try {
+            return wait.get();
+        } finally {
+            depth[0]--;
+            // Only the outermost wait counts, nested conditions are part of it
+            if (depth[0] == 0) {
+                long duration = System.nanoTime() - start;
+                Breakdown current = breakdowns.get().peek();
+                if (current != null) {
+                    current.explicitWaitNanos += duration;
+                }
+                ExecutionJournal.span(getConditionType(condition), WAIT_CATEGORY, start, 0);
+            }
+        }
+    }
+    
+    /**
+     * Sleep for the given time, accounted as a sleep
+     */
+    public static void sleep(Duration duration) {
+        long start = System.nanoTime();
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            Breakdown current = breakdowns.get().peek();
+            if (current != null) {
+                current.sleepNanos += System.nanoTime() - start;
+            }
+            ExecutionJournal.span("Sleep " + duration.toMillis() + "ms", SLEEP_CATEGORY, start, 0);
+        }
+    }
+    
+    /**
+     * Condition type without its arguments, e.g. "visibility of element located" or "title to be"
+     */
+    static String getConditionType(Object condition) {
+        String description = String.valueOf(condition);
+        if (description.contains("$$Lambda") || description.contains("$Lambda")) {
+            return "custom condition";
+        }
+        int end = description.length();
+        for (String separator : new String[] {":", " by ", "\"", "(", "[", "="}) {
+            int index = description.indexOf(separator);
+            if (index > 0 && index < end) {
+                end = index;
+            }
+        }
+        String type = description.substring(0, end).trim();
+        return type.isEmpty() ? "custom condition" : type;
+    }
+    
+    private static long getImplicitStallNanos() {
+        try {
+            return Long.parseLong(System.getProperty(IMPLICIT_STALL_PROPERTY, String.valueOf(DEFAULT_IMPLICIT_STALL_MS))) * 1_000_000;
+        } catch (NumberFormatException e) {
+            return DEFAULT_IMPLICIT_STALL_MS * 1_000_000;
+        }
+    }
+}